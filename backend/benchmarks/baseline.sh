@@ -0,0 +1,46 @@
+#!/usr/bin/env sh
+# Runs the benchmarks in the README baseline table and prints the reference
+# environment line and table rows to paste over it. Run from backend/benchmarks/
+# after `mvn package`, on an otherwise idle machine.
+set -eu
+
+JAR=target/benchmarks.jar
+CSV=target/baseline.csv
+
+if [ ! -f "$JAR" ]; then
+    echo "$JAR not found; run mvn package first" >&2
+    exit 1
+fi
+
+java -jar "$JAR" -rf csv -rff "$CSV" \
+    'JwtTokenProviderBenchmark\.(generateToken|validateToken)$' \
+    'UserPrincipalBenchmark\.' \
+    'DtoMappingBenchmark\.' \
+    'JsonSerializationBenchmark\.(filePage|dashboardStatistics)$' \
+    'FileAccessBenchmark\.viewAccess$' \
+    'ActivityLogBenchmark\.logFileActivity$' >&2
+
+CPU=$(grep -m1 'model name' /proc/cpuinfo 2>/dev/null | cut -d: -f2 | sed 's/^ *//' || true)
+JDK=$(java -version 2>&1 | sed -n 2p)
+echo "Reference environment: ${CPU:-$(uname -m)}, $(nproc 2>/dev/null || echo '?') cores, $JDK, $(date +%Y-%m-%d)"
+echo
+
+# JMH CSV: "Benchmark","Mode","Threads","Samples","Score","Score Error (99.9%)","Unit","Param: ...",...
+awk -F',' '
+    NR == 1 {
+        for (i = 8; i <= NF; i++) { name[i] = $i; gsub(/"|Param: /, "", name[i]) }
+        print "| Benchmark | Params | Score | Error | Units |"
+        print "|-----------|--------|-------|-------|-------|"
+        next
+    }
+    {
+        gsub(/"/, "")
+        sub(/^com\.secureoffice\.backend\.benchmark\./, "", $1)
+        params = ""
+        for (i = 8; i <= NF; i++) {
+            if ($i != "") params = params (params == "" ? "" : ", ") name[i] "=" $i
+        }
+        if ($1 ~ /FileAccessBenchmark/ && params !~ /scenario=SHARED_VIEW_VIA_EDIT/) next
+        printf "| %s | %s | %.3f | %.3f | %s |\n", $1, params, $5, $6, $7
+    }
+' "$CSV"
@@ -0,0 +1,60 @@
+package com.secureoffice.backend.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.secureoffice.backend.model.User;
+import com.secureoffice.backend.repository.ActivityLogRepository;
+import com.secureoffice.backend.service.ActivityLogService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Activity log entry construction and detail serialization, which runs inline on
+ * every upload, download, share and message send. The repository save is stubbed.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class ActivityLogBenchmark {
+
+    private ActivityLogService activityLogService;
+    private ObjectMapper objectMapper;
+    private User user;
+    private Map<String, Object> details;
+
+    @Setup
+    public void setUp() {
+        activityLogService = new ActivityLogService();
+        Fixtures.inject(activityLogService, "activityLogRepository", Fixtures.stub(ActivityLogRepository.class));
+
+        objectMapper = new ObjectMapper();
+        user = Fixtures.user(42L, "jdoe", User.Role.EMPLOYEE);
+        details = new HashMap<>();
+        details.put("filename", "Quarterly report Q3.pdf");
+    }
+
+    @Benchmark
+    public void logFileActivity() {
+        activityLogService.logFileActivity(user, "FILE_DOWNLOAD", 20L, "Quarterly report Q3.pdf");
+    }
+
+    @Benchmark
+    public String detailSerialization() throws JsonProcessingException {
+        return objectMapper.writeValueAsString(details);
+    }
+}
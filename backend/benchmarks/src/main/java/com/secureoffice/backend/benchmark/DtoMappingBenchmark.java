@@ -0,0 +1,62 @@
+package com.secureoffice.backend.benchmark;
+
+import com.secureoffice.backend.dto.department.DepartmentResponse;
+import com.secureoffice.backend.dto.file.FileResponse;
+import com.secureoffice.backend.dto.message.MessageResponse;
+import com.secureoffice.backend.model.Department;
+import com.secureoffice.backend.model.File;
+import com.secureoffice.backend.model.Message;
+import com.secureoffice.backend.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Entity to response DTO mapping as done for every row of a listing endpoint.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class DtoMappingBenchmark {
+
+    private Message message;
+    private File file;
+    private Department department;
+
+    @Setup
+    public void setUp() {
+        User manager = Fixtures.user(1L, "manager", User.Role.MANAGER);
+        User employee = Fixtures.user(2L, "employee", User.Role.EMPLOYEE);
+
+        message = Fixtures.directMessage(10L, manager, employee);
+        file = Fixtures.file(20L, employee);
+        department = Fixtures.department(30L, manager, 25);
+    }
+
+    @Benchmark
+    public MessageResponse messageResponse() {
+        return new MessageResponse(message);
+    }
+
+    @Benchmark
+    public FileResponse fileResponse() {
+        return new FileResponse(file);
+    }
+
+    @Benchmark
+    public DepartmentResponse departmentResponse() {
+        return new DepartmentResponse(department);
+    }
+}
@@ -0,0 +1,78 @@
+package com.secureoffice.backend.benchmark;
+
+import com.secureoffice.backend.config.FilePermissionCacheConfig;
+import com.secureoffice.backend.model.File;
+import com.secureoffice.backend.model.FileShare;
+import com.secureoffice.backend.model.User;
+import com.secureoffice.backend.repository.FileShareRepository;
+import com.secureoffice.backend.service.FilePermissionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * The access decision made before every download, share and listing. The share
+ * lookup is answered from memory so the numbers isolate the decision logic; the
+ * database round trip it normally costs on a cache miss is not included.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class FileAccessBenchmark {
+
+    public enum Scenario { OWNER, PUBLIC, SHARED_VIEW_VIA_EDIT, DENIED }
+
+    @Param
+    private Scenario scenario;
+
+    @Param({ "false", "true" })
+    private boolean permissionCacheEnabled;
+
+    private FilePermissionService filePermissionService;
+    private File file;
+    private User user;
+
+    @Setup
+    public void setUp() throws Exception {
+        User owner = Fixtures.user(1L, "owner", User.Role.EMPLOYEE);
+        User other = Fixtures.user(2L, "colleague", User.Role.EMPLOYEE);
+        file = Fixtures.file(10L, owner);
+
+        List<FileShare> shares = switch (scenario) {
+            case SHARED_VIEW_VIA_EDIT -> List.of(Fixtures.share(file, other, FileShare.PermissionType.EDIT, owner));
+            default -> List.of();
+        };
+        user = scenario == Scenario.OWNER ? owner : other;
+        file.setIsPublic(scenario == Scenario.PUBLIC);
+
+        FilePermissionCacheConfig config = new FilePermissionCacheConfig();
+        config.setEnabled(permissionCacheEnabled);
+        filePermissionService = new FilePermissionService(config);
+        Fixtures.inject(filePermissionService, "fileShareRepository", Fixtures.stub(FileShareRepository.class,
+                (name, args) -> "findByFileAndUser".equals(name) ? shares : null));
+    }
+
+    @Benchmark
+    public boolean viewAccess() {
+        return filePermissionService.hasFileAccess(file, user, FileShare.PermissionType.VIEW);
+    }
+
+    @Benchmark
+    public boolean downloadAccess() {
+        return filePermissionService.hasFileAccess(file, user, FileShare.PermissionType.DOWNLOAD);
+    }
+}
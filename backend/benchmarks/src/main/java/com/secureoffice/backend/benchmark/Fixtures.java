@@ -0,0 +1,127 @@
+package com.secureoffice.backend.benchmark;
+
+import com.secureoffice.backend.model.Department;
+import com.secureoffice.backend.model.File;
+import com.secureoffice.backend.model.FileShare;
+import com.secureoffice.backend.model.Message;
+import com.secureoffice.backend.model.User;
+
+import java.lang.reflect.Field;
+import java.lang.reflect.Proxy;
+import java.time.LocalDateTime;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiFunction;
+
+/**
+ * Representative entities and wiring helpers shared by the benchmarks. Services are
+ * built without a Spring context; repositories are replaced by in-memory stubs so
+ * only the code under test is measured.
+ */
+final class Fixtures {
+
+    static final String JWT_SECRET = "benchmarkSecretKeyThatIsLongEnoughForHmacSha256Signatures";
+
+    private Fixtures() {}
+
+    static User user(long id, String username, User.Role role) {
+        User user = new User(username, username + "@secureoffice.com",
+                "$2a$10$92IXUNpkjO0rOQ5byMi.Ye4oKoEa3Ro9llC/.og/at2.uheWG/igi", "Bench", "User " + id);
+        user.setId(id);
+        user.setRole(role);
+        user.setCreatedAt(LocalDateTime.of(2024, 1, 15, 9, 30));
+        return user;
+    }
+
+    static Department department(long id, User manager, int memberCount) {
+        Department department = new Department("Engineering", "Product engineering and platform teams");
+        department.setId(id);
+        department.setManager(manager);
+        department.setCreatedAt(LocalDateTime.of(2024, 1, 10, 8, 0));
+        Set<User> members = new HashSet<>();
+        for (int i = 0; i < memberCount; i++) {
+            members.add(user(1000 + i, "member" + i, User.Role.EMPLOYEE));
+        }
+        department.setUsers(members);
+        return department;
+    }
+
+    static File file(long id, User owner) {
+        File file = new File(
+                "3f2504e0-4f89-11d3-9a0c-0305e82c3301.pdf",
+                "Quarterly report Q3.pdf",
+                "/var/secureoffice/uploads/reports/3f2504e0-4f89-11d3-9a0c-0305e82c3301.pdf",
+                2_457_600L,
+                "application/pdf",
+                "/reports",
+                owner);
+        file.setId(id);
+        file.setCreatedAt(LocalDateTime.of(2024, 3, 2, 14, 5));
+        return file;
+    }
+
+    static Message directMessage(long id, User sender, User recipient) {
+        Message message = new Message(sender, recipient, "Review request",
+                "Could you take a look at the quarterly report before Friday's meeting? Thanks!");
+        message.setId(id);
+        message.setCreatedAt(LocalDateTime.of(2024, 3, 4, 10, 15));
+        return message;
+    }
+
+    static FileShare share(File file, User user, FileShare.PermissionType permissionType, User sharedBy) {
+        FileShare share = new FileShare(file, user, permissionType, sharedBy);
+        share.setId(file.getId() * 100 + user.getId());
+        return share;
+    }
+
+    // Same shape and key set as AnalyticsService.getDashboardStatistics()
+    static Map<String, Object> dashboardStatistics() {
+        Map<String, Object> stats = new LinkedHashMap<>();
+        stats.put("totalUsers", 1250L);
+        stats.put("activeUsers", 1184L);
+        stats.put("adminCount", 4L);
+        stats.put("managerCount", 38L);
+        stats.put("employeeCount", 1142L);
+        stats.put("totalFiles", 48_211L);
+        stats.put("totalFileSize", 96_482_133_504L);
+        stats.put("totalFileSizeFormatted", "89.9 GB");
+        stats.put("totalMessages", 312_904L);
+        stats.put("totalDepartments", 17L);
+        stats.put("recentFileUploads", 412L);
+        stats.put("recentMessages", 2_977L);
+        stats.put("recentNotifications", 3_406L);
+        return stats;
+    }
+
+    /**
+     * Returns an implementation of a repository interface that answers the named
+     * methods through {@code handler} and returns {@code null} for everything else.
+     */
+    @SuppressWarnings("unchecked")
+    static <R> R stub(Class<R> repositoryType, BiFunction<String, Object[], Object> handler) {
+        return (R) Proxy.newProxyInstance(repositoryType.getClassLoader(), new Class<?>[] { repositoryType },
+                (proxy, method, args) -> switch (method.getName()) {
+                    case "toString" -> repositoryType.getSimpleName() + " stub";
+                    case "hashCode" -> System.identityHashCode(proxy);
+                    case "equals" -> proxy == args[0];
+                    default -> handler.apply(method.getName(), args);
+                });
+    }
+
+    static <R> R stub(Class<R> repositoryType) {
+        return stub(repositoryType, (name, args) -> "save".equals(name) ? args[0] : null);
+    }
+
+    // Stands in for @Autowired field injection
+    static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Cannot inject " + fieldName + " into " + target.getClass().getSimpleName(), e);
+        }
+    }
+}
@@ -0,0 +1,90 @@
+package com.secureoffice.backend.benchmark;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.secureoffice.backend.dto.department.DepartmentResponse;
+import com.secureoffice.backend.dto.file.FileResponse;
+import com.secureoffice.backend.dto.message.MessageResponse;
+import com.secureoffice.backend.model.User;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Response body serialization with an ObjectMapper configured the way Spring MVC
+ * builds its own (JavaTimeModule, dates as ISO strings).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class JsonSerializationBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    private ObjectMapper objectMapper;
+    private MessageResponse message;
+    private FileResponse file;
+    private DepartmentResponse department;
+    private List<FileResponse> filePage;
+    private Map<String, Object> dashboardStatistics;
+
+    @Setup
+    public void setUp() {
+        objectMapper = Jackson2ObjectMapperBuilder.json().build();
+
+        User manager = Fixtures.user(1L, "manager", User.Role.MANAGER);
+        User employee = Fixtures.user(2L, "employee", User.Role.EMPLOYEE);
+
+        message = new MessageResponse(Fixtures.directMessage(10L, manager, employee));
+        file = new FileResponse(Fixtures.file(20L, employee));
+        department = new DepartmentResponse(Fixtures.department(30L, manager, 25));
+
+        filePage = new ArrayList<>(PAGE_SIZE);
+        for (int i = 0; i < PAGE_SIZE; i++) {
+            filePage.add(new FileResponse(Fixtures.file(100L + i, employee)));
+        }
+
+        dashboardStatistics = Fixtures.dashboardStatistics();
+    }
+
+    @Benchmark
+    public byte[] messageResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(message);
+    }
+
+    @Benchmark
+    public byte[] fileResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(file);
+    }
+
+    @Benchmark
+    public byte[] departmentResponse() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(department);
+    }
+
+    @Benchmark
+    public byte[] filePage() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(filePage);
+    }
+
+    @Benchmark
+    public byte[] dashboardStatistics() throws JsonProcessingException {
+        return objectMapper.writeValueAsBytes(dashboardStatistics);
+    }
+}
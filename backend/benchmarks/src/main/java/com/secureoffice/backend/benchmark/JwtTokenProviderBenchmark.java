@@ -0,0 +1,81 @@
+package com.secureoffice.backend.benchmark;
+
+import com.secureoffice.backend.config.JwtConfig;
+import com.secureoffice.backend.model.User;
+import com.secureoffice.backend.security.JwtTokenProvider;
+import com.secureoffice.backend.security.UserPrincipal;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
+import org.springframework.security.core.Authentication;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Access token issue and verification. {@code verifiedTokenCacheSize=0} measures the
+ * raw HMAC + JSON parse; the default size measures a repeat presentation of the same
+ * token, which is what the authentication filter sees for every request.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class JwtTokenProviderBenchmark {
+
+    @Param({ "0", "10000" })
+    private int verifiedTokenCacheSize;
+
+    private JwtTokenProvider tokenProvider;
+    private Authentication authentication;
+    private String accessToken;
+    private String refreshToken;
+
+    @Setup
+    public void setUp() {
+        JwtConfig jwtConfig = new JwtConfig();
+        jwtConfig.setSecret(Fixtures.JWT_SECRET);
+        jwtConfig.setExpiration(86_400_000L);
+        jwtConfig.setRefreshExpiration(604_800_000L);
+        jwtConfig.setVerifiedTokenCacheSize(verifiedTokenCacheSize);
+
+        tokenProvider = new JwtTokenProvider();
+        Fixtures.inject(tokenProvider, "jwtConfig", jwtConfig);
+        tokenProvider.init();
+
+        UserPrincipal principal = UserPrincipal.create(Fixtures.user(42L, "jdoe", User.Role.MANAGER));
+        authentication = new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities());
+        accessToken = tokenProvider.generateToken(authentication);
+        refreshToken = tokenProvider.generateRefreshToken(42L);
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return tokenProvider.generateToken(authentication);
+    }
+
+    @Benchmark
+    public String generateRefreshToken() {
+        return tokenProvider.generateRefreshToken(42L);
+    }
+
+    @Benchmark
+    public boolean validateToken() {
+        return tokenProvider.validateToken(accessToken);
+    }
+
+    @Benchmark
+    public Object parseRefreshClaims() {
+        return tokenProvider.parseClaims(refreshToken);
+    }
+}
@@ -0,0 +1,57 @@
+package com.secureoffice.backend.benchmark;
+
+import com.secureoffice.backend.model.User;
+import com.secureoffice.backend.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Principal construction from the entity (database-backed authentication) and from
+ * verified token claims (stateless authentication).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(2)
+public class UserPrincipalBenchmark {
+
+    private User user;
+    private Claims claims;
+
+    @Setup
+    public void setUp() {
+        user = Fixtures.user(42L, "jdoe", User.Role.MANAGER);
+
+        claims = Jwts.claims();
+        claims.setSubject("42");
+        claims.put("username", "jdoe");
+        claims.put("email", "jdoe@secureoffice.com");
+        claims.put("authorities", "ROLE_MANAGER");
+        claims.setIssuedAt(new Date());
+    }
+
+    @Benchmark
+    public UserPrincipal createFromUser() {
+        return UserPrincipal.create(user);
+    }
+
+    @Benchmark
+    public UserPrincipal createFromClaims() {
+        return UserPrincipal.create(claims);
+    }
+}
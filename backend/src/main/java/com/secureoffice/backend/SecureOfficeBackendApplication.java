@@ -3,9 +3,12 @@ package com.secureoffice.backend;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.data.jpa.repository.config.EnableJpaAuditing;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
 @EnableJpaAuditing
+// Scheduler threads: spring.task.scheduling.pool.size
+@EnableScheduling
 public class SecureOfficeBackendApplication {
 
     public static void main(String[] args) {
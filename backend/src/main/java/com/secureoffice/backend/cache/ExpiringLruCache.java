@@ -0,0 +1,221 @@
+package com.secureoffice.backend.cache;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiPredicate;
+import java.util.function.Function;
+
+/**
+ * Small thread-safe in-process cache with a size bound (least recently used entries
+ * are dropped first) and a per-entry expiry. Entries are spread over independently
+ * locked segments by key hash, so concurrent lookups of different keys rarely contend;
+ * recency and the size bound are kept per segment. Hit, miss, eviction and invalidation
+ * counts are kept so the cache can be sized from the statistics endpoints.
+ */
+public class ExpiringLruCache<K, V> {
+
+    private static final int MAX_SEGMENTS = 16;
+
+    private final int maxSize;
+    private final long ttlMillis;
+    private final Segment<K, V>[] segments;
+
+    // Bumped by invalidations that are not tied to one key; see get(key, loader)
+    private final AtomicLong generation = new AtomicLong();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public ExpiringLruCache(int maxSize, long ttlMillis) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize must be positive");
+        }
+        this.maxSize = maxSize;
+        this.ttlMillis = ttlMillis;
+
+        int segmentCount = Integer.highestOneBit(Math.min(maxSize, MAX_SEGMENTS));
+        this.segments = new Segment[segmentCount];
+        for (int i = 0; i < segmentCount; i++) {
+            // Segment bounds add up to maxSize exactly
+            int segmentSize = maxSize / segmentCount + (i < maxSize % segmentCount ? 1 : 0);
+            segments[i] = new Segment<>(segmentSize, evictions);
+        }
+    }
+
+    public V get(K key) {
+        long now = System.currentTimeMillis();
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            Entry<V> entry = segment.entries.get(key);
+            if (entry != null) {
+                if (entry.expiresAt > now) {
+                    hits.increment();
+                    return entry.value;
+                }
+                segment.entries.remove(key);
+                evictions.increment();
+            }
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Returns the cached value or loads, caches and returns it. The loader runs outside
+     * the cache lock; {@code null} results are not cached. A result is not cached either
+     * when an invalidation that could cover the key ran while it was loading, since the
+     * loader may have read the state that invalidation was meant to drop.
+     */
+    public V get(K key, Function<? super K, ? extends V> loader) {
+        V value = get(key);
+        if (value != null) {
+            return value;
+        }
+
+        Segment<K, V> segment = segmentFor(key);
+        long globalGeneration = generation.get();
+        long segmentGeneration;
+        synchronized (segment) {
+            segmentGeneration = segment.generation;
+        }
+
+        value = loader.apply(key);
+        if (value == null) {
+            return null;
+        }
+
+        long expiresAt = expiresAt(Long.MAX_VALUE);
+        synchronized (segment) {
+            if (segment.generation == segmentGeneration && generation.get() == globalGeneration) {
+                segment.entries.put(key, new Entry<>(value, expiresAt));
+            }
+        }
+        return value;
+    }
+
+    public void put(K key, V value) {
+        put(key, value, Long.MAX_VALUE);
+    }
+
+    /**
+     * Caches the value until the earlier of the configured TTL and {@code expiresAtMillis}.
+     */
+    public void put(K key, V value, long expiresAtMillis) {
+        long expiresAt = expiresAt(expiresAtMillis);
+        if (expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.entries.put(key, new Entry<>(value, expiresAt));
+        }
+    }
+
+    public void invalidate(K key) {
+        Segment<K, V> segment = segmentFor(key);
+        synchronized (segment) {
+            segment.generation++;
+            if (segment.entries.remove(key) != null) {
+                invalidations.increment();
+            }
+        }
+    }
+
+    public void invalidateIf(BiPredicate<? super K, ? super V> predicate) {
+        // Before the scan, so a load that finishes after a segment was scanned is not cached
+        generation.incrementAndGet();
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                Iterator<Map.Entry<K, Entry<V>>> iterator = segment.entries.entrySet().iterator();
+                while (iterator.hasNext()) {
+                    Map.Entry<K, Entry<V>> entry = iterator.next();
+                    if (predicate.test(entry.getKey(), entry.getValue().value)) {
+                        iterator.remove();
+                        invalidations.increment();
+                    }
+                }
+            }
+        }
+    }
+
+    public void clear() {
+        generation.incrementAndGet();
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                invalidations.add(segment.entries.size());
+                segment.entries.clear();
+            }
+        }
+    }
+
+    public int size() {
+        int size = 0;
+        for (Segment<K, V> segment : segments) {
+            synchronized (segment) {
+                size += segment.entries.size();
+            }
+        }
+        return size;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+        stats.put("size", size());
+        stats.put("maxSize", maxSize);
+        stats.put("hits", hitCount);
+        stats.put("misses", missCount);
+        stats.put("evictions", evictions.sum());
+        stats.put("invalidations", invalidations.sum());
+        stats.put("hitRatio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount));
+        return stats;
+    }
+
+    private long expiresAt(long expiresAtMillis) {
+        long now = System.currentTimeMillis();
+        return Math.min(expiresAtMillis, ttlMillis > 0 ? now + ttlMillis : Long.MAX_VALUE);
+    }
+
+    private Segment<K, V> segmentFor(K key) {
+        int hash = key.hashCode();
+        hash ^= hash >>> 16;
+        return segments[hash & (segments.length - 1)];
+    }
+
+    // Guarded by its own monitor
+    private static final class Segment<K, V> {
+        private final LinkedHashMap<K, Entry<V>> entries;
+        private long generation;
+
+        private Segment(int maxSize, LongAdder evictions) {
+            this.entries = new LinkedHashMap<>(Math.min(maxSize, 1024), 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                    if (size() > maxSize) {
+                        evictions.increment();
+                        return true;
+                    }
+                    return false;
+                }
+            };
+        }
+    }
+
+    private static final class Entry<V> {
+        private final V value;
+        private final long expiresAt;
+
+        private Entry(V value, long expiresAt) {
+            this.value = value;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
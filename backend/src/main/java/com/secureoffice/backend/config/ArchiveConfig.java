@@ -0,0 +1,40 @@
+package com.secureoffice.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "file.archive")
+public class ArchiveConfig {
+    
+    private int maxFiles = 10000;
+    private List<String> storedMimeTypes = new ArrayList<>(List.of(
+            "image/jpeg", "image/png", "image/gif", "image/webp", "image/avif", "image/heic", "video/*", "audio/*",
+            "application/zip", "application/gzip", "application/x-gzip", "application/x-7z-compressed",
+            "application/x-rar-compressed", "application/x-bzip2", "application/x-xz", "application/zstd",
+            "application/java-archive", "application/epub+zip",
+            "application/vnd.openxmlformats-officedocument.wordprocessingml.document",
+            "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet",
+            "application/vnd.openxmlformats-officedocument.presentationml.presentation"));
+    
+    public ArchiveConfig() {}
+    
+    public int getMaxFiles() {
+        return maxFiles;
+    }
+    
+    public void setMaxFiles(int maxFiles) {
+        this.maxFiles = maxFiles;
+    }
+    
+    public List<String> getStoredMimeTypes() {
+        return storedMimeTypes;
+    }
+    
+    public void setStoredMimeTypes(List<String> storedMimeTypes) {
+        this.storedMimeTypes = storedMimeTypes;
+    }
+}
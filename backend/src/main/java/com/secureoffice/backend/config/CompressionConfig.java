@@ -0,0 +1,53 @@
+package com.secureoffice.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "file.compression")
+public class CompressionConfig {
+    
+    private boolean enabled = false;
+    private List<String> mimeTypes = new ArrayList<>(List.of(
+            "text/*", "application/json", "application/xml", "application/javascript",
+            "application/x-ndjson", "application/sql", "image/svg+xml"));
+    private long minSize = 1024;
+    private int level = 6;
+    
+    public CompressionConfig() {}
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public List<String> getMimeTypes() {
+        return mimeTypes;
+    }
+    
+    public void setMimeTypes(List<String> mimeTypes) {
+        this.mimeTypes = mimeTypes;
+    }
+    
+    public long getMinSize() {
+        return minSize;
+    }
+    
+    public void setMinSize(long minSize) {
+        this.minSize = minSize;
+    }
+    
+    public int getLevel() {
+        return level;
+    }
+    
+    public void setLevel(int level) {
+        this.level = level;
+    }
+}
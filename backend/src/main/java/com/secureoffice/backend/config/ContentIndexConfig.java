@@ -0,0 +1,48 @@
+package com.secureoffice.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "content-index")
+public class ContentIndexConfig {
+    
+    private boolean enabled = true;
+    private String dir = "./content-index";
+    private int threads = 1;
+    private int maxChars = 1000000;
+    
+    public ContentIndexConfig() {}
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public String getDir() {
+        return dir;
+    }
+    
+    public void setDir(String dir) {
+        this.dir = dir;
+    }
+    
+    public int getThreads() {
+        return threads;
+    }
+    
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+    
+    public int getMaxChars() {
+        return maxChars;
+    }
+    
+    public void setMaxChars(int maxChars) {
+        this.maxChars = maxChars;
+    }
+}
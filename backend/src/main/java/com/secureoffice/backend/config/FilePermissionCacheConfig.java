@@ -0,0 +1,39 @@
+package com.secureoffice.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "file-permission-cache")
+public class FilePermissionCacheConfig {
+    
+    private boolean enabled = true;
+    private int maxSize = 50000;
+    private long ttl = 600000;
+    
+    public FilePermissionCacheConfig() {}
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public int getMaxSize() {
+        return maxSize;
+    }
+    
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+    
+    public long getTtl() {
+        return ttl;
+    }
+    
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+}
@@ -0,0 +1,66 @@
+package com.secureoffice.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "file-purge")
+public class FilePurgeConfig {
+    
+    private boolean enabled = true;
+    private long retention = 2592000000L; // 30 days
+    private int batchSize = 100;
+    private long pause = 200;
+    private int maxBatchesPerRun = 100;
+    private long orphanMinAge = 3600000;
+    
+    public FilePurgeConfig() {}
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public long getRetention() {
+        return retention;
+    }
+    
+    public void setRetention(long retention) {
+        this.retention = retention;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public long getPause() {
+        return pause;
+    }
+    
+    public void setPause(long pause) {
+        this.pause = pause;
+    }
+    
+    public int getMaxBatchesPerRun() {
+        return maxBatchesPerRun;
+    }
+    
+    public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+    
+    public long getOrphanMinAge() {
+        return orphanMinAge;
+    }
+    
+    public void setOrphanMinAge(long orphanMinAge) {
+        this.orphanMinAge = orphanMinAge;
+    }
+}
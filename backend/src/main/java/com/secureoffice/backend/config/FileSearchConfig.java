@@ -0,0 +1,30 @@
+package com.secureoffice.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "file-search")
+public class FileSearchConfig {
+    
+    private boolean enabled = true;
+    private int rebuildBatchSize = 5000;
+    
+    public FileSearchConfig() {}
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public int getRebuildBatchSize() {
+        return rebuildBatchSize;
+    }
+    
+    public void setRebuildBatchSize(int rebuildBatchSize) {
+        this.rebuildBatchSize = rebuildBatchSize;
+    }
+}
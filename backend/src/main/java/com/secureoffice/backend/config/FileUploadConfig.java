@@ -9,6 +9,10 @@ public class FileUploadConfig {
     
     private String dir;
     private long maxSize;
+    private long chunkSize = 8 * 1024 * 1024;
+    private long sessionMaxSize = 10L * 1024 * 1024 * 1024;
+    private long sessionTtl = 86400000;
+    private String storageBackend = "local";
     
     public FileUploadConfig() {}
     
@@ -27,4 +31,36 @@ public class FileUploadConfig {
     public void setMaxSize(long maxSize) {
         this.maxSize = maxSize;
     }
+    
+    public long getChunkSize() {
+        return chunkSize;
+    }
+    
+    public void setChunkSize(long chunkSize) {
+        this.chunkSize = chunkSize;
+    }
+    
+    public long getSessionMaxSize() {
+        return sessionMaxSize;
+    }
+    
+    public void setSessionMaxSize(long sessionMaxSize) {
+        this.sessionMaxSize = sessionMaxSize;
+    }
+    
+    public long getSessionTtl() {
+        return sessionTtl;
+    }
+    
+    public void setSessionTtl(long sessionTtl) {
+        this.sessionTtl = sessionTtl;
+    }
+    
+    public String getStorageBackend() {
+        return storageBackend;
+    }
+    
+    public void setStorageBackend(String storageBackend) {
+        this.storageBackend = storageBackend;
+    }
 }
@@ -10,6 +10,8 @@ public class JwtConfig {
     private String secret;
     private long expiration;
     private long refreshExpiration;
+    private boolean stateless;
+    private int verifiedTokenCacheSize = 10000;
     
     public JwtConfig() {}
     
@@ -36,4 +38,20 @@ public class JwtConfig {
     public void setRefreshExpiration(long refreshExpiration) {
         this.refreshExpiration = refreshExpiration;
     }
+    
+    public boolean isStateless() {
+        return stateless;
+    }
+    
+    public void setStateless(boolean stateless) {
+        this.stateless = stateless;
+    }
+    
+    public int getVerifiedTokenCacheSize() {
+        return verifiedTokenCacheSize;
+    }
+    
+    public void setVerifiedTokenCacheSize(int verifiedTokenCacheSize) {
+        this.verifiedTokenCacheSize = verifiedTokenCacheSize;
+    }
 }
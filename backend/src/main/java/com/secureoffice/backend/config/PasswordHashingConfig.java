@@ -0,0 +1,66 @@
+package com.secureoffice.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "password-hashing")
+public class PasswordHashingConfig {
+    
+    private int threads;
+    private int queueCapacity = 64;
+    private long timeout = 10000;
+    private int bcryptStrength = 10;
+    private int maxInFlightPerIp = 4;
+    private int maxInFlightPerAccount = 2;
+    
+    public PasswordHashingConfig() {}
+    
+    public int getThreads() {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+    
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+    
+    public int getQueueCapacity() {
+        return queueCapacity;
+    }
+    
+    public void setQueueCapacity(int queueCapacity) {
+        this.queueCapacity = queueCapacity;
+    }
+    
+    public long getTimeout() {
+        return timeout;
+    }
+    
+    public void setTimeout(long timeout) {
+        this.timeout = timeout;
+    }
+    
+    public int getBcryptStrength() {
+        return bcryptStrength;
+    }
+    
+    public void setBcryptStrength(int bcryptStrength) {
+        this.bcryptStrength = bcryptStrength;
+    }
+    
+    public int getMaxInFlightPerIp() {
+        return maxInFlightPerIp;
+    }
+    
+    public void setMaxInFlightPerIp(int maxInFlightPerIp) {
+        this.maxInFlightPerIp = maxInFlightPerIp;
+    }
+    
+    public int getMaxInFlightPerAccount() {
+        return maxInFlightPerAccount;
+    }
+    
+    public void setMaxInFlightPerAccount(int maxInFlightPerAccount) {
+        this.maxInFlightPerAccount = maxInFlightPerAccount;
+    }
+}
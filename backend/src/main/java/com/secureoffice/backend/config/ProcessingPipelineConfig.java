@@ -0,0 +1,48 @@
+package com.secureoffice.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "processing")
+public class ProcessingPipelineConfig {
+    
+    private int maxAttempts = 5;
+    private long initialBackoff = 10000;
+    private long maxBackoff = 3600000;
+    private long pollInterval = 5000;
+    
+    public ProcessingPipelineConfig() {}
+    
+    public int getMaxAttempts() {
+        return maxAttempts;
+    }
+    
+    public void setMaxAttempts(int maxAttempts) {
+        this.maxAttempts = maxAttempts;
+    }
+    
+    public long getInitialBackoff() {
+        return initialBackoff;
+    }
+    
+    public void setInitialBackoff(long initialBackoff) {
+        this.initialBackoff = initialBackoff;
+    }
+    
+    public long getMaxBackoff() {
+        return maxBackoff;
+    }
+    
+    public void setMaxBackoff(long maxBackoff) {
+        this.maxBackoff = maxBackoff;
+    }
+    
+    public long getPollInterval() {
+        return pollInterval;
+    }
+    
+    public void setPollInterval(long pollInterval) {
+        this.pollInterval = pollInterval;
+    }
+}
@@ -2,6 +2,7 @@ package com.secureoffice.backend.config;
 
 import com.secureoffice.backend.security.JwtAuthenticationEntryPoint;
 import com.secureoffice.backend.security.JwtAuthenticationFilter;
+import com.secureoffice.backend.security.OffloadedPasswordEncoder;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -11,8 +12,6 @@ import org.springframework.security.config.annotation.method.configuration.Enabl
 import org.springframework.security.config.annotation.web.builders.HttpSecurity;
 import org.springframework.security.config.annotation.web.configuration.EnableWebSecurity;
 import org.springframework.security.config.http.SessionCreationPolicy;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
-import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.security.web.SecurityFilterChain;
 import org.springframework.security.web.authentication.UsernamePasswordAuthenticationFilter;
 import org.springframework.web.cors.CorsConfiguration;
@@ -33,8 +32,9 @@ public class SecurityConfig {
     private JwtAuthenticationFilter jwtAuthenticationFilter;
 
     @Bean
-    public PasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public OffloadedPasswordEncoder passwordEncoder(PasswordHashingConfig passwordHashingConfig) {
+        // BCrypt runs on its own bounded pool instead of Tomcat request threads
+        return new OffloadedPasswordEncoder(passwordHashingConfig);
     }
 
     @Bean
@@ -0,0 +1,23 @@
+package com.secureoffice.backend.config;
+
+import com.secureoffice.backend.storage.InMemoryStorageBackend;
+import com.secureoffice.backend.storage.LocalStorageBackend;
+import com.secureoffice.backend.storage.StorageBackend;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.nio.file.Paths;
+
+@Configuration
+public class StorageConfig {
+
+    @Bean
+    public StorageBackend storageBackend(FileUploadConfig fileUploadConfig) {
+        return switch (fileUploadConfig.getStorageBackend()) {
+            case "local" -> new LocalStorageBackend(Paths.get(fileUploadConfig.getDir()));
+            case "memory" -> new InMemoryStorageBackend();
+            default -> throw new IllegalStateException(
+                    "Unknown file.upload.storage-backend: " + fileUploadConfig.getStorageBackend());
+        };
+    }
+}
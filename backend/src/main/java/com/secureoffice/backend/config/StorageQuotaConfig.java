@@ -0,0 +1,60 @@
+package com.secureoffice.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * Storage limits in bytes; 0 means unlimited.
+ */
+@Component
+@ConfigurationProperties(prefix = "storage-quota")
+public class StorageQuotaConfig {
+    
+    private long userBytes = 0;
+    private long departmentBytes = 0;
+    private long totalBytes = 0;
+    private int reconcileBatchSize = 500;
+    private long reconcilePause = 100;
+    
+    public StorageQuotaConfig() {}
+    
+    public long getUserBytes() {
+        return userBytes;
+    }
+    
+    public void setUserBytes(long userBytes) {
+        this.userBytes = userBytes;
+    }
+    
+    public long getDepartmentBytes() {
+        return departmentBytes;
+    }
+    
+    public void setDepartmentBytes(long departmentBytes) {
+        this.departmentBytes = departmentBytes;
+    }
+    
+    public long getTotalBytes() {
+        return totalBytes;
+    }
+    
+    public void setTotalBytes(long totalBytes) {
+        this.totalBytes = totalBytes;
+    }
+    
+    public int getReconcileBatchSize() {
+        return reconcileBatchSize;
+    }
+    
+    public void setReconcileBatchSize(int reconcileBatchSize) {
+        this.reconcileBatchSize = reconcileBatchSize;
+    }
+    
+    public long getReconcilePause() {
+        return reconcilePause;
+    }
+    
+    public void setReconcilePause(long reconcilePause) {
+        this.reconcilePause = reconcilePause;
+    }
+}
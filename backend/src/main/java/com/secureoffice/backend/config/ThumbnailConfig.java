@@ -0,0 +1,51 @@
+package com.secureoffice.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Component
+@ConfigurationProperties(prefix = "thumbnails")
+public class ThumbnailConfig {
+    
+    private boolean enabled = true;
+    private List<Integer> sizes = new ArrayList<>(List.of(128, 256, 1024));
+    private int threads = 2;
+    private long maxSourcePixels = 50_000_000L;
+    
+    public ThumbnailConfig() {}
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public List<Integer> getSizes() {
+        return sizes;
+    }
+    
+    public void setSizes(List<Integer> sizes) {
+        this.sizes = sizes;
+    }
+    
+    public int getThreads() {
+        return threads;
+    }
+    
+    public void setThreads(int threads) {
+        this.threads = threads;
+    }
+    
+    public long getMaxSourcePixels() {
+        return maxSourcePixels;
+    }
+    
+    public void setMaxSourcePixels(long maxSourcePixels) {
+        this.maxSourcePixels = maxSourcePixels;
+    }
+}
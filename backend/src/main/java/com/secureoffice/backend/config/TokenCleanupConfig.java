@@ -0,0 +1,48 @@
+package com.secureoffice.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "token-cleanup")
+public class TokenCleanupConfig {
+    
+    private boolean enabled = true;
+    private int batchSize = 1000;
+    private long pause = 100;
+    private int maxBatchesPerRun = 1000;
+    
+    public TokenCleanupConfig() {}
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public int getBatchSize() {
+        return batchSize;
+    }
+    
+    public void setBatchSize(int batchSize) {
+        this.batchSize = batchSize;
+    }
+    
+    public long getPause() {
+        return pause;
+    }
+    
+    public void setPause(long pause) {
+        this.pause = pause;
+    }
+    
+    public int getMaxBatchesPerRun() {
+        return maxBatchesPerRun;
+    }
+    
+    public void setMaxBatchesPerRun(int maxBatchesPerRun) {
+        this.maxBatchesPerRun = maxBatchesPerRun;
+    }
+}
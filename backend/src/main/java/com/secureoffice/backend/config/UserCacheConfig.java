@@ -0,0 +1,39 @@
+package com.secureoffice.backend.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+@Component
+@ConfigurationProperties(prefix = "user-cache")
+public class UserCacheConfig {
+    
+    private boolean enabled = true;
+    private int maxSize = 10000;
+    private long ttl = 300000;
+    
+    public UserCacheConfig() {}
+    
+    public boolean isEnabled() {
+        return enabled;
+    }
+    
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+    
+    public int getMaxSize() {
+        return maxSize;
+    }
+    
+    public void setMaxSize(int maxSize) {
+        this.maxSize = maxSize;
+    }
+    
+    public long getTtl() {
+        return ttl;
+    }
+    
+    public void setTtl(long ttl) {
+        this.ttl = ttl;
+    }
+}
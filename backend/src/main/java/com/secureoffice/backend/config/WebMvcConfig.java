@@ -0,0 +1,46 @@
+package com.secureoffice.backend.config;
+
+import com.secureoffice.backend.security.CurrentUserArgumentResolver;
+import jakarta.persistence.EntityManagerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.orm.jpa.support.OpenEntityManagerInViewInterceptor;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.servlet.config.annotation.InterceptorRegistry;
+import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
+
+import java.util.List;
+
+@Configuration
+public class WebMvcConfig implements WebMvcConfigurer {
+
+    @Autowired
+    private CurrentUserArgumentResolver currentUserArgumentResolver;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Override
+    public void addArgumentResolvers(List<HandlerMethodArgumentResolver> resolvers) {
+        resolvers.add(currentUserArgumentResolver);
+    }
+
+    /**
+     * Open-in-view, registered here instead of through spring.jpa.open-in-view so it can
+     * leave out the endpoints that receive, assemble or stream a raw body, or wait on
+     * password hashing. An entity manager kept open for the request holds on to its JDBC
+     * connection once it has used one, which would pin a pool connection for the whole
+     * transfer to or from a slow client, or while a login queues for the hashing pool.
+     */
+    @Override
+    public void addInterceptors(InterceptorRegistry registry) {
+        OpenEntityManagerInViewInterceptor interceptor = new OpenEntityManagerInViewInterceptor();
+        interceptor.setEntityManagerFactory(entityManagerFactory);
+        registry.addWebRequestInterceptor(interceptor)
+                .excludePathPatterns("/api/files/upload/stream", "/api/files/uploads/*/chunks/*",
+                        "/api/files/uploads/*/complete", "/api/files/archive",
+                        "/api/files/download/*",
+                        "/api/auth/login", "/api/auth/register", "/api/auth/reset-password",
+                        "/api/users/me/change-password");
+    }
+}
@@ -0,0 +1,66 @@
+package com.secureoffice.backend.controller;
+
+import com.secureoffice.backend.config.ArchiveConfig;
+import com.secureoffice.backend.dto.file.FileArchive;
+import com.secureoffice.backend.storage.BlobStore;
+import com.secureoffice.backend.storage.CompressionPolicy;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Streams a {@link FileArchive} as a ZIP built on the fly: each body is read from
+ * storage and written to the response as the archive is produced, so memory use does
+ * not depend on the number or size of the files and nothing is staged on disk. The
+ * response has no Content-Length and is sent chunked.
+ */
+@Component
+public class ArchiveResponder {
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private ArchiveConfig archiveConfig;
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    public void respond(FileArchive archive, HttpServletResponse response) throws IOException {
+        response.setContentType("application/zip");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(archive.getFilename(), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        response.setHeader(HttpHeaders.CACHE_CONTROL, "no-store");
+
+        // A failure after the first byte can only abort the response; the client sees a truncated archive
+        try (ZipOutputStream zip = new ZipOutputStream(new BufferedOutputStream(response.getOutputStream(), BUFFER_SIZE),
+                StandardCharsets.UTF_8)) {
+            for (FileArchive.Entry entry : archive.getEntries()) {
+                // Formats that are already compressed are written as deflate "stored" blocks:
+                // no CRC or size is needed up front, as a STORED entry would require, and
+                // almost no CPU is spent on them
+                boolean compressed = CompressionPolicy.matchesAny(entry.getMimeType(), archiveConfig.getStoredMimeTypes());
+                zip.setLevel(compressed ? Deflater.NO_COMPRESSION : Deflater.DEFAULT_COMPRESSION);
+
+                ZipEntry zipEntry = new ZipEntry(entry.getName());
+                zipEntry.setTime(entry.getLastModified());
+                zip.putNextEntry(zipEntry);
+                try (InputStream in = blobStore.open(entry.getStorageKey(), entry.getCodec())) {
+                    in.transferTo(zip);
+                }
+                zip.closeEntry();
+            }
+        }
+    }
+}
@@ -1,25 +1,44 @@
 package com.secureoffice.backend.controller;
 
+import com.secureoffice.backend.dto.file.ArchiveRequest;
+import com.secureoffice.backend.dto.file.BulkShareResponse;
+import com.secureoffice.backend.dto.file.FileArchive;
+import com.secureoffice.backend.dto.file.FileDownload;
 import com.secureoffice.backend.dto.file.FileResponse;
 import com.secureoffice.backend.dto.file.FileShareRequest;
 import com.secureoffice.backend.dto.file.FileShareResponse;
+import com.secureoffice.backend.dto.file.FileThumbnail;
+import com.secureoffice.backend.dto.file.FolderResponse;
+import com.secureoffice.backend.dto.file.MoveFileRequest;
+import com.secureoffice.backend.dto.file.ProcessingStatusResponse;
+import com.secureoffice.backend.dto.file.UploadSessionRequest;
+import com.secureoffice.backend.dto.file.UploadSessionResponse;
 import com.secureoffice.backend.service.FileService;
+import com.secureoffice.backend.service.FolderService;
+import com.secureoffice.backend.service.ThumbnailService;
+import com.secureoffice.backend.service.UploadSessionService;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
-import org.springframework.http.HttpHeaders;
+import org.springframework.http.CacheControl;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/files")
@@ -29,6 +48,21 @@ public class FileController {
     @Autowired
     private FileService fileService;
 
+    @Autowired
+    private FileDownloadResponder fileDownloadResponder;
+
+    @Autowired
+    private ArchiveResponder archiveResponder;
+
+    @Autowired
+    private UploadSessionService uploadSessionService;
+
+    @Autowired
+    private FolderService folderService;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
     @PostMapping("/upload")
     public ResponseEntity<FileResponse> uploadFile(
             @RequestParam("file") MultipartFile file,
@@ -38,14 +72,105 @@ public class FileController {
         return ResponseEntity.ok(fileResponse);
     }
 
+    // Raw-body upload: the file is the request body, not a multipart part, so it is
+    // written to storage as it arrives instead of being spooled first
+    @PostMapping("/upload/stream")
+    public ResponseEntity<FileResponse> uploadFileStream(
+            HttpServletRequest request,
+            @RequestParam("filename") String filename,
+            @RequestParam(value = "folderPath", defaultValue = "/") String folderPath) throws IOException {
+
+        FileResponse fileResponse = fileService.uploadFileStream(
+                request.getInputStream(),
+                filename,
+                request.getContentType(),
+                request.getContentLengthLong(),
+                folderPath);
+        return ResponseEntity.ok(fileResponse);
+    }
+
+    // Resumable uploads: create a session, PUT chunks (any order, in parallel), then complete
+    @PostMapping("/uploads")
+    public ResponseEntity<UploadSessionResponse> createUploadSession(@Valid @RequestBody UploadSessionRequest request) {
+        UploadSessionResponse response = uploadSessionService.createSession(request);
+        return ResponseEntity.ok(response);
+    }
+
+    @GetMapping("/uploads/{sessionId}")
+    public ResponseEntity<UploadSessionResponse> getUploadSession(@PathVariable String sessionId) {
+        UploadSessionResponse response = uploadSessionService.getSession(sessionId);
+        return ResponseEntity.ok(response);
+    }
+
+    @PutMapping("/uploads/{sessionId}/chunks/{index}")
+    public ResponseEntity<UploadSessionResponse> uploadChunk(
+            @PathVariable String sessionId,
+            @PathVariable int index,
+            @RequestHeader(value = "X-Chunk-SHA256", required = false) String checksum,
+            HttpServletRequest request) throws IOException {
+
+        UploadSessionResponse response = uploadSessionService.putChunk(
+                sessionId, index, request.getInputStream(), request.getContentLengthLong(), checksum);
+        return ResponseEntity.ok(response);
+    }
+
+    @PostMapping("/uploads/{sessionId}/complete")
+    public ResponseEntity<FileResponse> completeUploadSession(@PathVariable String sessionId) {
+        FileResponse fileResponse = uploadSessionService.completeSession(sessionId);
+        return ResponseEntity.ok(fileResponse);
+    }
+
+    @DeleteMapping("/uploads/{sessionId}")
+    public ResponseEntity<Map<String, String>> abortUploadSession(@PathVariable String sessionId) {
+        uploadSessionService.abortSession(sessionId);
+
+        Map<String, String> response = new HashMap<>();
+        response.put("message", "Upload session cancelled");
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/download/{fileId}")
-    public ResponseEntity<Resource> downloadFile(@PathVariable Long fileId) {
-        Resource resource = fileService.downloadFile(fileId);
-        
+    public void downloadFile(@PathVariable Long fileId, HttpServletRequest request,
+                             HttpServletResponse response) throws IOException {
+        FileDownload download = fileService.downloadFile(fileId);
+
+        // Range requests that resume or seek are part of a download already logged
+        if (fileDownloadResponder.respond(download, request, response) == 0) {
+            fileService.logDownload(download);
+        }
+    }
+
+    // One ZIP of a folder of the caller's or of a selection of files, streamed as it is built
+    @PostMapping("/archive")
+    public void downloadArchive(@Valid @RequestBody ArchiveRequest request,
+                                HttpServletResponse response) throws IOException {
+        FileArchive archive = fileService.prepareArchive(request);
+        archiveResponder.respond(archive, response);
+    }
+
+    // Preview rendition of an image; immutable for a given content and size, so it can be cached for good
+    @GetMapping("/{fileId}/thumbnail")
+    public ResponseEntity<Resource> getThumbnail(@PathVariable Long fileId,
+                                                 @RequestParam(defaultValue = "256") int size,
+                                                 WebRequest webRequest) throws IOException {
+        FileThumbnail thumbnail = fileService.getThumbnail(fileId, size);
+        if (webRequest.checkNotModified(thumbnail.getEtag())) {
+            return null;
+        }
+
         return ResponseEntity.ok()
-                .contentType(MediaType.APPLICATION_OCTET_STREAM)
-                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + resource.getFilename() + "\"")
-                .body(resource);
+                .contentType(MediaType.IMAGE_JPEG)
+                .contentLength(thumbnail.getLength())
+                .cacheControl(CacheControl.maxAge(365, TimeUnit.DAYS).cachePrivate().immutable())
+                .eTag(thumbnail.getEtag())
+                .body(new InputStreamResource(thumbnailService.open(thumbnail)));
+    }
+
+    // Post-upload processing state: PENDING, PROCESSING, READY or FAILED
+    @GetMapping("/{fileId}/processing")
+    public ResponseEntity<ProcessingStatusResponse> getProcessingStatus(@PathVariable Long fileId) {
+        ProcessingStatusResponse status = fileService.getProcessingStatus(fileId);
+        return ResponseEntity.ok(status);
     }
 
     @GetMapping
@@ -74,24 +199,62 @@ public class FileController {
         return ResponseEntity.ok(files);
     }
 
+    // Full-text search over the extracted contents of documents
+    @GetMapping("/search/content")
+    public ResponseEntity<Page<FileResponse>> searchFileContent(
+            @RequestParam("q") String query,
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+
+        Page<FileResponse> files = fileService.searchContent(query, PageRequest.of(page, size));
+        return ResponseEntity.ok(files);
+    }
+
     @GetMapping("/folders")
     public ResponseEntity<List<String>> getUserFolders() {
         List<String> folders = fileService.getUserFolders();
         return ResponseEntity.ok(folders);
     }
 
+    // Folder tree: one folder with its totals, or its direct subfolders
+    @GetMapping("/folders/info")
+    public ResponseEntity<FolderResponse> getFolder(@RequestParam(defaultValue = "/") String path) {
+        FolderResponse folder = folderService.getFolder(path);
+        return ResponseEntity.ok(folder);
+    }
+
+    @GetMapping("/folders/children")
+    public ResponseEntity<List<FolderResponse>> getFolderChildren(@RequestParam(defaultValue = "/") String path) {
+        List<FolderResponse> folders = folderService.getChildren(path);
+        return ResponseEntity.ok(folders);
+    }
+
     @PostMapping("/share")
     public ResponseEntity<List<FileShareResponse>> shareFile(@Valid @RequestBody FileShareRequest request) {
         List<FileShareResponse> shares = fileService.shareFile(request);
         return ResponseEntity.ok(shares);
     }
 
+    // Per-user outcomes instead of failing the whole request on an unknown user
+    @PostMapping("/share/bulk")
+    public ResponseEntity<BulkShareResponse> shareFileBulk(@Valid @RequestBody FileShareRequest request) {
+        BulkShareResponse response = fileService.shareFileBulk(request);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{fileId}/shares")
     public ResponseEntity<List<FileShareResponse>> getFileShares(@PathVariable Long fileId) {
         List<FileShareResponse> shares = fileService.getFileShares(fileId);
         return ResponseEntity.ok(shares);
     }
 
+    @PutMapping("/{fileId}/move")
+    public ResponseEntity<FileResponse> moveFile(@PathVariable Long fileId,
+                                                 @Valid @RequestBody MoveFileRequest request) {
+        FileResponse fileResponse = fileService.moveFile(fileId, request.getFolderPath());
+        return ResponseEntity.ok(fileResponse);
+    }
+
     @PutMapping("/{fileId}/visibility")
     public ResponseEntity<FileResponse> toggleFileVisibility(@PathVariable Long fileId) {
         FileResponse file = fileService.toggleFileVisibility(fileId);
@@ -103,10 +266,26 @@ public class FileController {
         fileService.deleteFile(fileId);
         
         Map<String, String> response = new HashMap<>();
-        response.put("message", "File deleted successfully");
+        response.put("message", "File moved to trash");
         return ResponseEntity.ok(response);
     }
 
+    // Own deleted files, most recently deleted first; they stay restorable until purged
+    @GetMapping("/trash")
+    public ResponseEntity<Page<FileResponse>> getTrash(
+            @RequestParam(defaultValue = "0") int page,
+            @RequestParam(defaultValue = "10") int size) {
+
+        Pageable pageable = PageRequest.of(page, size, Sort.by("deletedAt").descending());
+        return ResponseEntity.ok(fileService.getDeletedFiles(pageable));
+    }
+
+    @PostMapping("/{fileId}/restore")
+    public ResponseEntity<FileResponse> restoreFile(@PathVariable Long fileId) {
+        FileResponse file = fileService.restoreFile(fileId);
+        return ResponseEntity.ok(file);
+    }
+
     @GetMapping("/statistics")
     public ResponseEntity<Map<String, Object>> getFileStatistics() {
         Map<String, Object> stats = new HashMap<>();
@@ -0,0 +1,325 @@
+package com.secureoffice.backend.controller;
+
+import com.secureoffice.backend.dto.file.FileDownload;
+import com.secureoffice.backend.model.FileBlob;
+import com.secureoffice.backend.storage.BlobStore;
+import com.secureoffice.backend.storage.StorageBackend;
+import jakarta.servlet.ServletOutputStream;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRange;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Locale;
+import java.util.Optional;
+
+/**
+ * Writes a stored file as an HTTP response with conditional request handling
+ * (If-None-Match, If-Modified-Since, If-Match, If-Unmodified-Since, If-Range) and
+ * byte ranges (single and multipart/byteranges). Bodies kept in local files are handed
+ * to the container's sendfile support when it is available, so the bytes never pass
+ * through the heap; otherwise they are streamed from the {@link StorageBackend}.
+ * Bodies stored compressed are sent as stored with {@code Content-Encoding: gzip} to
+ * clients that accept it, and decompressed on the way out for everyone else and for
+ * range requests, which address bytes of the content.
+ */
+@Component
+public class FileDownloadResponder {
+
+    @Autowired
+    private StorageBackend storageBackend;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    // Request attributes understood by Tomcat's NIO/NIO2 connectors
+    private static final String SENDFILE_SUPPORT = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    /**
+     * @return the offset of the first byte sent, or -1 when no body was sent
+     *         (not modified, precondition failed or unsatisfiable range)
+     */
+    public long respond(FileDownload download, HttpServletRequest request, HttpServletResponse response)
+            throws IOException {
+        boolean compressed = download.getCodec() != FileBlob.Codec.NONE;
+        boolean passThrough = compressed && request.getHeader(HttpHeaders.RANGE) == null && acceptsGzip(request);
+        if (compressed) {
+            response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+        }
+
+        // The gzip-encoded representation has different bytes, so it needs its own strong validator
+        String etag = download.getContentHash() != null
+                ? "\"" + download.getContentHash() + (passThrough ? "-gzip" : "") + "\""
+                : null;
+        long lastModified = download.getLastModified();
+
+        // Sets ETag/Last-Modified and answers 304 or 412 on its own
+        ServletWebRequest webRequest = new ServletWebRequest(request, response);
+        boolean notModified = etag != null
+                ? webRequest.checkNotModified(etag, lastModified)
+                : webRequest.checkNotModified(lastModified);
+        if (notModified) {
+            return -1;
+        }
+
+        long size = download.getSize();
+        response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename(download.getOriginalFilename(), StandardCharsets.UTF_8)
+                .build()
+                .toString());
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        String contentType = contentType(download);
+        boolean head = "HEAD".equals(request.getMethod());
+
+        if (passThrough) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+            response.setContentLengthLong(download.getStoredSize());
+            if (!head) {
+                sendStored(download, 0, download.getStoredSize(), request, response);
+            }
+            return 0;
+        }
+
+        List<HttpRange> ranges;
+        try {
+            ranges = requestedRanges(request, etag, lastModified);
+        } catch (IllegalArgumentException ex) {
+            return unsatisfiable(response, size);
+        }
+
+        long[][] bounds = new long[ranges.size()][];
+        long requested = 0;
+        for (int i = 0; i < ranges.size(); i++) {
+            long start = ranges.get(i).getRangeStart(size);
+            long end = ranges.get(i).getRangeEnd(size);
+            if (start >= size || start > end) {
+                return unsatisfiable(response, size);
+            }
+            bounds[i] = new long[] { start, end };
+            requested += end - start + 1;
+        }
+
+        // As in HttpRange.toResourceRegions: ranges adding up to more than the file (say
+        // "0-,0-,0-") can only repeat bytes, so the file is sent once, in full
+        if (ranges.isEmpty() || requested > size) {
+            response.setStatus(HttpServletResponse.SC_OK);
+            response.setContentType(contentType);
+            response.setContentLengthLong(size);
+            if (!head) {
+                send(download, 0, size, request, response);
+            }
+            return 0;
+        }
+        bounds = coalesce(bounds);
+
+        response.setStatus(HttpServletResponse.SC_PARTIAL_CONTENT);
+
+        if (bounds.length == 1) {
+            long start = bounds[0][0];
+            long end = bounds[0][1];
+            response.setContentType(contentType);
+            response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes " + start + "-" + end + "/" + size);
+            response.setContentLengthLong(end - start + 1);
+            if (!head) {
+                send(download, start, end + 1, request, response);
+            }
+            return start;
+        }
+
+        String boundary = MimeTypeUtils.generateMultipartBoundaryString();
+        response.setContentType("multipart/byteranges; boundary=" + boundary);
+        if (!head) {
+            sendMultipart(download, bounds, contentType, boundary, response);
+        }
+        return bounds[0][0];
+    }
+
+    // Sorted by start, with overlapping and adjacent ranges merged
+    private static long[][] coalesce(long[][] bounds) {
+        long[][] sorted = bounds.clone();
+        Arrays.sort(sorted, Comparator.comparingLong(range -> range[0]));
+
+        List<long[]> merged = new ArrayList<>();
+        for (long[] range : sorted) {
+            long[] last = merged.isEmpty() ? null : merged.get(merged.size() - 1);
+            if (last != null && range[0] <= last[1] + 1) {
+                last[1] = Math.max(last[1], range[1]);
+            } else {
+                merged.add(new long[] { range[0], range[1] });
+            }
+        }
+        return merged.toArray(new long[0][]);
+    }
+
+    // An If-Range validator that no longer matches means the client's partial copy is stale: send it all
+    private static List<HttpRange> requestedRanges(HttpServletRequest request, String etag, long lastModified) {
+        String range = request.getHeader(HttpHeaders.RANGE);
+        if (range == null) {
+            return List.of();
+        }
+
+        String ifRange = request.getHeader(HttpHeaders.IF_RANGE);
+        if (ifRange != null) {
+            boolean current;
+            if (ifRange.startsWith("\"") || ifRange.startsWith("W/")) {
+                // Only strong validators may be used with If-Range
+                current = etag != null && etag.equals(ifRange);
+            } else {
+                long since = request.getDateHeader(HttpHeaders.IF_RANGE);
+                current = since != -1 && lastModified / 1000 <= since / 1000;
+            }
+            if (!current) {
+                return List.of();
+            }
+        }
+
+        return HttpRange.parseRanges(range);
+    }
+
+    private static long unsatisfiable(HttpServletResponse response, long size) {
+        response.setStatus(HttpServletResponse.SC_REQUESTED_RANGE_NOT_SATISFIABLE);
+        response.setHeader(HttpHeaders.CONTENT_RANGE, "bytes */" + size);
+        response.setContentLength(0);
+        return -1;
+    }
+
+    // A lenient reading of Accept-Encoding: gzip (or *) with a non-zero quality
+    private static boolean acceptsGzip(HttpServletRequest request) {
+        boolean wildcard = false;
+        for (Enumeration<String> headers = request.getHeaders(HttpHeaders.ACCEPT_ENCODING); headers.hasMoreElements(); ) {
+            for (String element : headers.nextElement().split(",")) {
+                String[] parts = element.split(";");
+                String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+                boolean acceptable = true;
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim();
+                    if (parameter.startsWith("q=")) {
+                        try {
+                            acceptable = Double.parseDouble(parameter.substring(2)) > 0;
+                        } catch (NumberFormatException ex) {
+                            acceptable = false;
+                        }
+                    }
+                }
+                if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                    return acceptable;
+                }
+                if (coding.equals("*")) {
+                    wildcard = acceptable;
+                }
+            }
+        }
+        return wildcard;
+    }
+
+    // Bytes start (inclusive) to end (exclusive) of the content
+    private void send(FileDownload download, long start, long end, HttpServletRequest request,
+                      HttpServletResponse response) throws IOException {
+        if (download.getCodec() == FileBlob.Codec.NONE) {
+            sendStored(download, start, end, request, response);
+        } else {
+            sendDecoded(download, start, end, response.getOutputStream());
+        }
+    }
+
+    // Bytes start (inclusive) to end (exclusive) of the body as stored
+    private void sendStored(FileDownload download, long start, long end, HttpServletRequest request,
+                            HttpServletResponse response) throws IOException {
+        Optional<Path> localPath = storageBackend.localPath(download.getStorageKey());
+        if (localPath.isPresent() && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORT))) {
+            // The container writes the file straight from the page cache once the request returns
+            request.setAttribute(SENDFILE_FILENAME, localPath.get().toAbsolutePath().toString());
+            request.setAttribute(SENDFILE_START, start);
+            request.setAttribute(SENDFILE_END, end);
+            return;
+        }
+
+        storageBackend.stream(download.getStorageKey(), start, end, Channels.newChannel(response.getOutputStream()));
+    }
+
+    // Compressed streams cannot seek: the content before the range is decompressed and skipped
+    private void sendDecoded(FileDownload download, long start, long end, OutputStream out) throws IOException {
+        try (InputStream in = blobStore.open(download.getStorageKey(), download.getCodec())) {
+            in.skipNBytes(start);
+            copy(download, in, end - start, out);
+        }
+    }
+
+    private static void copy(FileDownload download, InputStream in, long length, OutputStream out) throws IOException {
+        byte[] buffer = new byte[BUFFER_SIZE];
+        long remaining = length;
+        while (remaining > 0) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, remaining));
+            if (read < 0) {
+                throw new EOFException("Stored body of file " + download.getFileId() + " is shorter than its size");
+            }
+            out.write(buffer, 0, read);
+            remaining -= read;
+        }
+    }
+
+    // The ranges are sorted and disjoint, so a compressed body is decoded once for all of them
+    private void sendMultipart(FileDownload download, long[][] bounds, String contentType, String boundary,
+                               HttpServletResponse response) throws IOException {
+        ServletOutputStream out = response.getOutputStream();
+        WritableByteChannel target = Channels.newChannel(out);
+        long size = download.getSize();
+        boolean decode = download.getCodec() != FileBlob.Codec.NONE;
+
+        try (InputStream decoded = decode ? blobStore.open(download.getStorageKey(), download.getCodec()) : null) {
+            long position = 0;
+            for (long[] range : bounds) {
+                out.print("\r\n--" + boundary + "\r\n");
+                out.print(HttpHeaders.CONTENT_TYPE + ": " + contentType + "\r\n");
+                out.print(HttpHeaders.CONTENT_RANGE + ": bytes " + range[0] + "-" + range[1] + "/" + size + "\r\n\r\n");
+                if (decode) {
+                    decoded.skipNBytes(range[0] - position);
+                    copy(download, decoded, range[1] + 1 - range[0], out);
+                    position = range[1] + 1;
+                } else {
+                    storageBackend.stream(download.getStorageKey(), range[0], range[1] + 1, target);
+                }
+            }
+        }
+        out.print("\r\n--" + boundary + "--\r\n");
+    }
+
+    private static String contentType(FileDownload download) {
+        String mimeType = download.getMimeType();
+        if (mimeType == null || mimeType.isBlank()) {
+            return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        }
+        try {
+            return MediaType.parseMediaType(mimeType).toString();
+        } catch (IllegalArgumentException ex) {
+            return MediaType.APPLICATION_OCTET_STREAM_VALUE;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+package com.secureoffice.backend.dto.file;
+
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+// Either a folder of the caller's (with its subfolders) or a selection of files
+public class ArchiveRequest {
+    
+    @Size(max = 500, message = "Folder path must not exceed 500 characters")
+    private String folderPath;
+    
+    private List<Long> fileIds;
+    
+    public ArchiveRequest() {}
+    
+    public String getFolderPath() {
+        return folderPath;
+    }
+    
+    public void setFolderPath(String folderPath) {
+        this.folderPath = folderPath;
+    }
+    
+    public List<Long> getFileIds() {
+        return fileIds;
+    }
+    
+    public void setFileIds(List<Long> fileIds) {
+        this.fileIds = fileIds;
+    }
+}
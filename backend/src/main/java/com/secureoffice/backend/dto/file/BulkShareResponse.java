@@ -0,0 +1,75 @@
+package com.secureoffice.backend.dto.file;
+
+import java.util.List;
+
+public class BulkShareResponse {
+
+    public static final String SHARED = "SHARED";
+    public static final String UPDATED = "UPDATED";
+    public static final String UNCHANGED = "UNCHANGED";
+    public static final String USER_NOT_FOUND = "USER_NOT_FOUND";
+
+    private Long fileId;
+    private String permissionType;
+    private int sharedCount;
+    private int updatedCount;
+    private int unchangedCount;
+    private int failedCount;
+    private List<ShareResult> results;
+
+    public BulkShareResponse() {}
+
+    public BulkShareResponse(Long fileId, String permissionType, List<ShareResult> results) {
+        this.fileId = fileId;
+        this.permissionType = permissionType;
+        this.results = results;
+        for (ShareResult result : results) {
+            switch (result.getStatus()) {
+                case SHARED -> sharedCount++;
+                case UPDATED -> updatedCount++;
+                case UNCHANGED -> unchangedCount++;
+                default -> failedCount++;
+            }
+        }
+    }
+
+    // Getters and setters
+    public Long getFileId() { return fileId; }
+    public void setFileId(Long fileId) { this.fileId = fileId; }
+
+    public String getPermissionType() { return permissionType; }
+    public void setPermissionType(String permissionType) { this.permissionType = permissionType; }
+
+    public int getSharedCount() { return sharedCount; }
+    public void setSharedCount(int sharedCount) { this.sharedCount = sharedCount; }
+
+    public int getUpdatedCount() { return updatedCount; }
+    public void setUpdatedCount(int updatedCount) { this.updatedCount = updatedCount; }
+
+    public int getUnchangedCount() { return unchangedCount; }
+    public void setUnchangedCount(int unchangedCount) { this.unchangedCount = unchangedCount; }
+
+    public int getFailedCount() { return failedCount; }
+    public void setFailedCount(int failedCount) { this.failedCount = failedCount; }
+
+    public List<ShareResult> getResults() { return results; }
+    public void setResults(List<ShareResult> results) { this.results = results; }
+
+    public static class ShareResult {
+        private Long userId;
+        private String status;
+
+        public ShareResult() {}
+
+        public ShareResult(Long userId, String status) {
+            this.userId = userId;
+            this.status = status;
+        }
+
+        public Long getUserId() { return userId; }
+        public void setUserId(Long userId) { this.userId = userId; }
+
+        public String getStatus() { return status; }
+        public void setStatus(String status) { this.status = status; }
+    }
+}
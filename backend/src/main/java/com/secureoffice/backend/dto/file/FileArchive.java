@@ -0,0 +1,52 @@
+package com.secureoffice.backend.dto.file;
+
+import com.secureoffice.backend.model.FileBlob;
+
+import java.util.List;
+
+/**
+ * A checked set of files to be streamed as one ZIP, with the entry name of each.
+ */
+public class FileArchive {
+    
+    private final String filename;
+    private final List<Entry> entries;
+    
+    public FileArchive(String filename, List<Entry> entries) {
+        this.filename = filename;
+        this.entries = entries;
+    }
+    
+    // Download name of the archive
+    public String getFilename() { return filename; }
+    
+    public List<Entry> getEntries() { return entries; }
+    
+    public static class Entry {
+        
+        private final String name;
+        private final String storageKey;
+        private final FileBlob.Codec codec;
+        private final String mimeType;
+        private final long lastModified;
+        
+        public Entry(String name, String storageKey, FileBlob.Codec codec, String mimeType, long lastModified) {
+            this.name = name;
+            this.storageKey = storageKey;
+            this.codec = codec;
+            this.mimeType = mimeType;
+            this.lastModified = lastModified;
+        }
+        
+        // Path inside the archive, unique within it
+        public String getName() { return name; }
+        
+        public String getStorageKey() { return storageKey; }
+        
+        public FileBlob.Codec getCodec() { return codec; }
+        
+        public String getMimeType() { return mimeType; }
+        
+        public long getLastModified() { return lastModified; }
+    }
+}
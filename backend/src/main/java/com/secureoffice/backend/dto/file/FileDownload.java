@@ -0,0 +1,57 @@
+package com.secureoffice.backend.dto.file;
+
+import com.secureoffice.backend.model.FileBlob;
+
+/**
+ * A file body together with the metadata needed to serve it. The stored file name is
+ * a storage name (a content hash for deduplicated files), so the download name comes
+ * from the file record instead.
+ */
+public class FileDownload {
+    
+    private final Long fileId;
+    private final String storageKey;
+    private final long size;
+    private final FileBlob.Codec codec;
+    private final long storedSize;
+    private final String originalFilename;
+    private final String mimeType;
+    private final String contentHash;
+    private final long lastModified;
+    
+    public FileDownload(Long fileId, String storageKey, long size, FileBlob.Codec codec, long storedSize,
+                        String originalFilename, String mimeType, String contentHash, long lastModified) {
+        this.fileId = fileId;
+        this.storageKey = storageKey;
+        this.size = size;
+        this.codec = codec;
+        this.storedSize = storedSize;
+        this.originalFilename = originalFilename;
+        this.mimeType = mimeType;
+        this.contentHash = contentHash;
+        this.lastModified = lastModified;
+    }
+    
+    public Long getFileId() { return fileId; }
+    
+    // Key of the body in the storage backend
+    public String getStorageKey() { return storageKey; }
+    
+    // Size of the content, as served without a content coding
+    public long getSize() { return size; }
+    
+    // How the stored body is encoded, and its size as stored
+    public FileBlob.Codec getCodec() { return codec; }
+    
+    public long getStoredSize() { return storedSize; }
+    
+    public String getOriginalFilename() { return originalFilename; }
+    
+    public String getMimeType() { return mimeType; }
+    
+    // Hex SHA-256 of the body, or null for files stored before digests were recorded
+    public String getContentHash() { return contentHash; }
+    
+    // Epoch milliseconds
+    public long getLastModified() { return lastModified; }
+}
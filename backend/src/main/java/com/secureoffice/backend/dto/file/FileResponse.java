@@ -13,6 +13,8 @@ public class FileResponse {
     private String mimeType;
     private String folderPath;
     private Boolean isPublic;
+    private Boolean thumbnailReady;
+    private LocalDateTime deletedAt;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
     private UploaderInfo uploadedBy;
@@ -28,6 +30,8 @@ public class FileResponse {
         this.mimeType = file.getMimeType();
         this.folderPath = file.getFolderPath();
         this.isPublic = file.getIsPublic();
+        this.thumbnailReady = file.getThumbnailReady();
+        this.deletedAt = file.getDeletedAt();
         this.createdAt = file.getCreatedAt();
         this.updatedAt = file.getUpdatedAt();
         this.formattedFileSize = file.getFormattedFileSize();
@@ -63,6 +67,14 @@ public class FileResponse {
     public Boolean getIsPublic() { return isPublic; }
     public void setIsPublic(Boolean isPublic) { this.isPublic = isPublic; }
     
+    // Whether GET /api/files/{id}/thumbnail can serve a preview
+    public Boolean getThumbnailReady() { return thumbnailReady; }
+    public void setThumbnailReady(Boolean thumbnailReady) { this.thumbnailReady = thumbnailReady; }
+    
+    // Set for files in the trash
+    public LocalDateTime getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(LocalDateTime deletedAt) { this.deletedAt = deletedAt; }
+    
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
     
@@ -0,0 +1,24 @@
+package com.secureoffice.backend.dto.file;
+
+/**
+ * A stored preview rendition of a file, ready to be served.
+ */
+public class FileThumbnail {
+    
+    private final String storageKey;
+    private final long length;
+    private final String etag;
+    
+    public FileThumbnail(String storageKey, long length, String etag) {
+        this.storageKey = storageKey;
+        this.length = length;
+        this.etag = etag;
+    }
+    
+    public String getStorageKey() { return storageKey; }
+    
+    public long getLength() { return length; }
+    
+    // Quoted strong validator; renditions never change for a given content and size
+    public String getEtag() { return etag; }
+}
@@ -0,0 +1,48 @@
+package com.secureoffice.backend.dto.file;
+
+import com.secureoffice.backend.model.Folder;
+
+public class FolderResponse {
+    
+    private String path;
+    private String name;
+    private String parentPath;
+    private Long fileCount;
+    private Long byteCount;
+    private Long totalFileCount;
+    private Long totalBytes;
+    
+    public FolderResponse() {}
+    
+    public FolderResponse(Folder folder) {
+        this.path = folder.getPath();
+        this.name = folder.getName();
+        this.parentPath = folder.getParentPath();
+        this.fileCount = folder.getFileCount();
+        this.byteCount = folder.getByteCount();
+        this.totalFileCount = folder.getTotalFileCount();
+        this.totalBytes = folder.getTotalBytes();
+    }
+    
+    // Getters and setters
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+    
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+    
+    public String getParentPath() { return parentPath; }
+    public void setParentPath(String parentPath) { this.parentPath = parentPath; }
+    
+    public Long getFileCount() { return fileCount; }
+    public void setFileCount(Long fileCount) { this.fileCount = fileCount; }
+    
+    public Long getByteCount() { return byteCount; }
+    public void setByteCount(Long byteCount) { this.byteCount = byteCount; }
+    
+    public Long getTotalFileCount() { return totalFileCount; }
+    public void setTotalFileCount(Long totalFileCount) { this.totalFileCount = totalFileCount; }
+    
+    public Long getTotalBytes() { return totalBytes; }
+    public void setTotalBytes(Long totalBytes) { this.totalBytes = totalBytes; }
+}
@@ -0,0 +1,21 @@
+package com.secureoffice.backend.dto.file;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.Size;
+
+public class MoveFileRequest {
+    
+    @NotBlank(message = "Folder path is required")
+    @Size(max = 500, message = "Folder path must not exceed 500 characters")
+    private String folderPath;
+    
+    public MoveFileRequest() {}
+    
+    public String getFolderPath() {
+        return folderPath;
+    }
+    
+    public void setFolderPath(String folderPath) {
+        this.folderPath = folderPath;
+    }
+}
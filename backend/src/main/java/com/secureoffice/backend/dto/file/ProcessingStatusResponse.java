@@ -0,0 +1,50 @@
+package com.secureoffice.backend.dto.file;
+
+import com.secureoffice.backend.model.ProcessingJob;
+
+import java.time.LocalDateTime;
+
+public class ProcessingStatusResponse {
+    
+    private Long fileId;
+    private String status;
+    private String stage;
+    private Integer attempts;
+    private LocalDateTime nextAttemptAt;
+    private String lastError;
+    private LocalDateTime updatedAt;
+    
+    public ProcessingStatusResponse() {}
+    
+    public ProcessingStatusResponse(ProcessingJob job) {
+        this.fileId = job.getFileId();
+        this.status = job.getStatus().name();
+        this.stage = job.getStage();
+        this.attempts = job.getAttempts();
+        this.nextAttemptAt = job.getStatus() == ProcessingJob.Status.PENDING ? job.getNextAttemptAt() : null;
+        this.lastError = job.getLastError();
+        this.updatedAt = job.getUpdatedAt();
+    }
+    
+    // Getters and setters
+    public Long getFileId() { return fileId; }
+    public void setFileId(Long fileId) { this.fileId = fileId; }
+    
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+    
+    public String getStage() { return stage; }
+    public void setStage(String stage) { this.stage = stage; }
+    
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+    
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+    
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+    
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,69 @@
+package com.secureoffice.backend.dto.file;
+
+import jakarta.validation.constraints.NotBlank;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Pattern;
+import jakarta.validation.constraints.Positive;
+import jakarta.validation.constraints.Size;
+
+public class UploadSessionRequest {
+    
+    @NotBlank(message = "File name is required")
+    @Size(max = 255)
+    private String filename;
+    
+    private String folderPath;
+    
+    @Size(max = 100)
+    private String mimeType;
+    
+    @NotNull(message = "Total size is required")
+    @Positive(message = "Total size must be positive")
+    private Long totalSize;
+    
+    // Optional hex SHA-256 of the whole file, verified when the session is completed
+    @Pattern(regexp = "^[0-9a-fA-F]{64}$", message = "sha256 must be 64 hex characters")
+    private String sha256;
+    
+    public UploadSessionRequest() {}
+    
+    public String getFilename() {
+        return filename;
+    }
+    
+    public void setFilename(String filename) {
+        this.filename = filename;
+    }
+    
+    public String getFolderPath() {
+        return folderPath;
+    }
+    
+    public void setFolderPath(String folderPath) {
+        this.folderPath = folderPath;
+    }
+    
+    public String getMimeType() {
+        return mimeType;
+    }
+    
+    public void setMimeType(String mimeType) {
+        this.mimeType = mimeType;
+    }
+    
+    public Long getTotalSize() {
+        return totalSize;
+    }
+    
+    public void setTotalSize(Long totalSize) {
+        this.totalSize = totalSize;
+    }
+    
+    public String getSha256() {
+        return sha256;
+    }
+    
+    public void setSha256(String sha256) {
+        this.sha256 = sha256;
+    }
+}
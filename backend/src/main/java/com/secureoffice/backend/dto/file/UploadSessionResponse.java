@@ -0,0 +1,56 @@
+package com.secureoffice.backend.dto.file;
+
+import com.secureoffice.backend.model.UploadSession;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+public class UploadSessionResponse {
+    
+    private String sessionId;
+    private String filename;
+    private String folderPath;
+    private Long totalSize;
+    private Long chunkSize;
+    private Integer totalChunks;
+    private List<Integer> receivedChunks;
+    private LocalDateTime expiresAt;
+    
+    public UploadSessionResponse() {}
+    
+    public UploadSessionResponse(UploadSession session, List<Integer> receivedChunks) {
+        this.sessionId = session.getId();
+        this.filename = session.getOriginalFilename();
+        this.folderPath = session.getFolderPath();
+        this.totalSize = session.getTotalSize();
+        this.chunkSize = session.getChunkSize();
+        this.totalChunks = session.getTotalChunks();
+        this.receivedChunks = receivedChunks;
+        this.expiresAt = session.getExpiresAt();
+    }
+    
+    // Getters and setters
+    public String getSessionId() { return sessionId; }
+    public void setSessionId(String sessionId) { this.sessionId = sessionId; }
+    
+    public String getFilename() { return filename; }
+    public void setFilename(String filename) { this.filename = filename; }
+    
+    public String getFolderPath() { return folderPath; }
+    public void setFolderPath(String folderPath) { this.folderPath = folderPath; }
+    
+    public Long getTotalSize() { return totalSize; }
+    public void setTotalSize(Long totalSize) { this.totalSize = totalSize; }
+    
+    public Long getChunkSize() { return chunkSize; }
+    public void setChunkSize(Long chunkSize) { this.chunkSize = chunkSize; }
+    
+    public Integer getTotalChunks() { return totalChunks; }
+    public void setTotalChunks(Integer totalChunks) { this.totalChunks = totalChunks; }
+    
+    public List<Integer> getReceivedChunks() { return receivedChunks; }
+    public void setReceivedChunks(List<Integer> receivedChunks) { this.receivedChunks = receivedChunks; }
+    
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+}
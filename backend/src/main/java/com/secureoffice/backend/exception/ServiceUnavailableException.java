@@ -0,0 +1,12 @@
+package com.secureoffice.backend.exception;
+
+public class ServiceUnavailableException extends RuntimeException {
+    
+    public ServiceUnavailableException(String message) {
+        super(message);
+    }
+    
+    public ServiceUnavailableException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
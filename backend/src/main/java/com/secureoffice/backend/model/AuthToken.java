@@ -1,20 +1,24 @@
 package com.secureoffice.backend.model;
 
 import jakarta.persistence.*;
-import jakarta.validation.constraints.NotBlank;
 import org.springframework.data.annotation.CreatedDate;
 import org.springframework.data.jpa.domain.support.AuditingEntityListener;
 
 import java.time.LocalDateTime;
 
+/**
+ * Refresh and password-reset tokens. Only the SHA-256 digest of the token is stored,
+ * so lookups are point queries on a fixed-width unique index and a leaked table does
+ * not reveal usable tokens.
+ */
 @Entity
-@Table(name = "refresh_tokens", indexes = {
-    @Index(name = "idx_token", columnList = "token"),
-    @Index(name = "idx_user_id", columnList = "user_id"),
-    @Index(name = "idx_expires_at", columnList = "expires_at")
+@Table(name = "auth_tokens", indexes = {
+    @Index(name = "uk_auth_token_hash", columnList = "token_hash", unique = true),
+    @Index(name = "idx_auth_token_user_type", columnList = "user_id, token_type"),
+    @Index(name = "idx_auth_token_expires_at", columnList = "expires_at")
 })
 @EntityListeners(AuditingEntityListener.class)
-public class RefreshToken {
+public class AuthToken {
 
     @Id
     @GeneratedValue(strategy = GenerationType.IDENTITY)
@@ -24,9 +28,12 @@ public class RefreshToken {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
-    @NotBlank
-    @Column(unique = true, nullable = false)
-    private String token;
+    @Column(name = "token_hash", nullable = false, columnDefinition = "BINARY(32)")
+    private byte[] tokenHash;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "token_type", nullable = false, length = 20)
+    private TokenType tokenType;
 
     @Column(name = "expires_at", nullable = false)
     private LocalDateTime expiresAt;
@@ -35,12 +42,17 @@ public class RefreshToken {
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
+    public enum TokenType {
+        REFRESH, PASSWORD_RESET
+    }
+
     // Constructors
-    public RefreshToken() {}
+    public AuthToken() {}
 
-    public RefreshToken(User user, String token, LocalDateTime expiresAt) {
+    public AuthToken(User user, byte[] tokenHash, TokenType tokenType, LocalDateTime expiresAt) {
         this.user = user;
-        this.token = token;
+        this.tokenHash = tokenHash;
+        this.tokenType = tokenType;
         this.expiresAt = expiresAt;
     }
 
@@ -51,8 +63,11 @@ public class RefreshToken {
     public User getUser() { return user; }
     public void setUser(User user) { this.user = user; }
 
-    public String getToken() { return token; }
-    public void setToken(String token) { this.token = token; }
+    public byte[] getTokenHash() { return tokenHash; }
+    public void setTokenHash(byte[] tokenHash) { this.tokenHash = tokenHash; }
+
+    public TokenType getTokenType() { return tokenType; }
+    public void setTokenType(TokenType tokenType) { this.tokenType = tokenType; }
 
     public LocalDateTime getExpiresAt() { return expiresAt; }
     public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
@@ -17,7 +17,11 @@ import java.util.Set;
     @Index(name = "idx_filename", columnList = "filename"),
     @Index(name = "idx_folder_path", columnList = "folder_path"),
     @Index(name = "idx_uploaded_by", columnList = "uploaded_by"),
-    @Index(name = "idx_created_at", columnList = "created_at")
+    @Index(name = "idx_created_at", columnList = "created_at"),
+    @Index(name = "idx_blob_id", columnList = "blob_id"),
+    @Index(name = "idx_public_created_at", columnList = "is_public, created_at, id"),
+    @Index(name = "idx_public_folder_created_at", columnList = "is_public, folder_path, created_at, id"),
+    @Index(name = "idx_deleted_at", columnList = "deleted_at")
 })
 @EntityListeners(AuditingEntityListener.class)
 public class File {
@@ -36,6 +40,7 @@ public class File {
     @Column(name = "original_filename", nullable = false)
     private String originalFilename;
 
+    // Storage key of the body; an absolute path for files stored before deduplication
     @NotBlank
     @Size(max = 500)
     @Column(name = "file_path", nullable = false)
@@ -57,9 +62,27 @@ public class File {
     @JoinColumn(name = "uploaded_by", nullable = false)
     private User uploadedBy;
 
+    // Hex SHA-256 of the stored bytes, computed while the upload is written
+    @Size(max = 64)
+    @Column(name = "content_hash", length = 64)
+    private String contentHash;
+
+    // Shared content-addressed body; null for files stored before deduplication
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "blob_id")
+    private FileBlob blob;
+
     @Column(name = "is_public", nullable = false)
     private Boolean isPublic = false;
 
+    // Set once preview renditions of an image have been generated
+    @Column(name = "thumbnail_ready", nullable = false)
+    private Boolean thumbnailReady = false;
+
+    // Set when the file is moved to the trash; the row and body are purged after the retention window
+    @Column(name = "deleted_at")
+    private LocalDateTime deletedAt;
+
     @CreatedDate
     @Column(name = "created_at", nullable = false, updatable = false)
     private LocalDateTime createdAt;
@@ -110,9 +133,21 @@ public class File {
     public User getUploadedBy() { return uploadedBy; }
     public void setUploadedBy(User uploadedBy) { this.uploadedBy = uploadedBy; }
 
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
+    public FileBlob getBlob() { return blob; }
+    public void setBlob(FileBlob blob) { this.blob = blob; }
+
     public Boolean getIsPublic() { return isPublic; }
     public void setIsPublic(Boolean isPublic) { this.isPublic = isPublic; }
 
+    public LocalDateTime getDeletedAt() { return deletedAt; }
+    public void setDeletedAt(LocalDateTime deletedAt) { this.deletedAt = deletedAt; }
+
+    public Boolean getThumbnailReady() { return thumbnailReady; }
+    public void setThumbnailReady(Boolean thumbnailReady) { this.thumbnailReady = thumbnailReady; }
+
     public LocalDateTime getCreatedAt() { return createdAt; }
     public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
 
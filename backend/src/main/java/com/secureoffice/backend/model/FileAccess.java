@@ -0,0 +1,79 @@
+package com.secureoffice.backend.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Read model for file listings: one row per user who owns or was granted a file,
+ * carrying the columns the listings filter and sort on so a page is a range scan of
+ * one index. Public files are listed from {@code files} directly; {@code isPublic}
+ * lets the listings skip rows that the public path already returns.
+ */
+@Entity
+@Table(name = "file_access",
+       uniqueConstraints = @UniqueConstraint(name = "uk_file_access_user_file", columnNames = {"user_id", "file_id"}),
+       indexes = {
+           @Index(name = "idx_file_access_user_created", columnList = "user_id, is_public, created_at, file_id"),
+           @Index(name = "idx_file_access_user_folder", columnList = "user_id, is_public, folder_path, created_at, file_id"),
+           @Index(name = "idx_file_access_file", columnList = "file_id")
+       })
+public class FileAccess {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "file_id", nullable = false)
+    private File file;
+
+    // Copied from the file
+    @Column(name = "folder_path", nullable = false, length = 500)
+    private String folderPath;
+
+    // Copied from the file
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    // Copied from the file; updated when its visibility changes
+    @Column(name = "is_public", nullable = false)
+    private Boolean isPublic = false;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Permission permission;
+
+    public enum Permission {
+        OWNER, EDIT, DOWNLOAD, VIEW
+    }
+
+    // Constructors
+    public FileAccess() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+
+    public File getFile() { return file; }
+    public void setFile(File file) { this.file = file; }
+
+    public String getFolderPath() { return folderPath; }
+    public void setFolderPath(String folderPath) { this.folderPath = folderPath; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public Boolean getIsPublic() { return isPublic; }
+    public void setIsPublic(Boolean isPublic) { this.isPublic = isPublic; }
+
+    public Permission getPermission() { return permission; }
+    public void setPermission(Permission permission) { this.permission = permission; }
+}
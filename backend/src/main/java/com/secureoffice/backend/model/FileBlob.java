@@ -0,0 +1,82 @@
+package com.secureoffice.backend.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stored file body, addressed by the SHA-256 of its content. Every {@link File} with
+ * the same content points at one blob; the physical body is removed only when the
+ * last referencing file is deleted.
+ */
+@Entity
+@Table(name = "file_blobs", indexes = {
+    @Index(name = "uk_file_blob_content_hash", columnList = "content_hash", unique = true)
+})
+@EntityListeners(AuditingEntityListener.class)
+public class FileBlob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    // Key of the body in the storage backend
+    @Column(name = "storage_path", nullable = false, length = 500)
+    private String storagePath;
+
+    // Size of the content; the body may be stored compressed
+    @Column(name = "file_size", nullable = false)
+    private Long fileSize;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "codec", nullable = false)
+    private Codec codec = Codec.NONE;
+
+    // Bytes occupied in storage; null for blobs stored before compression existed
+    @Column(name = "stored_size")
+    private Long storedSize;
+
+    @Column(name = "reference_count", nullable = false)
+    private Integer referenceCount = 0;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public FileBlob() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public String getContentHash() { return contentHash; }
+    public void setContentHash(String contentHash) { this.contentHash = contentHash; }
+
+    public String getStoragePath() { return storagePath; }
+    public void setStoragePath(String storagePath) { this.storagePath = storagePath; }
+
+    public Long getFileSize() { return fileSize; }
+    public void setFileSize(Long fileSize) { this.fileSize = fileSize; }
+
+    public Codec getCodec() { return codec; }
+    public void setCodec(Codec codec) { this.codec = codec; }
+
+    public Long getStoredSize() { return storedSize; }
+    public void setStoredSize(Long storedSize) { this.storedSize = storedSize; }
+
+    public Integer getReferenceCount() { return referenceCount; }
+    public void setReferenceCount(Integer referenceCount) { this.referenceCount = referenceCount; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public enum Codec {
+        NONE, GZIP
+    }
+}
@@ -0,0 +1,99 @@
+package com.secureoffice.backend.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * A node in a user's folder tree. Folders exist for every path a user has uploaded to
+ * and all of its ancestors, and carry running totals that are adjusted as files are
+ * added, moved and deleted: {@code fileCount}/{@code byteCount} for files directly in
+ * the folder and {@code totalFileCount}/{@code totalBytes} for the whole subtree.
+ */
+@Entity
+@Table(name = "folders",
+       uniqueConstraints = @UniqueConstraint(name = "uk_folder_owner_path", columnNames = {"owner_id", "path"}),
+       indexes = {
+           @Index(name = "idx_folder_owner_parent", columnList = "owner_id, parent_path")
+       })
+@EntityListeners(AuditingEntityListener.class)
+public class Folder {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "owner_id", nullable = false)
+    private User owner;
+
+    // Normalised: leading slash, no trailing slash; the root is "/"
+    @Column(nullable = false, length = 500)
+    private String path;
+
+    // Null for the root
+    @Column(name = "parent_path", length = 500)
+    private String parentPath;
+
+    @Column(nullable = false, length = 500)
+    private String name;
+
+    @Column(name = "file_count", nullable = false)
+    private Long fileCount = 0L;
+
+    @Column(name = "byte_count", nullable = false)
+    private Long byteCount = 0L;
+
+    @Column(name = "total_file_count", nullable = false)
+    private Long totalFileCount = 0L;
+
+    @Column(name = "total_bytes", nullable = false)
+    private Long totalBytes = 0L;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public Folder() {}
+
+    public Folder(User owner, String path, String parentPath, String name) {
+        this.owner = owner;
+        this.path = path;
+        this.parentPath = parentPath;
+        this.name = name;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public User getOwner() { return owner; }
+    public void setOwner(User owner) { this.owner = owner; }
+
+    public String getPath() { return path; }
+    public void setPath(String path) { this.path = path; }
+
+    public String getParentPath() { return parentPath; }
+    public void setParentPath(String parentPath) { this.parentPath = parentPath; }
+
+    public String getName() { return name; }
+    public void setName(String name) { this.name = name; }
+
+    public Long getFileCount() { return fileCount; }
+    public void setFileCount(Long fileCount) { this.fileCount = fileCount; }
+
+    public Long getByteCount() { return byteCount; }
+    public void setByteCount(Long byteCount) { this.byteCount = byteCount; }
+
+    public Long getTotalFileCount() { return totalFileCount; }
+    public void setTotalFileCount(Long totalFileCount) { this.totalFileCount = totalFileCount; }
+
+    public Long getTotalBytes() { return totalBytes; }
+    public void setTotalBytes(Long totalBytes) { this.totalBytes = totalBytes; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
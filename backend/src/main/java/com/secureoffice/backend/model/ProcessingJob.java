@@ -0,0 +1,94 @@
+package com.secureoffice.backend.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Post-upload processing state of one file. The job walks the pipeline's stages in
+ * order; {@code stage} is the stage it is waiting for or running, and a failed attempt
+ * puts it back to {@code PENDING} with a later {@code nextAttemptAt} until the attempts
+ * run out.
+ */
+@Entity
+@Table(name = "processing_jobs",
+       uniqueConstraints = @UniqueConstraint(name = "uk_processing_job_file", columnNames = "file_id"),
+       indexes = @Index(name = "idx_processing_job_due", columnList = "status, stage, next_attempt_at"))
+public class ProcessingJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    // Plain id rather than a relation: the row goes with the file (ON DELETE CASCADE)
+    @Column(name = "file_id", nullable = false)
+    private Long fileId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 20)
+    private Status status = Status.PENDING;
+
+    // Current stage; the last stage run once the job is READY, null if no stage applied
+    @Column(length = 50)
+    private String stage;
+
+    // Attempts at the current stage
+    @Column(nullable = false)
+    private Integer attempts = 0;
+
+    @Column(name = "next_attempt_at", nullable = false)
+    private LocalDateTime nextAttemptAt;
+
+    @Column(name = "last_error", length = 1000)
+    private String lastError;
+
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    public enum Status {
+        PENDING, PROCESSING, READY, FAILED
+    }
+
+    // Constructors
+    public ProcessingJob() {}
+
+    public ProcessingJob(Long fileId, String stage, LocalDateTime now) {
+        this.fileId = fileId;
+        this.stage = stage;
+        this.status = stage != null ? Status.PENDING : Status.READY;
+        this.nextAttemptAt = now;
+        this.createdAt = now;
+        this.updatedAt = now;
+    }
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public Long getFileId() { return fileId; }
+    public void setFileId(Long fileId) { this.fileId = fileId; }
+
+    public Status getStatus() { return status; }
+    public void setStatus(Status status) { this.status = status; }
+
+    public String getStage() { return stage; }
+    public void setStage(String stage) { this.stage = stage; }
+
+    public Integer getAttempts() { return attempts; }
+    public void setAttempts(Integer attempts) { this.attempts = attempts; }
+
+    public LocalDateTime getNextAttemptAt() { return nextAttemptAt; }
+    public void setNextAttemptAt(LocalDateTime nextAttemptAt) { this.nextAttemptAt = nextAttemptAt; }
+
+    public String getLastError() { return lastError; }
+    public void setLastError(String lastError) { this.lastError = lastError; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+}
@@ -0,0 +1,64 @@
+package com.secureoffice.backend.model;
+
+import jakarta.persistence.*;
+
+import java.time.LocalDateTime;
+
+/**
+ * Running file count and byte total for one scope: a user, a department, or the whole
+ * system ({@code GLOBAL}, scope id 0). Adjusted in the transaction of every upload and
+ * delete, and periodically reconciled against the files table.
+ */
+@Entity
+@Table(name = "storage_usage",
+       uniqueConstraints = @UniqueConstraint(name = "uk_storage_usage_scope", columnNames = {"scope_type", "scope_id"}))
+public class StorageUsage {
+
+    public static final long GLOBAL_SCOPE_ID = 0L;
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "scope_type", nullable = false)
+    private ScopeType scopeType;
+
+    @Column(name = "scope_id", nullable = false)
+    private Long scopeId;
+
+    @Column(name = "file_count", nullable = false)
+    private Long fileCount = 0L;
+
+    @Column(name = "byte_count", nullable = false)
+    private Long byteCount = 0L;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    // Constructors
+    public StorageUsage() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public ScopeType getScopeType() { return scopeType; }
+    public void setScopeType(ScopeType scopeType) { this.scopeType = scopeType; }
+
+    public Long getScopeId() { return scopeId; }
+    public void setScopeId(Long scopeId) { this.scopeId = scopeId; }
+
+    public Long getFileCount() { return fileCount; }
+    public void setFileCount(Long fileCount) { this.fileCount = fileCount; }
+
+    public Long getByteCount() { return byteCount; }
+    public void setByteCount(Long byteCount) { this.byteCount = byteCount; }
+
+    public LocalDateTime getUpdatedAt() { return updatedAt; }
+    public void setUpdatedAt(LocalDateTime updatedAt) { this.updatedAt = updatedAt; }
+
+    public enum ScopeType {
+        GLOBAL, USER, DEPARTMENT
+    }
+}
@@ -0,0 +1,62 @@
+package com.secureoffice.backend.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * A chunk of an {@link UploadSession} that has been received and verified against
+ * its checksum.
+ */
+@Entity
+@Table(name = "upload_chunks", uniqueConstraints = {
+    @UniqueConstraint(name = "uk_upload_chunk_session_index", columnNames = {"session_id", "chunk_index"})
+})
+@EntityListeners(AuditingEntityListener.class)
+public class UploadChunk {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "session_id", nullable = false)
+    private UploadSession session;
+
+    @Column(name = "chunk_index", nullable = false)
+    private Integer chunkIndex;
+
+    @Column(name = "chunk_size", nullable = false)
+    private Long chunkSize;
+
+    @Column(name = "sha256", nullable = false, length = 64)
+    private String sha256;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public UploadChunk() {}
+
+    // Getters and Setters
+    public Long getId() { return id; }
+    public void setId(Long id) { this.id = id; }
+
+    public UploadSession getSession() { return session; }
+    public void setSession(UploadSession session) { this.session = session; }
+
+    public Integer getChunkIndex() { return chunkIndex; }
+    public void setChunkIndex(Integer chunkIndex) { this.chunkIndex = chunkIndex; }
+
+    public Long getChunkSize() { return chunkSize; }
+    public void setChunkSize(Long chunkSize) { this.chunkSize = chunkSize; }
+
+    public String getSha256() { return sha256; }
+    public void setSha256(String sha256) { this.sha256 = sha256; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+}
@@ -0,0 +1,115 @@
+package com.secureoffice.backend.model;
+
+import jakarta.persistence.*;
+import org.springframework.data.annotation.CreatedDate;
+import org.springframework.data.jpa.domain.support.AuditingEntityListener;
+
+import java.time.LocalDateTime;
+
+/**
+ * A resumable upload in progress. Chunks are received independently (in any order
+ * and in parallel) and the file record is created when the client completes the
+ * session. Sessions that are never completed are purged after they expire.
+ */
+@Entity
+@Table(name = "upload_sessions", indexes = {
+    @Index(name = "idx_upload_session_user", columnList = "user_id"),
+    @Index(name = "idx_upload_session_expires_at", columnList = "expires_at")
+})
+@EntityListeners(AuditingEntityListener.class)
+public class UploadSession {
+
+    // Random UUID; also the name of the staging directory
+    @Id
+    @Column(length = 36)
+    private String id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    @JoinColumn(name = "user_id", nullable = false)
+    private User user;
+
+    @Column(name = "original_filename", nullable = false)
+    private String originalFilename;
+
+    @Column(name = "mime_type", length = 100)
+    private String mimeType;
+
+    @Column(name = "folder_path", nullable = false, length = 500)
+    private String folderPath;
+
+    @Column(name = "total_size", nullable = false)
+    private Long totalSize;
+
+    @Column(name = "chunk_size", nullable = false)
+    private Long chunkSize;
+
+    @Column(name = "total_chunks", nullable = false)
+    private Integer totalChunks;
+
+    // Optional hex SHA-256 of the whole file, checked on completion
+    @Column(name = "expected_hash", length = 64)
+    private String expectedHash;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+
+    // Set while a completion assembles the body, so a second completion or an abort is refused
+    @Column(name = "completing_at")
+    private LocalDateTime completingAt;
+
+    @CreatedDate
+    @Column(name = "created_at", nullable = false, updatable = false)
+    private LocalDateTime createdAt;
+
+    // Constructors
+    public UploadSession() {}
+
+    // Getters and Setters
+    public String getId() { return id; }
+    public void setId(String id) { this.id = id; }
+
+    public User getUser() { return user; }
+    public void setUser(User user) { this.user = user; }
+
+    public String getOriginalFilename() { return originalFilename; }
+    public void setOriginalFilename(String originalFilename) { this.originalFilename = originalFilename; }
+
+    public String getMimeType() { return mimeType; }
+    public void setMimeType(String mimeType) { this.mimeType = mimeType; }
+
+    public String getFolderPath() { return folderPath; }
+    public void setFolderPath(String folderPath) { this.folderPath = folderPath; }
+
+    public Long getTotalSize() { return totalSize; }
+    public void setTotalSize(Long totalSize) { this.totalSize = totalSize; }
+
+    public Long getChunkSize() { return chunkSize; }
+    public void setChunkSize(Long chunkSize) { this.chunkSize = chunkSize; }
+
+    public Integer getTotalChunks() { return totalChunks; }
+    public void setTotalChunks(Integer totalChunks) { this.totalChunks = totalChunks; }
+
+    public String getExpectedHash() { return expectedHash; }
+    public void setExpectedHash(String expectedHash) { this.expectedHash = expectedHash; }
+
+    public LocalDateTime getExpiresAt() { return expiresAt; }
+    public void setExpiresAt(LocalDateTime expiresAt) { this.expiresAt = expiresAt; }
+
+    public LocalDateTime getCompletingAt() { return completingAt; }
+    public void setCompletingAt(LocalDateTime completingAt) { this.completingAt = completingAt; }
+
+    public LocalDateTime getCreatedAt() { return createdAt; }
+    public void setCreatedAt(LocalDateTime createdAt) { this.createdAt = createdAt; }
+
+    public boolean isExpired() {
+        return expiresAt.isBefore(LocalDateTime.now());
+    }
+
+    // Every chunk is chunkSize bytes except the last, which holds the remainder
+    public long getExpectedChunkSize(int index) {
+        if (index == totalChunks - 1) {
+            return totalSize - (long) index * chunkSize;
+        }
+        return chunkSize;
+    }
+}
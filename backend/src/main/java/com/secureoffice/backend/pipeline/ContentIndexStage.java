@@ -0,0 +1,41 @@
+package com.secureoffice.backend.pipeline;
+
+import com.secureoffice.backend.config.ContentIndexConfig;
+import com.secureoffice.backend.model.File;
+import com.secureoffice.backend.service.ContentIndexService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+@Component
+@Order(100)
+public class ContentIndexStage implements ProcessingStage {
+
+    @Autowired
+    private ContentIndexService contentIndexService;
+
+    @Autowired
+    private ContentIndexConfig contentIndexConfig;
+
+    @Override
+    public String name() {
+        return "content-index";
+    }
+
+    @Override
+    public int concurrency() {
+        return contentIndexConfig.getThreads();
+    }
+
+    @Override
+    public boolean supports(File file) {
+        return contentIndexService.supports(file);
+    }
+
+    @Override
+    public void process(File file) throws IOException {
+        contentIndexService.index(file);
+    }
+}
@@ -0,0 +1,24 @@
+package com.secureoffice.backend.pipeline;
+
+import com.secureoffice.backend.model.File;
+
+import java.io.IOException;
+
+/**
+ * One step of post-upload processing. Stages are Spring beans run in {@code @Order}
+ * order; each gets its own pool of {@link #concurrency()} threads, so a slow stage does
+ * not hold back the others. A stage that throws is retried with backoff, so
+ * {@link #process} must be safe to run again for the same file.
+ */
+public interface ProcessingStage {
+
+    // Persisted with the job; keep it stable
+    String name();
+
+    int concurrency();
+
+    boolean supports(File file);
+
+    // The file is loaded with its blob
+    void process(File file) throws IOException;
+}
@@ -0,0 +1,41 @@
+package com.secureoffice.backend.pipeline;
+
+import com.secureoffice.backend.config.ThumbnailConfig;
+import com.secureoffice.backend.model.File;
+import com.secureoffice.backend.service.ThumbnailService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+
+@Component
+@Order(200)
+public class ThumbnailStage implements ProcessingStage {
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private ThumbnailConfig thumbnailConfig;
+
+    @Override
+    public String name() {
+        return "thumbnail";
+    }
+
+    @Override
+    public int concurrency() {
+        return thumbnailConfig.getThreads();
+    }
+
+    @Override
+    public boolean supports(File file) {
+        return thumbnailService.supports(file);
+    }
+
+    @Override
+    public void process(File file) throws IOException {
+        thumbnailService.render(file);
+    }
+}
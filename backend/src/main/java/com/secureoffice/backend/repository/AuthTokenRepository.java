@@ -0,0 +1,46 @@
+package com.secureoffice.backend.repository;
+
+import com.secureoffice.backend.model.AuthToken;
+import com.secureoffice.backend.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Optional;
+
+@Repository
+public interface AuthTokenRepository extends JpaRepository<AuthToken, Long> {
+
+    @Query("SELECT t FROM AuthToken t JOIN FETCH t.user WHERE t.tokenHash = :tokenHash AND t.tokenType = :tokenType")
+    Optional<AuthToken> findByTokenHashAndTokenType(@Param("tokenHash") byte[] tokenHash,
+                                                    @Param("tokenType") AuthToken.TokenType tokenType);
+
+    @Modifying
+    @Query("DELETE FROM AuthToken t WHERE t.user = :user AND t.tokenType = :tokenType")
+    int deleteByUserAndTokenType(@Param("user") User user, @Param("tokenType") AuthToken.TokenType tokenType);
+
+    @Modifying
+    @Query("DELETE FROM AuthToken t WHERE t.tokenHash = :tokenHash AND t.tokenType = :tokenType")
+    int deleteByTokenHashAndTokenType(@Param("tokenHash") byte[] tokenHash,
+                                      @Param("tokenType") AuthToken.TokenType tokenType);
+
+    // Swaps a live token for its successor in one statement; 0 rows means unknown, expired or already rotated
+    @Modifying
+    @Query("UPDATE AuthToken t SET t.tokenHash = :newHash, t.expiresAt = :expiresAt " +
+           "WHERE t.tokenHash = :oldHash AND t.tokenType = :tokenType AND t.user.id = :userId AND t.expiresAt > :now")
+    int rotate(@Param("oldHash") byte[] oldHash, @Param("newHash") byte[] newHash,
+               @Param("tokenType") AuthToken.TokenType tokenType, @Param("userId") Long userId,
+               @Param("expiresAt") LocalDateTime expiresAt, @Param("now") LocalDateTime now);
+
+    // Bounded delete so the maintenance job never holds long-running locks
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE FROM auth_tokens WHERE token_type = :tokenType AND expires_at < :now LIMIT :limit",
+           nativeQuery = true)
+    int deleteExpiredTokensBatch(@Param("tokenType") String tokenType, @Param("now") LocalDateTime now,
+                                 @Param("limit") int limit);
+}
@@ -0,0 +1,101 @@
+package com.secureoffice.backend.repository;
+
+import com.secureoffice.backend.model.File;
+import com.secureoffice.backend.model.FileAccess;
+import com.secureoffice.backend.model.User;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface FileAccessRepository extends JpaRepository<FileAccess, Long> {
+
+    // Listings: sort by createdAt and file.id so the page is read in index order
+
+    @Query(value = "SELECT a.file FROM FileAccess a WHERE a.user = :user AND a.isPublic = false",
+           countQuery = "SELECT COUNT(a) FROM FileAccess a WHERE a.user = :user AND a.isPublic = false")
+    Page<File> findPrivateFiles(@Param("user") User user, Pageable pageable);
+
+    @Query(value = "SELECT a.file FROM FileAccess a WHERE a.user = :user AND a.isPublic = false " +
+                   "AND a.folderPath = :folderPath",
+           countQuery = "SELECT COUNT(a) FROM FileAccess a WHERE a.user = :user AND a.isPublic = false " +
+                        "AND a.folderPath = :folderPath")
+    Page<File> findPrivateFilesByFolder(@Param("user") User user, @Param("folderPath") String folderPath,
+                                        Pageable pageable);
+
+    @Query(value = "SELECT a.file FROM FileAccess a WHERE a.user = :user AND a.isPublic = false AND " +
+                   "(LOWER(a.file.originalFilename) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                   "LOWER(a.file.mimeType) LIKE LOWER(CONCAT('%', :search, '%')))",
+           countQuery = "SELECT COUNT(a) FROM FileAccess a WHERE a.user = :user AND a.isPublic = false AND " +
+                        "(LOWER(a.file.originalFilename) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                        "LOWER(a.file.mimeType) LIKE LOWER(CONCAT('%', :search, '%')))")
+    Page<File> findPrivateFilesBySearch(@Param("user") User user, @Param("search") String search,
+                                        Pageable pageable);
+
+    @Query("SELECT a.file.id FROM FileAccess a WHERE a.user = :user AND a.file.id IN :fileIds")
+    List<Long> findFileIdsByUserAndFileIdIn(@Param("user") User user, @Param("fileIds") Collection<Long> fileIds);
+
+    // Maintenance
+
+    // Owner rows are never downgraded by a later share with the owner
+    @Modifying
+    @Query(value = "INSERT INTO file_access (user_id, file_id, folder_path, created_at, is_public, permission) " +
+                   "SELECT u.id, f.id, f.folder_path, f.created_at, f.is_public, :permission " +
+                   "FROM users u JOIN files f ON f.id = :fileId WHERE u.id IN (:userIds) " +
+                   "ON DUPLICATE KEY UPDATE permission = IF(permission = 'OWNER', 'OWNER', VALUES(permission))",
+           nativeQuery = true)
+    int grant(@Param("fileId") Long fileId, @Param("userIds") Collection<Long> userIds,
+              @Param("permission") String permission);
+
+    @Modifying
+    @Query("UPDATE FileAccess a SET a.isPublic = :isPublic WHERE a.file.id = :fileId")
+    int updateVisibility(@Param("fileId") Long fileId, @Param("isPublic") boolean isPublic);
+
+    @Modifying
+    @Query("UPDATE FileAccess a SET a.folderPath = :folderPath WHERE a.file.id = :fileId")
+    int updateFolderPath(@Param("fileId") Long fileId, @Param("folderPath") String folderPath);
+
+    @Modifying
+    @Query("UPDATE FileAccess a SET a.folderPath = :to WHERE a.folderPath = :from")
+    int renameFolderPath(@Param("from") String from, @Param("to") String to);
+
+    @Modifying
+    @Query("DELETE FROM FileAccess a WHERE a.file.id = :fileId")
+    int deleteByFileId(@Param("fileId") Long fileId);
+
+    // Rows of the user and rows for files the user uploaded
+    @Modifying
+    @Query("DELETE FROM FileAccess a WHERE a.user.id = :userId OR " +
+           "a.file.id IN (SELECT f.id FROM File f WHERE f.uploadedBy.id = :userId)")
+    int deleteByUserId(@Param("userId") Long userId);
+
+    // Shares are kept while a file is in the trash; restoring it grants them again
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO file_access (user_id, file_id, folder_path, created_at, is_public, permission) " +
+                   "SELECT fs.user_id, f.id, f.folder_path, f.created_at, f.is_public, fs.permission_type " +
+                   "FROM file_shares fs JOIN files f ON f.id = fs.file_id WHERE f.id = :fileId",
+           nativeQuery = true)
+    int restoreShares(@Param("fileId") Long fileId);
+
+    // Backfill for databases that had files before the index existed; owners first so they win
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO file_access (user_id, file_id, folder_path, created_at, is_public, permission) " +
+                   "SELECT f.uploaded_by, f.id, f.folder_path, f.created_at, f.is_public, 'OWNER' FROM files f WHERE f.deleted_at IS NULL",
+           nativeQuery = true)
+    int backfillOwners();
+
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO file_access (user_id, file_id, folder_path, created_at, is_public, permission) " +
+                   "SELECT fs.user_id, f.id, f.folder_path, f.created_at, f.is_public, fs.permission_type " +
+                   "FROM file_shares fs JOIN files f ON f.id = fs.file_id WHERE f.deleted_at IS NULL",
+           nativeQuery = true)
+    int backfillShares();
+}
@@ -0,0 +1,47 @@
+package com.secureoffice.backend.repository;
+
+import com.secureoffice.backend.model.FileBlob;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FileBlobRepository extends JpaRepository<FileBlob, Long> {
+
+    Optional<FileBlob> findByContentHash(String contentHash);
+
+    // Creates the blob with one reference or adds a reference to the existing one. The row
+    // stays locked until commit, which serialises it against a concurrent last-reference delete.
+    // The codec and stored size only apply to a new blob; an existing body keeps its own.
+    @Modifying
+    @Query(value = "INSERT INTO file_blobs (content_hash, storage_path, file_size, codec, stored_size, " +
+                   "reference_count, created_at) " +
+                   "VALUES (:contentHash, :storagePath, :fileSize, :codec, :storedSize, 1, NOW()) " +
+                   "ON DUPLICATE KEY UPDATE reference_count = reference_count + 1",
+           nativeQuery = true)
+    int acquire(@Param("contentHash") String contentHash, @Param("storagePath") String storagePath,
+                @Param("fileSize") long fileSize, @Param("codec") String codec, @Param("storedSize") long storedSize);
+
+    @Modifying
+    @Query("UPDATE FileBlob b SET b.referenceCount = b.referenceCount - 1 WHERE b.id = :id AND b.referenceCount > 0")
+    int releaseReference(@Param("id") Long id);
+
+    @Modifying
+    @Query("DELETE FROM FileBlob b WHERE b.id = :id AND b.referenceCount = 0")
+    int deleteIfUnreferenced(@Param("id") Long id);
+
+    // Locking read: also blocks an acquire of a hash that has no row yet until commit
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    List<FileBlob> findByContentHashIn(Collection<String> contentHashes);
+
+    @Query("SELECT COALESCE(SUM(COALESCE(b.storedSize, b.fileSize)), 0) FROM FileBlob b")
+    long getStoredBytes();
+}
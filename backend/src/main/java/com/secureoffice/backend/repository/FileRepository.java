@@ -1,16 +1,23 @@
 package com.secureoffice.backend.repository;
 
 import com.secureoffice.backend.model.File;
+import com.secureoffice.backend.model.FileShare;
 import com.secureoffice.backend.model.User;
+import jakarta.persistence.LockModeType;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 @Repository
 public interface FileRepository extends JpaRepository<File, Long> {
@@ -21,51 +28,122 @@ public interface FileRepository extends JpaRepository<File, Long> {
 
        List<File> findByUploadedByAndFolderPath(User uploadedBy, String folderPath);
 
-       @Query("SELECT f FROM File f WHERE f.isPublic = true OR f.uploadedBy = :user OR " +
-                     "EXISTS (SELECT fs FROM FileShare fs WHERE fs.file = f AND fs.user = :user)")
+       @Query("SELECT f FROM File f WHERE f.deletedAt IS NULL AND (f.isPublic = true OR f.uploadedBy = :user OR " +
+                     "EXISTS (SELECT fs FROM FileShare fs WHERE fs.file = f AND fs.user = :user))")
        Page<File> findAccessibleFiles(@Param("user") User user, Pageable pageable);
 
-       @Query("SELECT f FROM File f WHERE (f.isPublic = true OR f.uploadedBy = :user OR " +
+       @Query("SELECT f FROM File f WHERE f.deletedAt IS NULL AND (f.isPublic = true OR f.uploadedBy = :user OR " +
                      "EXISTS (SELECT fs FROM FileShare fs WHERE fs.file = f AND fs.user = :user)) AND " +
                      "(LOWER(f.originalFilename) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
                      "LOWER(f.mimeType) LIKE LOWER(CONCAT('%', :search, '%')))")
        Page<File> findAccessibleFilesBySearch(@Param("user") User user, @Param("search") String search,
                      Pageable pageable);
 
-       @Query("SELECT f FROM File f WHERE (f.isPublic = true OR f.uploadedBy = :user OR " +
+       @Query("SELECT f FROM File f WHERE f.deletedAt IS NULL AND (f.isPublic = true OR f.uploadedBy = :user OR " +
                      "EXISTS (SELECT fs FROM FileShare fs WHERE fs.file = f AND fs.user = :user)) AND " +
                      "f.folderPath = :folderPath")
        Page<File> findAccessibleFilesByFolder(@Param("user") User user, @Param("folderPath") String folderPath,
                      Pageable pageable);
 
-       @Query("SELECT SUM(f.fileSize) FROM File f WHERE f.uploadedBy = :user")
-       Long getTotalFileSizeByUser(@Param("user") User user);
+       // Public half of the listings; the owned and shared half comes from FileAccessRepository
+       Page<File> findByIsPublicTrueAndDeletedAtIsNull(Pageable pageable);
 
-       @Query("SELECT COUNT(f) FROM File f WHERE f.createdAt >= :startDate")
+       Page<File> findByIsPublicTrueAndFolderPathAndDeletedAtIsNull(String folderPath, Pageable pageable);
+
+       @Query("SELECT f FROM File f WHERE f.isPublic = true AND f.deletedAt IS NULL AND " +
+                     "(LOWER(f.originalFilename) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
+                     "LOWER(f.mimeType) LIKE LOWER(CONCAT('%', :search, '%')))")
+       Page<File> findPublicFilesBySearch(@Param("search") String search, Pageable pageable);
+
+       // Rows for building the search index, read in id order one batch at a time
+       @Query("SELECT f.id, f.originalFilename, f.mimeType, f.isPublic, f.uploadedBy.id, f.createdAt " +
+                     "FROM File f WHERE f.id > :afterId AND f.deletedAt IS NULL ORDER BY f.id")
+       List<Object[]> findSearchDocuments(@Param("afterId") Long afterId, Pageable pageable);
+
+       // Visibility and sort columns of the live files among the ids, without loading the entities
+       @Query("SELECT f.id, f.isPublic, f.uploadedBy.id, f.createdAt " +
+                     "FROM File f WHERE f.id IN :fileIds AND f.deletedAt IS NULL")
+       List<Object[]> findVisibilityByIdIn(@Param("fileIds") Collection<Long> fileIds);
+
+       // The files of the set the user may download, checked in one statement (same rule as a single download)
+       @Query("SELECT f FROM File f LEFT JOIN FETCH f.blob WHERE f.id IN :fileIds AND f.deletedAt IS NULL AND " +
+                     "(f.uploadedBy = :user OR f.isPublic = true OR EXISTS (SELECT fs FROM FileShare fs " +
+                     "WHERE fs.file = f AND fs.user = :user AND fs.permissionType = :permission))")
+       List<File> findDownloadable(@Param("user") User user, @Param("fileIds") Collection<Long> fileIds,
+                     @Param("permission") FileShare.PermissionType permission);
+
+       // The user's files in a folder and its subfolders; subfolderPattern is a LIKE pattern escaped with '!'
+       @Query("SELECT f FROM File f LEFT JOIN FETCH f.blob WHERE f.uploadedBy = :user AND f.deletedAt IS NULL AND " +
+                     "(f.folderPath = :folderPath OR f.folderPath LIKE :subfolderPattern ESCAPE '!') " +
+                     "ORDER BY f.folderPath, f.originalFilename, f.id")
+       List<File> findInFolderTree(@Param("user") User user, @Param("folderPath") String folderPath,
+                     @Param("subfolderPattern") String subfolderPattern, Pageable pageable);
+
+       @Query("SELECT f FROM File f LEFT JOIN FETCH f.blob WHERE f.id = :id")
+       Optional<File> findWithBlobById(@Param("id") Long id);
+
+       // Every lookup by id on behalf of a user; files in the trash are not found
+       Optional<File> findByIdAndDeletedAtIsNull(Long id);
+
+       Page<File> findByUploadedByAndDeletedAtIsNotNull(User uploadedBy, Pageable pageable);
+
+       // Trashed files past the retention window, oldest first; locked so a concurrent restore waits for the purge
+       @Lock(LockModeType.PESSIMISTIC_WRITE)
+       @Query("SELECT f FROM File f LEFT JOIN FETCH f.blob WHERE f.deletedAt < :cutoff ORDER BY f.deletedAt, f.id")
+       List<File> findDeletedBefore(@Param("cutoff") LocalDateTime cutoff, Pageable pageable);
+
+       // Images stored before the processing pipeline that still have no renditions, in id order
+       @Query("SELECT f FROM File f LEFT JOIN FETCH f.blob WHERE f.id > :afterId AND f.thumbnailReady = false " +
+                     "AND f.mimeType LIKE 'image/%' AND f.deletedAt IS NULL " +
+                     "AND NOT EXISTS (SELECT j FROM ProcessingJob j WHERE j.fileId = f.id) ORDER BY f.id")
+       List<File> findThumbnailCandidates(@Param("afterId") Long afterId, Pageable pageable);
+
+       // Renditions belong to the body, so every file sharing it gets them at once
+       @Transactional
+       @Modifying
+       @Query("UPDATE File f SET f.thumbnailReady = true WHERE f.blob.id = :blobId")
+       int markThumbnailsReadyByBlob(@Param("blobId") Long blobId);
+
+       @Transactional
+       @Modifying
+       @Query("UPDATE File f SET f.thumbnailReady = true WHERE f.id = :fileId")
+       int markThumbnailsReady(@Param("fileId") Long fileId);
+
+       // Rows for filling the content index, read in id order one batch at a time
+       @Query("SELECT f.id, f.originalFilename, f.mimeType, b.storagePath, f.filePath, b.codec " +
+                     "FROM File f LEFT JOIN f.blob b " +
+                     "WHERE f.id > :afterId AND f.deletedAt IS NULL ORDER BY f.id")
+       List<Object[]> findContentDocuments(@Param("afterId") Long afterId, Pageable pageable);
+
+       @Query("SELECT COUNT(f) FROM File f WHERE f.createdAt >= :startDate AND f.deletedAt IS NULL")
        long countFilesUploadedSince(@Param("startDate") LocalDateTime startDate);
 
-       @Query("SELECT SUM(f.fileSize) FROM File f")
-       Long getTotalFileSize();
+       // Owner id, folder path, file count and byte total per folder; used to build the folder tree
+       @Query("SELECT f.uploadedBy.id, f.folderPath, COUNT(f), SUM(f.fileSize) FROM File f " +
+                     "WHERE f.deletedAt IS NULL GROUP BY f.uploadedBy.id, f.folderPath")
+       List<Object[]> getFolderStatistics();
+
+       @Query("SELECT DISTINCT f.folderPath FROM File f")
+       List<String> findDistinctFolderPaths();
 
-       @Query("SELECT DISTINCT f.folderPath FROM File f WHERE f.uploadedBy = :user ORDER BY f.folderPath")
-       List<String> findDistinctFolderPathsByUser(@Param("user") User user);
+       @Modifying
+       @Query("UPDATE File f SET f.folderPath = :to WHERE f.folderPath = :from")
+       int renameFolderPath(@Param("from") String from, @Param("to") String to);
 
        // Count files by visibility
-       long countByIsPublic(boolean isPublic);
+       long countByIsPublicAndDeletedAtIsNull(boolean isPublic);
 
-       // Get average file size
-       @Query("SELECT AVG(f.fileSize) FROM File f")
-       Long getAverageFileSize();
+       long countByDeletedAtIsNull();
 
        // Get file type statistics
-       @Query("SELECT f.mimeType, COUNT(f) FROM File f GROUP BY f.mimeType ORDER BY COUNT(f) DESC")
+       @Query("SELECT f.mimeType, COUNT(f) FROM File f WHERE f.deletedAt IS NULL GROUP BY f.mimeType ORDER BY COUNT(f) DESC")
        List<Object[]> getFileTypeStatistics();
 
        // Get largest files
-       @Query("SELECT f FROM File f ORDER BY f.fileSize DESC")
+       @Query("SELECT f FROM File f WHERE f.deletedAt IS NULL ORDER BY f.fileSize DESC")
        Page<File> findLargestFiles(Pageable pageable);
 
        // Get recent files
-       @Query("SELECT f FROM File f WHERE f.createdAt >= :startDate ORDER BY f.createdAt DESC")
+       @Query("SELECT f FROM File f WHERE f.createdAt >= :startDate AND f.deletedAt IS NULL ORDER BY f.createdAt DESC")
        Page<File> findRecentFiles(@Param("startDate") LocalDateTime startDate, Pageable pageable);
 }
@@ -4,10 +4,12 @@ import com.secureoffice.backend.model.File;
 import com.secureoffice.backend.model.FileShare;
 import com.secureoffice.backend.model.User;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -31,7 +33,30 @@ public interface FileShareRepository extends JpaRepository<FileShare, Long> {
     @Query("SELECT COUNT(fs) FROM FileShare fs WHERE fs.file = :file")
     long countByFile(@Param("file") File file);
     
+    @Query("SELECT fs FROM FileShare fs JOIN FETCH fs.user JOIN FETCH fs.sharedBy " +
+           "WHERE fs.file = :file AND fs.user.id IN :userIds")
+    List<FileShare> findByFileAndUserIdIn(@Param("file") File file, @Param("userIds") Collection<Long> userIds);
+    
     void deleteByFileAndUser(File file, User user);
     
+    // A user holds one share per file: drop grants of any other type before inserting the new one
+    @Modifying
+    @Query("DELETE FROM FileShare fs WHERE fs.file = :file AND fs.user.id IN :userIds " +
+           "AND fs.permissionType <> :permissionType")
+    int deleteOtherPermissions(@Param("file") File file, @Param("userIds") Collection<Long> userIds,
+                               @Param("permissionType") FileShare.PermissionType permissionType);
+    
+    // One statement for any number of recipients; rows that already exist are left as they are
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO file_shares (file_id, user_id, permission_type, shared_by, created_at) " +
+                   "SELECT :fileId, u.id, :permissionType, :sharedBy, NOW() FROM users u WHERE u.id IN (:userIds)",
+           nativeQuery = true)
+    int insertShares(@Param("fileId") Long fileId, @Param("userIds") Collection<Long> userIds,
+                     @Param("permissionType") String permissionType, @Param("sharedBy") Long sharedBy);
+    
     void deleteByFile(File file);
+    
+    @Modifying
+    @Query("DELETE FROM FileShare fs WHERE fs.file.id IN :fileIds")
+    int deleteByFileIdIn(@Param("fileIds") Collection<Long> fileIds);
 }
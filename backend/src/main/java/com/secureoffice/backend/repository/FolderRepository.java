@@ -0,0 +1,49 @@
+package com.secureoffice.backend.repository;
+
+import com.secureoffice.backend.model.Folder;
+import com.secureoffice.backend.model.User;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface FolderRepository extends JpaRepository<Folder, Long> {
+
+    Optional<Folder> findByOwnerAndPath(User owner, String path);
+
+    List<Folder> findByOwnerAndParentPathOrderByName(User owner, String parentPath);
+
+    @Query("SELECT f.path FROM Folder f WHERE f.owner = :owner AND f.totalFileCount > 0 ORDER BY f.path")
+    List<String> findNonEmptyPaths(@Param("owner") User owner);
+
+    // Concurrent uploads to a new folder may both try to create it; the second insert is a no-op
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO folders (owner_id, path, parent_path, name, file_count, byte_count, " +
+                   "total_file_count, total_bytes, created_at) " +
+                   "VALUES (:ownerId, :path, :parentPath, :name, 0, 0, 0, 0, NOW())",
+           nativeQuery = true)
+    int createIfAbsent(@Param("ownerId") Long ownerId, @Param("path") String path,
+                       @Param("parentPath") String parentPath, @Param("name") String name);
+
+    @Modifying
+    @Query("UPDATE Folder f SET f.fileCount = f.fileCount + :files, f.byteCount = f.byteCount + :bytes " +
+           "WHERE f.owner.id = :ownerId AND f.path = :path")
+    int adjustDirect(@Param("ownerId") Long ownerId, @Param("path") String path,
+                     @Param("files") long files, @Param("bytes") long bytes);
+
+    @Modifying
+    @Query("UPDATE Folder f SET f.totalFileCount = f.totalFileCount + :files, f.totalBytes = f.totalBytes + :bytes " +
+           "WHERE f.owner.id = :ownerId AND f.path IN :paths")
+    int adjustTotals(@Param("ownerId") Long ownerId, @Param("paths") Collection<String> paths,
+                     @Param("files") long files, @Param("bytes") long bytes);
+
+    @Modifying
+    @Query("DELETE FROM Folder f WHERE f.owner.id = :ownerId")
+    int deleteByOwnerId(@Param("ownerId") Long ownerId);
+}
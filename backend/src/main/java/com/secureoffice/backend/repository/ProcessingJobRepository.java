@@ -0,0 +1,72 @@
+package com.secureoffice.backend.repository;
+
+import com.secureoffice.backend.model.ProcessingJob;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface ProcessingJobRepository extends JpaRepository<ProcessingJob, Long> {
+
+    Optional<ProcessingJob> findByFileId(Long fileId);
+
+    @Query("SELECT j.id FROM ProcessingJob j WHERE j.status = 'PENDING' AND j.stage = :stage " +
+           "AND j.nextAttemptAt <= :now ORDER BY j.nextAttemptAt, j.id")
+    List<Long> findDueIds(@Param("stage") String stage, @Param("now") LocalDateTime now, Pageable pageable);
+
+    @Query("SELECT j.status, COUNT(j) FROM ProcessingJob j GROUP BY j.status")
+    List<Object[]> countByStatus();
+
+    // Only one worker wins a job; the loser sees 0 rows updated
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.status = 'PROCESSING', j.attempts = j.attempts + 1, j.updatedAt = :now " +
+           "WHERE j.id = :id AND j.status = 'PENDING'")
+    int claim(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.status = 'PENDING', j.stage = :stage, j.attempts = 0, " +
+           "j.nextAttemptAt = :now, j.lastError = NULL, j.updatedAt = :now WHERE j.id = :id")
+    int advance(@Param("id") Long id, @Param("stage") String stage, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.status = 'READY', j.lastError = NULL, j.updatedAt = :now WHERE j.id = :id")
+    int complete(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.status = 'PENDING', j.nextAttemptAt = :nextAttemptAt, " +
+           "j.lastError = :error, j.updatedAt = :now WHERE j.id = :id")
+    int retryLater(@Param("id") Long id, @Param("nextAttemptAt") LocalDateTime nextAttemptAt,
+                   @Param("error") String error, @Param("now") LocalDateTime now);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.status = 'FAILED', j.lastError = :error, j.updatedAt = :now WHERE j.id = :id")
+    int fail(@Param("id") Long id, @Param("error") String error, @Param("now") LocalDateTime now);
+
+    // Jobs a stopped instance was running; they are started again from their current stage
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProcessingJob j SET j.status = 'PENDING', j.nextAttemptAt = :now WHERE j.status = 'PROCESSING'")
+    int requeueInterrupted(@Param("now") LocalDateTime now);
+
+    @Modifying
+    @Query("DELETE FROM ProcessingJob j WHERE j.fileId IN :fileIds")
+    int deleteByFileIdIn(@Param("fileIds") Collection<Long> fileIds);
+
+    @Modifying
+    @Query("DELETE FROM ProcessingJob j WHERE j.fileId IN (SELECT f.id FROM File f WHERE f.uploadedBy.id = :userId)")
+    int deleteByOwnerId(@Param("userId") Long userId);
+}
@@ -1,33 +0,0 @@
-package com.secureoffice.backend.repository;
-
-import com.secureoffice.backend.model.RefreshToken;
-import com.secureoffice.backend.model.User;
-import org.springframework.data.jpa.repository.JpaRepository;
-import org.springframework.data.jpa.repository.Modifying;
-import org.springframework.data.jpa.repository.Query;
-import org.springframework.data.repository.query.Param;
-import org.springframework.stereotype.Repository;
-
-import java.time.LocalDateTime;
-import java.util.Optional;
-
-@Repository
-public interface RefreshTokenRepository extends JpaRepository<RefreshToken, Long> {
-
-    Optional<RefreshToken> findByToken(String token);
-    
-    Optional<RefreshToken> findByUser(User user);
-    
-    @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.user = :user")
-    void deleteByUser(@Param("user") User user);
-    
-    @Modifying
-    @Query("DELETE FROM RefreshToken rt WHERE rt.expiresAt < :now")
-    void deleteExpiredTokens(@Param("now") LocalDateTime now);
-    
-    @Query("SELECT COUNT(rt) FROM RefreshToken rt WHERE rt.user = :user")
-    long countByUser(@Param("user") User user);
-    
-    boolean existsByToken(String token);
-}
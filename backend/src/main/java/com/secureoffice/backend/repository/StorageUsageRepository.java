@@ -0,0 +1,118 @@
+package com.secureoffice.backend.repository;
+
+import com.secureoffice.backend.model.StorageUsage;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface StorageUsageRepository extends JpaRepository<StorageUsage, Long> {
+
+    Optional<StorageUsage> findByScopeTypeAndScopeId(StorageUsage.ScopeType scopeType, Long scopeId);
+
+    // The global row, the user's row and the rows of the user's departments
+    @Query(value = "SELECT su.* FROM storage_usage su WHERE (su.scope_type = 'GLOBAL' AND su.scope_id = 0) " +
+                   "OR (su.scope_type = 'USER' AND su.scope_id = :userId) " +
+                   "OR (su.scope_type = 'DEPARTMENT' AND su.scope_id IN " +
+                   "(SELECT ud.department_id FROM user_departments ud WHERE ud.user_id = :userId))",
+           nativeQuery = true)
+    List<StorageUsage> findScopesOfUser(@Param("userId") Long userId);
+
+    // Adds to every scope the user's files count towards, creating missing rows
+    @Modifying
+    @Query(value = "INSERT INTO storage_usage (scope_type, scope_id, file_count, byte_count, updated_at) " +
+                   "SELECT 'GLOBAL', 0, :files, :bytes, NOW() " +
+                   "UNION ALL SELECT 'USER', :userId, :files, :bytes, NOW() " +
+                   "UNION ALL SELECT 'DEPARTMENT', ud.department_id, :files, :bytes, NOW() " +
+                   "FROM user_departments ud WHERE ud.user_id = :userId " +
+                   "ON DUPLICATE KEY UPDATE file_count = file_count + VALUES(file_count), " +
+                   "byte_count = byte_count + VALUES(byte_count), updated_at = VALUES(updated_at)",
+           nativeQuery = true)
+    int adjust(@Param("userId") Long userId, @Param("files") long files, @Param("bytes") long bytes);
+
+    // Takes a user's totals off the global and department rows and drops the user's row
+    @Modifying
+    @Query(value = "UPDATE storage_usage su JOIN storage_usage u ON u.scope_type = 'USER' AND u.scope_id = :userId " +
+                   "SET su.file_count = su.file_count - u.file_count, su.byte_count = su.byte_count - u.byte_count, " +
+                   "su.updated_at = NOW() " +
+                   "WHERE (su.scope_type = 'GLOBAL' AND su.scope_id = 0) OR (su.scope_type = 'DEPARTMENT' AND su.scope_id IN " +
+                   "(SELECT ud.department_id FROM user_departments ud WHERE ud.user_id = :userId))",
+           nativeQuery = true)
+    int subtractUser(@Param("userId") Long userId);
+
+    @Modifying
+    @Query("DELETE FROM StorageUsage su WHERE su.scopeType = :scopeType AND su.scopeId = :scopeId")
+    int deleteScope(@Param("scopeType") StorageUsage.ScopeType scopeType, @Param("scopeId") Long scopeId);
+
+    // Reconciliation: user counters are recomputed from the files table one id range at a
+    // time, each range in its own short transaction. Read committed keeps INSERT ... SELECT
+    // from locking the files it reads, so uploads and deletes are not blocked. Department and
+    // global counters are then summed from the user rows instead of scanning files again.
+
+    @Query(value = "SELECT COALESCE(MAX(id), 0) FROM users", nativeQuery = true)
+    long findMaxUserId();
+
+    @Query(value = "SELECT COALESCE(MAX(id), 0) FROM departments", nativeQuery = true)
+    long findMaxDepartmentId();
+
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    @Modifying
+    @Query(value = "INSERT INTO storage_usage (scope_type, scope_id, file_count, byte_count, updated_at) " +
+                   "SELECT 'USER', u.id, COUNT(f.id), COALESCE(SUM(f.file_size), 0), NOW() " +
+                   "FROM users u LEFT JOIN files f ON f.uploaded_by = u.id " +
+                   "WHERE u.id BETWEEN :fromId AND :toId GROUP BY u.id " +
+                   "ON DUPLICATE KEY UPDATE file_count = VALUES(file_count), byte_count = VALUES(byte_count), " +
+                   "updated_at = VALUES(updated_at)",
+           nativeQuery = true)
+    int reconcileUsers(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    @Modifying
+    @Query(value = "INSERT INTO storage_usage (scope_type, scope_id, file_count, byte_count, updated_at) " +
+                   "SELECT 'DEPARTMENT', d.id, COALESCE(SUM(u.file_count), 0), COALESCE(SUM(u.byte_count), 0), NOW() " +
+                   "FROM departments d LEFT JOIN user_departments ud ON ud.department_id = d.id " +
+                   "LEFT JOIN storage_usage u ON u.scope_type = 'USER' AND u.scope_id = ud.user_id " +
+                   "WHERE d.id BETWEEN :fromId AND :toId GROUP BY d.id " +
+                   "ON DUPLICATE KEY UPDATE file_count = VALUES(file_count), byte_count = VALUES(byte_count), " +
+                   "updated_at = VALUES(updated_at)",
+           nativeQuery = true)
+    int reconcileDepartments(@Param("fromId") long fromId, @Param("toId") long toId);
+
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    @Modifying
+    @Query(value = "INSERT INTO storage_usage (scope_type, scope_id, file_count, byte_count, updated_at) " +
+                   "SELECT 'GLOBAL', 0, COALESCE(SUM(u.file_count), 0), COALESCE(SUM(u.byte_count), 0), NOW() " +
+                   "FROM storage_usage u WHERE u.scope_type = 'USER' " +
+                   "ON DUPLICATE KEY UPDATE file_count = VALUES(file_count), byte_count = VALUES(byte_count), " +
+                   "updated_at = VALUES(updated_at)",
+           nativeQuery = true)
+    int reconcileGlobal();
+
+    @Modifying
+    @Query(value = "INSERT INTO storage_usage (scope_type, scope_id, file_count, byte_count, updated_at) " +
+                   "SELECT 'DEPARTMENT', d.id, COUNT(f.id), COALESCE(SUM(f.file_size), 0), NOW() " +
+                   "FROM departments d LEFT JOIN user_departments ud ON ud.department_id = d.id " +
+                   "LEFT JOIN files f ON f.uploaded_by = ud.user_id " +
+                   "WHERE d.id = :departmentId GROUP BY d.id " +
+                   "ON DUPLICATE KEY UPDATE file_count = VALUES(file_count), byte_count = VALUES(byte_count), " +
+                   "updated_at = VALUES(updated_at)",
+           nativeQuery = true)
+    int reconcileDepartment(@Param("departmentId") Long departmentId);
+
+    // Rows of users and departments that no longer exist
+    @Transactional
+    @Modifying
+    @Query(value = "DELETE su FROM storage_usage su " +
+                   "LEFT JOIN users u ON su.scope_type = 'USER' AND u.id = su.scope_id " +
+                   "LEFT JOIN departments d ON su.scope_type = 'DEPARTMENT' AND d.id = su.scope_id " +
+                   "WHERE su.scope_type <> 'GLOBAL' AND u.id IS NULL AND d.id IS NULL",
+           nativeQuery = true)
+    int deleteOrphans();
+}
@@ -0,0 +1,35 @@
+package com.secureoffice.backend.repository;
+
+import com.secureoffice.backend.model.UploadChunk;
+import com.secureoffice.backend.model.UploadSession;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadChunkRepository extends JpaRepository<UploadChunk, Long> {
+
+    Optional<UploadChunk> findBySessionAndChunkIndex(UploadSession session, Integer chunkIndex);
+
+    List<UploadChunk> findBySessionOrderByChunkIndex(UploadSession session);
+
+    @Query("SELECT c.chunkIndex FROM UploadChunk c WHERE c.session = :session ORDER BY c.chunkIndex")
+    List<Integer> findReceivedChunkIndexes(@Param("session") UploadSession session);
+
+    // First writer of a chunk index wins; a concurrent duplicate is a no-op instead of a constraint error
+    @Modifying
+    @Query(value = "INSERT IGNORE INTO upload_chunks (session_id, chunk_index, chunk_size, sha256, created_at) " +
+                   "VALUES (:sessionId, :chunkIndex, :chunkSize, :sha256, NOW())",
+           nativeQuery = true)
+    int recordChunk(@Param("sessionId") String sessionId, @Param("chunkIndex") int chunkIndex,
+                    @Param("chunkSize") long chunkSize, @Param("sha256") String sha256);
+
+    @Modifying
+    @Query("DELETE FROM UploadChunk c WHERE c.session = :session")
+    int deleteBySession(@Param("session") UploadSession session);
+}
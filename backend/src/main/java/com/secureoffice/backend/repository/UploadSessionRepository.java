@@ -0,0 +1,30 @@
+package com.secureoffice.backend.repository;
+
+import com.secureoffice.backend.model.UploadSession;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface UploadSessionRepository extends JpaRepository<UploadSession, String> {
+
+    // Serialises completion and abort of the same session
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT s FROM UploadSession s WHERE s.id = :id")
+    Optional<UploadSession> findByIdForUpdate(@Param("id") String id);
+
+    @Modifying
+    @Query("UPDATE UploadSession s SET s.completingAt = NULL WHERE s.id = :id")
+    int releaseCompletion(@Param("id") String id);
+
+    List<UploadSession> findByExpiresAtBefore(LocalDateTime now, Pageable pageable);
+}
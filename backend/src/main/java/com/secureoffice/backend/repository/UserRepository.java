@@ -8,6 +8,7 @@ import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,12 +25,12 @@ public interface UserRepository extends JpaRepository<User, Long> {
     
     Boolean existsByEmail(String email);
     
-    Optional<User> findByPasswordResetToken(String token);
-    
     List<User> findByRole(User.Role role);
     
     List<User> findByIsActiveTrue();
     
+    List<User> findByUpdatedAtAfter(LocalDateTime since);
+    
     @Query("SELECT u FROM User u WHERE u.isActive = true AND " +
            "(LOWER(u.firstName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
            "LOWER(u.lastName) LIKE LOWER(CONCAT('%', :search, '%')) OR " +
@@ -0,0 +1,266 @@
+package com.secureoffice.backend.search;
+
+import com.secureoffice.backend.config.ContentIndexConfig;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * On-disk inverted index of document text. Terms are hashed into a fixed number of
+ * bucket files holding {@code term<TAB>fileId} lines, so a lookup reads one bucket per
+ * query term and indexing a document appends to the buckets of its terms. Deleted
+ * files are recorded in a tombstone file and filtered out of results until
+ * {@link #compact()} rewrites the buckets without them.
+ */
+@Component
+public class ContentIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentIndex.class);
+
+    private static final int BUCKETS = 256;
+    private static final int MIN_TERM_LENGTH = 2;
+    private static final int MAX_TERM_LENGTH = 64;
+
+    private final Path bucketDirectory;
+    private final Path tombstoneFile;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Set<Long> deleted = new HashSet<>();
+
+    public ContentIndex(ContentIndexConfig contentIndexConfig) {
+        Path root = Paths.get(contentIndexConfig.getDir()).toAbsolutePath().normalize();
+        this.bucketDirectory = root.resolve("buckets");
+        this.tombstoneFile = root.resolve("deleted.ids");
+
+        try {
+            Files.createDirectories(bucketDirectory);
+            if (Files.exists(tombstoneFile)) {
+                for (String line : Files.readAllLines(tombstoneFile, StandardCharsets.UTF_8)) {
+                    if (!line.isBlank()) {
+                        deleted.add(Long.parseLong(line.trim()));
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not open the content index directory.", ex);
+        }
+    }
+
+    /**
+     * Splits text into lower-case terms of letters and digits. Used for both documents
+     * and queries so they agree on what a term is.
+     */
+    public static Set<String> terms(String text) {
+        Set<String> terms = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (wordChar && start < 0) {
+                start = i;
+            } else if (!wordChar && start >= 0) {
+                int length = i - start;
+                if (length >= MIN_TERM_LENGTH && length <= MAX_TERM_LENGTH) {
+                    terms.add(text.substring(start, i).toLowerCase(Locale.ROOT));
+                }
+                start = -1;
+            }
+        }
+        return terms;
+    }
+
+    public void add(long fileId, Set<String> terms) {
+        Map<Integer, List<String>> byBucket = new HashMap<>();
+        for (String term : terms) {
+            byBucket.computeIfAbsent(bucket(term), b -> new ArrayList<>()).add(term);
+        }
+
+        lock.writeLock().lock();
+        try {
+            for (Map.Entry<Integer, List<String>> entry : byBucket.entrySet()) {
+                try (BufferedWriter writer = Files.newBufferedWriter(bucketFile(entry.getKey()), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    for (String term : entry.getValue()) {
+                        writer.write(term);
+                        writer.write('\t');
+                        writer.write(Long.toString(fileId));
+                        writer.newLine();
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void remove(long fileId) {
+        lock.writeLock().lock();
+        try {
+            if (deleted.add(fileId)) {
+                Files.writeString(tombstoneFile, fileId + System.lineSeparator(), StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Ids of files containing every term of the query. Query terms are looked up
+     * rarest bucket first, and the search stops as soon as the intersection is empty.
+     */
+    public Set<Long> search(String query) {
+        List<String> queryTerms = new ArrayList<>(terms(query));
+        if (queryTerms.isEmpty()) {
+            return Set.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            queryTerms.sort(Comparator.comparingLong(this::bucketSize));
+            Set<Long> result = null;
+            for (String term : queryTerms) {
+                Set<Long> fileIds = postings(term);
+                if (result == null) {
+                    result = fileIds;
+                } else {
+                    result.retainAll(fileIds);
+                }
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            result.removeAll(deleted);
+            return result;
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public boolean isEmpty() {
+        try (var files = Files.list(bucketDirectory)) {
+            return files.findAny().isEmpty();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Rewrites every bucket without the postings of deleted files, then clears the
+     * tombstones. Each bucket is replaced with an atomic rename.
+     */
+    public void compact() {
+        lock.writeLock().lock();
+        try {
+            if (deleted.isEmpty()) {
+                return;
+            }
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                Path file = bucketFile(bucket);
+                if (!Files.exists(file)) {
+                    continue;
+                }
+                Path compacted = file.resolveSibling(file.getFileName() + ".compact");
+                try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8);
+                     BufferedWriter writer = Files.newBufferedWriter(compacted, StandardCharsets.UTF_8)) {
+                    String line;
+                    while ((line = reader.readLine()) != null) {
+                        int tab = line.indexOf('\t');
+                        if (tab > 0 && !deleted.contains(Long.parseLong(line.substring(tab + 1)))) {
+                            writer.write(line);
+                            writer.newLine();
+                        }
+                    }
+                }
+                Files.move(compacted, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            }
+            logger.info("Compacted content index: dropped postings of {} deleted files", deleted.size());
+            deleted.clear();
+            Files.deleteIfExists(tombstoneFile);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            long bytes = 0;
+            for (int bucket = 0; bucket < BUCKETS; bucket++) {
+                bytes += bucketSize(bucket);
+            }
+            stats.put("sizeBytes", bytes);
+            stats.put("pendingDeletes", deleted.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        return stats;
+    }
+
+    private Set<Long> postings(String term) throws IOException {
+        Set<Long> fileIds = new HashSet<>();
+        Path file = bucketFile(bucket(term));
+        if (!Files.exists(file)) {
+            return fileIds;
+        }
+        String prefix = term + '\t';
+        try (BufferedReader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith(prefix)) {
+                    fileIds.add(Long.parseLong(line.substring(prefix.length())));
+                }
+            }
+        }
+        return fileIds;
+    }
+
+    private long bucketSize(String term) {
+        return bucketSize(bucket(term));
+    }
+
+    private long bucketSize(int bucket) {
+        try {
+            Path file = bucketFile(bucket);
+            return Files.exists(file) ? Files.size(file) : 0;
+        } catch (IOException ex) {
+            return 0;
+        }
+    }
+
+    private Path bucketFile(int bucket) {
+        return bucketDirectory.resolve(String.format("%02x.postings", bucket));
+    }
+
+    private static int bucket(String term) {
+        return Math.floorMod(term.hashCode(), BUCKETS);
+    }
+}
@@ -0,0 +1,328 @@
+package com.secureoffice.backend.search;
+
+import com.secureoffice.backend.config.FileSearchConfig;
+import com.secureoffice.backend.model.File;
+import com.secureoffice.backend.repository.FileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-process trigram index over file names and MIME types. A search intersects the
+ * posting lists of the term's trigrams, confirms each candidate with a substring
+ * check and ranks what is left; the caller then filters by access. Terms shorter
+ * than three characters have no trigrams and are matched by scanning the indexed
+ * names, which is still far cheaper than scanning the files table.
+ *
+ * The index is built from the database at startup and updated after each committed
+ * upload, delete and visibility change. Until the build finishes {@link #isReady()}
+ * is false and callers search the database instead.
+ */
+@Component
+public class FileSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileSearchIndex.class);
+
+    private static final int EXACT = 100;
+    private static final int PREFIX = 80;
+    private static final int WORD = 60;
+    private static final int NAME = 40;
+    private static final int MIME_TYPE = 10;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    private final FileSearchConfig fileSearchConfig;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<Long, Document> documents = new HashMap<>();
+    private final Map<Long, Set<Long>> postings = new HashMap<>();
+
+    // Deletes seen while the startup build is running must not be re-added by it
+    private final Set<Long> removedDuringBuild = new HashSet<>();
+    private volatile boolean ready;
+
+    public FileSearchIndex(FileSearchConfig fileSearchConfig) {
+        this.fileSearchConfig = fileSearchConfig;
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    // Index updates are applied once the change has committed, so a rollback never shows in results
+
+    public void add(File file) {
+        Document document = new Document(file.getId(), file.getOriginalFilename(), file.getMimeType(),
+                Boolean.TRUE.equals(file.getIsPublic()), file.getUploadedBy().getId(), epochMillis(file.getCreatedAt()));
+        afterCommit(() -> put(document));
+    }
+
+    public void remove(Long fileId) {
+        afterCommit(() -> delete(fileId));
+    }
+
+    public void updateVisibility(Long fileId, boolean isPublic) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                Document document = documents.get(fileId);
+                if (document != null) {
+                    documents.put(fileId, document.withPublic(isPublic));
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    /**
+     * Returns every file whose name or MIME type contains {@code term} (case-insensitive),
+     * best match first: exact name, name prefix, name word, anywhere in the name, then
+     * MIME type only. Ties go to the newest file.
+     */
+    public List<Match> search(String term) {
+        String needle = term.toLowerCase(Locale.ROOT);
+        List<Match> matches = new ArrayList<>();
+
+        lock.readLock().lock();
+        try {
+            Iterable<Long> candidates = needle.length() < 3 ? documents.keySet() : candidates(needle);
+            for (Long fileId : candidates) {
+                Document document = documents.get(fileId);
+                int score = document != null ? score(document, needle) : 0;
+                if (score > 0) {
+                    matches.add(new Match(document, score));
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        matches.sort(Comparator.comparingInt(Match::getScore).reversed()
+                .thenComparing(Comparator.comparingLong((Match m) -> m.getDocument().getCreatedAt()).reversed())
+                .thenComparing(Comparator.comparingLong((Match m) -> m.getDocument().getFileId()).reversed()));
+        return matches;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        lock.readLock().lock();
+        try {
+            stats.put("enabled", fileSearchConfig.isEnabled());
+            stats.put("ready", ready);
+            stats.put("documents", documents.size());
+            stats.put("trigrams", postings.size());
+        } finally {
+            lock.readLock().unlock();
+        }
+        return stats;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void build() {
+        if (!fileSearchConfig.isEnabled()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        long afterId = 0;
+        int count = 0;
+        List<Object[]> batch;
+        do {
+            batch = fileRepository.findSearchDocuments(afterId, PageRequest.of(0, fileSearchConfig.getRebuildBatchSize()));
+            lock.writeLock().lock();
+            try {
+                for (Object[] row : batch) {
+                    Document document = new Document((Long) row[0], (String) row[1], (String) row[2],
+                            Boolean.TRUE.equals(row[3]), (Long) row[4], epochMillis((LocalDateTime) row[5]));
+                    if (!removedDuringBuild.contains(document.getFileId()) && !documents.containsKey(document.getFileId())) {
+                        index(document);
+                        count++;
+                    }
+                    afterId = document.getFileId();
+                }
+            } finally {
+                lock.writeLock().unlock();
+            }
+        } while (batch.size() == fileSearchConfig.getRebuildBatchSize());
+
+        lock.writeLock().lock();
+        try {
+            removedDuringBuild.clear();
+            ready = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+        logger.info("Built file search index: {} files, {} trigrams in {} ms",
+                count, postings.size(), System.currentTimeMillis() - start);
+    }
+
+    private void put(Document document) {
+        lock.writeLock().lock();
+        try {
+            unindex(document.getFileId());
+            index(document);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void delete(Long fileId) {
+        lock.writeLock().lock();
+        try {
+            unindex(fileId);
+            if (!ready) {
+                removedDuringBuild.add(fileId);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void index(Document document) {
+        documents.put(document.getFileId(), document);
+        for (Long trigram : trigrams(document)) {
+            postings.computeIfAbsent(trigram, t -> new HashSet<>()).add(document.getFileId());
+        }
+    }
+
+    private void unindex(Long fileId) {
+        Document previous = documents.remove(fileId);
+        if (previous == null) {
+            return;
+        }
+        for (Long trigram : trigrams(previous)) {
+            Set<Long> fileIds = postings.get(trigram);
+            if (fileIds != null) {
+                fileIds.remove(fileId);
+                if (fileIds.isEmpty()) {
+                    postings.remove(trigram);
+                }
+            }
+        }
+    }
+
+    // Smallest posting list first; every later list only shrinks the candidate set
+    private Set<Long> candidates(String needle) {
+        List<Set<Long>> lists = new ArrayList<>();
+        for (Long trigram : trigrams(needle, new HashSet<>())) {
+            Set<Long> fileIds = postings.get(trigram);
+            if (fileIds == null) {
+                return Set.of();
+            }
+            lists.add(fileIds);
+        }
+        lists.sort(Comparator.comparingInt(Set::size));
+
+        Set<Long> result = new HashSet<>(lists.get(0));
+        for (int i = 1; i < lists.size() && !result.isEmpty(); i++) {
+            result.retainAll(lists.get(i));
+        }
+        return result;
+    }
+
+    private static int score(Document document, String needle) {
+        String name = document.getName();
+        int index = name.indexOf(needle);
+        if (index == 0) {
+            return name.length() == needle.length() ? EXACT : PREFIX;
+        }
+        if (index > 0) {
+            return Character.isLetterOrDigit(name.charAt(index - 1)) ? NAME : WORD;
+        }
+        return document.getMimeType().contains(needle) ? MIME_TYPE : 0;
+    }
+
+    private static Set<Long> trigrams(Document document) {
+        Set<Long> trigrams = new HashSet<>();
+        trigrams(document.getName(), trigrams);
+        trigrams(document.getMimeType(), trigrams);
+        return trigrams;
+    }
+
+    private static Set<Long> trigrams(String text, Set<Long> into) {
+        for (int i = 0; i + 3 <= text.length(); i++) {
+            into.add(((long) text.charAt(i) << 32) | ((long) text.charAt(i + 1) << 16) | text.charAt(i + 2));
+        }
+        return into;
+    }
+
+    private static void afterCommit(Runnable update) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    update.run();
+                }
+            });
+        } else {
+            update.run();
+        }
+    }
+
+    private static long epochMillis(LocalDateTime dateTime) {
+        return dateTime != null ? dateTime.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli() : 0L;
+    }
+
+    public static final class Document {
+        private final long fileId;
+        private final String name;
+        private final String mimeType;
+        private final boolean isPublic;
+        private final long ownerId;
+        private final long createdAt;
+
+        Document(long fileId, String originalFilename, String mimeType, boolean isPublic, long ownerId, long createdAt) {
+            this.fileId = fileId;
+            this.name = originalFilename != null ? originalFilename.toLowerCase(Locale.ROOT) : "";
+            this.mimeType = mimeType != null ? mimeType.toLowerCase(Locale.ROOT) : "";
+            this.isPublic = isPublic;
+            this.ownerId = ownerId;
+            this.createdAt = createdAt;
+        }
+
+        // Name and MIME type are already lower case, so converting them again changes nothing
+        private Document withPublic(boolean isPublic) {
+            return new Document(fileId, name, mimeType, isPublic, ownerId, createdAt);
+        }
+
+        public long getFileId() { return fileId; }
+        public String getName() { return name; }
+        public String getMimeType() { return mimeType; }
+        public boolean isPublic() { return isPublic; }
+        public long getOwnerId() { return ownerId; }
+        public long getCreatedAt() { return createdAt; }
+    }
+
+    public static final class Match {
+        private final Document document;
+        private final int score;
+
+        Match(Document document, int score) {
+            this.document = document;
+            this.score = score;
+        }
+
+        public Document getDocument() { return document; }
+        public int getScore() { return score; }
+    }
+}
@@ -0,0 +1,40 @@
+package com.secureoffice.backend.search;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+import org.springframework.web.util.HtmlUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// Markup, scripts and styles are dropped; entities are decoded
+@Component
+@Order(200)
+public class HtmlTextExtractor implements TextExtractor {
+
+    private static final Set<String> MIME_TYPES = Set.of("text/html", "application/xhtml+xml");
+
+    private static final Set<String> EXTENSIONS = Set.of(".html", ".htm", ".xhtml");
+
+    private static final Pattern SCRIPT_OR_STYLE =
+            Pattern.compile("(?is)<(script|style)\\b[^>]*>.*?</\\1\\s*>");
+    private static final Pattern COMMENT = Pattern.compile("(?s)<!--.*?-->");
+    private static final Pattern TAG = Pattern.compile("(?s)<[^>]*>");
+
+    @Override
+    public boolean supports(String mimeType, String filename) {
+        return (mimeType != null && MIME_TYPES.contains(PlainTextExtractor.baseType(mimeType)))
+                || PlainTextExtractor.hasExtension(filename, EXTENSIONS);
+    }
+
+    @Override
+    public String extract(InputStream in, int maxChars) throws IOException {
+        String html = PlainTextExtractor.read(in, maxChars);
+        String text = SCRIPT_OR_STYLE.matcher(html).replaceAll(" ");
+        text = COMMENT.matcher(text).replaceAll(" ");
+        text = TAG.matcher(text).replaceAll(" ");
+        return HtmlUtils.htmlUnescape(text);
+    }
+}
@@ -0,0 +1,61 @@
+package com.secureoffice.backend.search;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.Set;
+
+// Plain text, CSV and Markdown are indexed as they are
+@Component
+@Order(100)
+public class PlainTextExtractor implements TextExtractor {
+
+    private static final Set<String> MIME_TYPES = Set.of(
+            "text/plain", "text/csv", "application/csv", "text/markdown", "text/x-markdown");
+
+    private static final Set<String> EXTENSIONS = Set.of(".txt", ".csv", ".md", ".markdown", ".log");
+
+    @Override
+    public boolean supports(String mimeType, String filename) {
+        return (mimeType != null && MIME_TYPES.contains(baseType(mimeType))) || hasExtension(filename, EXTENSIONS);
+    }
+
+    @Override
+    public String extract(InputStream in, int maxChars) throws IOException {
+        return read(in, maxChars);
+    }
+
+    // Invalid UTF-8 is replaced instead of failing the whole document
+    static String read(InputStream in, int maxChars) throws IOException {
+        Reader reader = new InputStreamReader(in, StandardCharsets.UTF_8.newDecoder()
+                .onMalformedInput(CodingErrorAction.REPLACE)
+                .onUnmappableCharacter(CodingErrorAction.REPLACE));
+        StringBuilder text = new StringBuilder();
+        char[] buffer = new char[8192];
+        int read;
+        while (text.length() < maxChars && (read = reader.read(buffer, 0, Math.min(buffer.length, maxChars - text.length()))) != -1) {
+            text.append(buffer, 0, read);
+        }
+        return text.toString();
+    }
+
+    static String baseType(String mimeType) {
+        int semicolon = mimeType.indexOf(';');
+        return (semicolon >= 0 ? mimeType.substring(0, semicolon) : mimeType).trim().toLowerCase(Locale.ROOT);
+    }
+
+    static boolean hasExtension(String filename, Set<String> extensions) {
+        if (filename == null) {
+            return false;
+        }
+        int dot = filename.lastIndexOf('.');
+        return dot >= 0 && extensions.contains(filename.substring(dot).toLowerCase(Locale.ROOT));
+    }
+}
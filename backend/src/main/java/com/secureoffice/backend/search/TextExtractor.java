@@ -0,0 +1,19 @@
+package com.secureoffice.backend.search;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Turns a stored document into plain text for the content index. Every bean of this
+ * type is consulted in order; the first that supports a file extracts it. Support for
+ * further formats (office documents, PDF) is added by registering another bean.
+ */
+public interface TextExtractor {
+
+    boolean supports(String mimeType, String filename);
+
+    /**
+     * Reads at most {@code maxChars} characters of text from {@code in}.
+     */
+    String extract(InputStream in, int maxChars) throws IOException;
+}
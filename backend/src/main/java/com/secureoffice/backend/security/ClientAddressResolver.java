@@ -0,0 +1,27 @@
+package com.secureoffice.backend.security;
+
+import jakarta.servlet.http.HttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+/**
+ * Client address of a request. Forwarding headers are not read here: with
+ * {@code server.forward-headers-strategy: native} Tomcat applies {@code X-Forwarded-For}
+ * only when the connection comes from a trusted proxy
+ * ({@code server.tomcat.remoteip.internal-proxies}), so {@code getRemoteAddr()} cannot be
+ * spoofed by a client that talks to the application directly.
+ */
+public final class ClientAddressResolver {
+
+    private ClientAddressResolver() {}
+
+    public static String resolve(HttpServletRequest request) {
+        return request.getRemoteAddr();
+    }
+
+    // Address of the client of the current request, or null outside of a web request
+    public static String resolveCurrent() {
+        ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
+        return attributes != null ? resolve(attributes.getRequest()) : null;
+    }
+}
@@ -0,0 +1,17 @@
+package com.secureoffice.backend.security;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/**
+ * Marks a controller parameter of type {@link com.secureoffice.backend.model.User} or
+ * {@link UserPrincipal} to be filled with the authenticated user.
+ */
+@Target(ElementType.PARAMETER)
+@Retention(RetentionPolicy.RUNTIME)
+@Documented
+public @interface CurrentUser {
+}
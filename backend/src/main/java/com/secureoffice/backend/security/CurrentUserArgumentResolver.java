@@ -0,0 +1,33 @@
+package com.secureoffice.backend.security;
+
+import com.secureoffice.backend.model.User;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.MethodParameter;
+import org.springframework.stereotype.Component;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+@Component
+public class CurrentUserArgumentResolver implements HandlerMethodArgumentResolver {
+
+    @Autowired
+    private CurrentUserProvider currentUserProvider;
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return parameter.hasParameterAnnotation(CurrentUser.class) &&
+                (User.class.isAssignableFrom(parameter.getParameterType()) ||
+                        UserPrincipal.class.isAssignableFrom(parameter.getParameterType()));
+    }
+
+    @Override
+    public Object resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+            NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        if (UserPrincipal.class.isAssignableFrom(parameter.getParameterType())) {
+            return currentUserProvider.getPrincipal();
+        }
+        return currentUserProvider.getUser();
+    }
+}
@@ -0,0 +1,83 @@
+package com.secureoffice.backend.security;
+
+import com.secureoffice.backend.exception.ResourceNotFoundException;
+import com.secureoffice.backend.model.User;
+import com.secureoffice.backend.repository.UserRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.security.core.Authentication;
+import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Resolves the authenticated user at most once per request. The loaded entity (or a
+ * lazy reference when only the id is needed) is kept as a request attribute, so every
+ * service taking part in the same request shares it instead of issuing its own SELECT.
+ * Outside of a web request nothing is cached.
+ */
+@Component
+public class CurrentUserProvider {
+
+    private static final String USER_ATTRIBUTE = CurrentUserProvider.class.getName() + ".USER";
+    private static final String REFERENCE_ATTRIBUTE = CurrentUserProvider.class.getName() + ".REFERENCE";
+
+    @Autowired
+    private UserRepository userRepository;
+
+    public UserPrincipal getPrincipal() {
+        Authentication authentication = SecurityContextHolder.getContext().getAuthentication();
+        if (authentication == null || !(authentication.getPrincipal() instanceof UserPrincipal)) {
+            throw new ResourceNotFoundException("User not found");
+        }
+        return (UserPrincipal) authentication.getPrincipal();
+    }
+
+    public Long getId() {
+        return getPrincipal().getId();
+    }
+
+    /**
+     * Returns the fully loaded user entity, querying the database only the first time
+     * it is requested in the current request.
+     */
+    public User getUser() {
+        User user = (User) getAttribute(USER_ATTRIBUTE);
+        if (user == null) {
+            Long userId = getId();
+            user = userRepository.findById(userId)
+                    .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+            setAttribute(USER_ATTRIBUTE, user);
+        }
+        return user;
+    }
+
+    /**
+     * Returns a user usable as a query parameter or association target without loading
+     * the row. If the entity was already loaded in this request it is returned instead.
+     */
+    public User getReference() {
+        User user = (User) getAttribute(USER_ATTRIBUTE);
+        if (user != null) {
+            return user;
+        }
+        user = (User) getAttribute(REFERENCE_ATTRIBUTE);
+        if (user == null) {
+            user = userRepository.getReferenceById(getId());
+            setAttribute(REFERENCE_ATTRIBUTE, user);
+        }
+        return user;
+    }
+
+    private Object getAttribute(String name) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        return attributes != null ? attributes.getAttribute(name, RequestAttributes.SCOPE_REQUEST) : null;
+    }
+
+    private void setAttribute(String name, Object value) {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null) {
+            attributes.setAttribute(name, value, RequestAttributes.SCOPE_REQUEST);
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package com.secureoffice.backend.security;
 
+import com.secureoffice.backend.config.JwtConfig;
 import com.secureoffice.backend.service.CustomUserDetailsService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -25,6 +27,12 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService customUserDetailsService;
 
+    @Autowired
+    private SecurityVersionRegistry securityVersionRegistry;
+
+    @Autowired
+    private JwtConfig jwtConfig;
+
     @Override
     protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
             FilterChain filterChain) throws ServletException, IOException {
@@ -41,15 +49,18 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         try {
             String jwt = getJwtFromRequest(request);
 
-            if (StringUtils.hasText(jwt) && tokenProvider.validateToken(jwt)) {
-                Long userId = tokenProvider.getUserIdFromToken(jwt);
+            Claims claims = StringUtils.hasText(jwt) ? tokenProvider.parseClaims(jwt) : null;
 
-                UserDetails userDetails = customUserDetailsService.loadUserById(userId);
-                UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
-                        userDetails, null, userDetails.getAuthorities());
-                authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+            if (claims != null) {
+                UserDetails userDetails = loadUserDetails(claims);
 
-                SecurityContextHolder.getContext().setAuthentication(authentication);
+                if (userDetails != null) {
+                    UsernamePasswordAuthenticationToken authentication = new UsernamePasswordAuthenticationToken(
+                            userDetails, null, userDetails.getAuthorities());
+                    authentication.setDetails(new WebAuthenticationDetailsSource().buildDetails(request));
+
+                    SecurityContextHolder.getContext().setAuthentication(authentication);
+                }
             }
         } catch (Exception ex) {
             logger.error("Could not set user authentication in security context", ex);
@@ -58,6 +69,26 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         filterChain.doFilter(request, response);
     }
 
+    private UserDetails loadUserDetails(Claims claims) {
+        Long userId = Long.parseLong(claims.getSubject());
+
+        if (!jwtConfig.isStateless()) {
+            return customUserDetailsService.loadUserById(userId);
+        }
+
+        // Refresh tokens share the signing key but carry no authorities
+        if ("refresh".equals(claims.get("type", String.class))) {
+            return null;
+        }
+
+        if (!securityVersionRegistry.isCurrent(userId, claims.getIssuedAt())) {
+            logger.debug("Rejecting token issued before the latest security change for user " + userId);
+            return null;
+        }
+
+        return UserPrincipal.create(claims);
+    }
+
     private String getJwtFromRequest(HttpServletRequest request) {
         String bearerToken = request.getHeader("Authorization");
         if (StringUtils.hasText(bearerToken) && bearerToken.startsWith("Bearer ")) {
@@ -1,15 +1,20 @@
 package com.secureoffice.backend.security;
 
+import com.secureoffice.backend.cache.ExpiringLruCache;
 import com.secureoffice.backend.config.JwtConfig;
 import io.jsonwebtoken.*;
 import io.jsonwebtoken.security.Keys;
+import jakarta.annotation.PostConstruct;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.Authentication;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.stereotype.Component;
 
 import javax.crypto.SecretKey;
+import java.util.Base64;
 import java.util.Date;
+import java.util.Map;
+import java.util.UUID;
 import java.util.stream.Collectors;
 
 @Component
@@ -18,8 +23,26 @@ public class JwtTokenProvider {
     @Autowired
     private JwtConfig jwtConfig;
 
+    private SecretKey signingKey;
+
+    private JwtParser parser;
+
+    // SHA-256 digest of a verified token -> its claims, never kept past the token's exp
+    private ExpiringLruCache<String, Claims> verifiedTokens;
+
+    @PostConstruct
+    public void init() {
+        this.signingKey = Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes());
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signingKey)
+                .build();
+        this.verifiedTokens = jwtConfig.getVerifiedTokenCacheSize() > 0
+                ? new ExpiringLruCache<>(jwtConfig.getVerifiedTokenCacheSize(), 0)
+                : null;
+    }
+
     private SecretKey getSigningKey() {
-        return Keys.hmacShaKeyFor(jwtConfig.getSecret().getBytes());
+        return signingKey;
     }
 
     public String generateToken(Authentication authentication) {
@@ -46,6 +69,7 @@ public class JwtTokenProvider {
 
         return Jwts.builder()
                 .setSubject(Long.toString(userId))
+                .setId(UUID.randomUUID().toString())
                 .claim("type", "refresh")
                 .setIssuedAt(new Date())
                 .setExpiration(expiryDate)
@@ -54,29 +78,29 @@ public class JwtTokenProvider {
     }
 
     public Long getUserIdFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = verify(token);
 
         return Long.parseLong(claims.getSubject());
     }
 
     public String getUsernameFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = verify(token);
 
         return claims.get("username", String.class);
     }
 
     public boolean validateToken(String authToken) {
+        return parseClaims(authToken) != null;
+    }
+
+    /**
+     * Verifies the token and returns its claims, or {@code null} when the token is
+     * invalid. Callers that need both validation and claims should use this instead
+     * of {@link #validateToken} followed by another parse.
+     */
+    public Claims parseClaims(String authToken) {
         try {
-            Jwts.parser()
-                    .setSigningKey(getSigningKey())
-                    .parseClaimsJws(authToken);
-            return true;
+            return verify(authToken);
         } catch (SecurityException ex) {
             System.err.println("Invalid JWT signature");
         } catch (MalformedJwtException ex) {
@@ -88,14 +112,36 @@ public class JwtTokenProvider {
         } catch (IllegalArgumentException ex) {
             System.err.println("JWT claims string is empty");
         }
-        return false;
+        return null;
+    }
+
+    public Map<String, Object> getCacheStatistics() {
+        return verifiedTokens != null ? verifiedTokens.getStatistics() : Map.of("enabled", false);
+    }
+
+    // Verifies signature and expiry, reusing the result for repeated presentations of the same token
+    private Claims verify(String token) {
+        if (verifiedTokens == null || token == null || token.isEmpty()) {
+            return parser.parseClaimsJws(token).getBody();
+        }
+
+        String digest = digest(token);
+        Claims claims = verifiedTokens.get(digest);
+        if (claims == null) {
+            claims = parser.parseClaimsJws(token).getBody();
+            if (claims.getExpiration() != null) {
+                verifiedTokens.put(digest, claims, claims.getExpiration().getTime());
+            }
+        }
+        return claims;
+    }
+
+    private static String digest(String token) {
+        return Base64.getEncoder().encodeToString(TokenHasher.sha256(token));
     }
 
     public Date getExpirationDateFromToken(String token) {
-        Claims claims = Jwts.parser()
-                .setSigningKey(getSigningKey())
-                .parseClaimsJws(token)
-                .getBody();
+        Claims claims = verify(token);
 
         return claims.getExpiration();
     }
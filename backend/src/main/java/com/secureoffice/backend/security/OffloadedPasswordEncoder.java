@@ -0,0 +1,142 @@
+package com.secureoffice.backend.security;
+
+import com.secureoffice.backend.config.PasswordHashingConfig;
+import com.secureoffice.backend.exception.ServiceUnavailableException;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * BCrypt encoder that runs every hash and verification on a dedicated, bounded pool
+ * instead of the calling request thread. When the pool queue is full the call fails
+ * immediately with {@link ServiceUnavailableException} rather than parking yet another
+ * Tomcat worker. Stored hashes whose cost differs from the configured strength are
+ * reported by {@link #upgradeEncoding} so they are re-hashed on the next login.
+ */
+public class OffloadedPasswordEncoder implements PasswordEncoder {
+
+    private static final Pattern BCRYPT_COST = Pattern.compile("\\A\\$2[abxy]?\\$(\\d\\d)\\$");
+
+    private final BCryptPasswordEncoder delegate;
+    private final int strength;
+    private final long timeoutMillis;
+    private final ThreadPoolExecutor executor;
+
+    private final LongAdder hashCount = new LongAdder();
+    private final LongAdder hashNanos = new LongAdder();
+    private final AtomicLong maxHashNanos = new AtomicLong();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder timeouts = new LongAdder();
+
+    public OffloadedPasswordEncoder(PasswordHashingConfig config) {
+        this.strength = config.getBcryptStrength();
+        this.delegate = new BCryptPasswordEncoder(strength);
+        this.timeoutMillis = config.getTimeout();
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("password-hash-");
+        threadFactory.setDaemon(true);
+        this.executor = new ThreadPoolExecutor(
+                config.getThreads(), config.getThreads(),
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(config.getQueueCapacity()),
+                threadFactory,
+                new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        if (encodedPassword == null) {
+            return false;
+        }
+        Matcher matcher = BCRYPT_COST.matcher(encodedPassword);
+        return matcher.find() && Integer.parseInt(matcher.group(1)) != strength;
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        long count = hashCount.sum();
+        stats.put("bcryptStrength", strength);
+        stats.put("poolSize", executor.getPoolSize());
+        stats.put("activeThreads", executor.getActiveCount());
+        stats.put("queueDepth", executor.getQueue().size());
+        stats.put("queueRemainingCapacity", executor.getQueue().remainingCapacity());
+        stats.put("completedHashes", count);
+        stats.put("rejected", rejected.sum());
+        stats.put("timeouts", timeouts.sum());
+        stats.put("averageHashMillis", count == 0 ? 0.0 : hashNanos.sum() / (double) count / 1_000_000);
+        stats.put("maxHashMillis", maxHashNanos.get() / 1_000_000.0);
+        return stats;
+    }
+
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private <T> T execute(Callable<T> task) {
+        Future<T> future;
+        try {
+            future = executor.submit(() -> timed(task));
+        } catch (RejectedExecutionException ex) {
+            rejected.increment();
+            throw new ServiceUnavailableException("Authentication service is busy, please try again shortly");
+        }
+
+        try {
+            return future.get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            future.cancel(true);
+            timeouts.increment();
+            throw new ServiceUnavailableException("Authentication service is busy, please try again shortly");
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new ServiceUnavailableException("Password hashing was interrupted", ex);
+        } catch (ExecutionException ex) {
+            Throwable cause = ex.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IllegalStateException("Password hashing failed", cause);
+        }
+    }
+
+    private <T> T timed(Callable<T> task) throws Exception {
+        long start = System.nanoTime();
+        try {
+            return task.call();
+        } finally {
+            long elapsed = System.nanoTime() - start;
+            hashCount.increment();
+            hashNanos.add(elapsed);
+            maxHashNanos.accumulateAndGet(elapsed, Math::max);
+        }
+    }
+}
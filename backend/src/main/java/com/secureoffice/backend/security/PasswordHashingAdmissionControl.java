@@ -0,0 +1,99 @@
+package com.secureoffice.backend.security;
+
+import com.secureoffice.backend.config.PasswordHashingConfig;
+import com.secureoffice.backend.exception.TooManyRequestsException;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Caps how many password-hashing operations a single client address and a single
+ * account may have in flight, so one client cannot occupy the whole hashing pool.
+ */
+@Component
+public class PasswordHashingAdmissionControl {
+
+    @Autowired
+    private PasswordHashingConfig passwordHashingConfig;
+
+    private final Map<String, Integer> inFlightByIp = new ConcurrentHashMap<>();
+    private final Map<String, Integer> inFlightByAccount = new ConcurrentHashMap<>();
+    private final LongAdder rejected = new LongAdder();
+
+    /**
+     * Reserves a slot for the current client and the given account. The returned permit
+     * must be closed when the hashing work is done.
+     */
+    public Permit acquire(String account) {
+        String ip = ClientAddressResolver.resolveCurrent();
+        String accountKey = account != null ? account.trim().toLowerCase(Locale.ROOT) : null;
+
+        if (!tryIncrement(inFlightByIp, ip, passwordHashingConfig.getMaxInFlightPerIp())) {
+            rejected.increment();
+            throw new TooManyRequestsException("Too many concurrent authentication requests from this address");
+        }
+        if (!tryIncrement(inFlightByAccount, accountKey, passwordHashingConfig.getMaxInFlightPerAccount())) {
+            decrement(inFlightByIp, ip);
+            rejected.increment();
+            throw new TooManyRequestsException("Too many concurrent authentication requests for this account");
+        }
+        return new Permit(ip, accountKey);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("clientsInFlight", inFlightByIp.size());
+        stats.put("accountsInFlight", inFlightByAccount.size());
+        stats.put("rejected", rejected.sum());
+        return stats;
+    }
+
+    private boolean tryIncrement(Map<String, Integer> counters, String key, int limit) {
+        if (key == null || limit <= 0) {
+            return true;
+        }
+        boolean[] admitted = new boolean[1];
+        counters.compute(key, (k, count) -> {
+            int current = count != null ? count : 0;
+            if (current >= limit) {
+                return count;
+            }
+            admitted[0] = true;
+            return current + 1;
+        });
+        return admitted[0];
+    }
+
+    private void decrement(Map<String, Integer> counters, String key) {
+        if (key == null) {
+            return;
+        }
+        // Drop the entry when it reaches zero so the maps only hold active clients
+        counters.computeIfPresent(key, (k, count) -> count <= 1 ? null : count - 1);
+    }
+
+    public final class Permit implements AutoCloseable {
+        private final String ip;
+        private final String account;
+        private boolean released;
+
+        private Permit(String ip, String account) {
+            this.ip = ip;
+            this.account = account;
+        }
+
+        @Override
+        public void close() {
+            if (!released) {
+                released = true;
+                decrement(inFlightByIp, ip);
+                decrement(inFlightByAccount, account);
+            }
+        }
+    }
+}
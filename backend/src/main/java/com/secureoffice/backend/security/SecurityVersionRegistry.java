@@ -0,0 +1,72 @@
+package com.secureoffice.backend.security;
+
+import com.secureoffice.backend.config.JwtConfig;
+import com.secureoffice.backend.model.User;
+import com.secureoffice.backend.repository.UserRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.Date;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Per-user "tokens issued before this instant are stale" table used by the
+ * stateless authentication mode. Role changes, deactivation, deletion, password
+ * changes and changes to the identity carried in the claims (username, email) bump
+ * the user's entry so older access tokens are rejected without a database lookup.
+ */
+@Component
+public class SecurityVersionRegistry {
+
+    @Autowired
+    private JwtConfig jwtConfig;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    // userId -> epoch second up to which (inclusive) issued tokens are no longer accepted
+    private final Map<Long, Long> notBefore = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void seed() {
+        if (!jwtConfig.isStateless()) {
+            return;
+        }
+
+        // The table does not survive a restart, so treat any user modified within the
+        // access token lifetime as revoked at their last update.
+        LocalDateTime since = LocalDateTime.now().minusNanos(jwtConfig.getExpiration() * 1_000_000L);
+        for (User user : userRepository.findByUpdatedAtAfter(since)) {
+            long updatedAt = user.getUpdatedAt().atZone(ZoneId.systemDefault()).toEpochSecond();
+            notBefore.merge(user.getId(), updatedAt, Math::max);
+        }
+    }
+
+    public void bump(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        long now = System.currentTimeMillis() / 1000;
+        notBefore.merge(userId, now, Math::max);
+    }
+
+    public boolean isCurrent(Long userId, Date issuedAt) {
+        Long cutoff = notBefore.get(userId);
+        if (cutoff == null) {
+            return true;
+        }
+        if (issuedAt == null) {
+            return false;
+        }
+        // iat has whole-second precision: a token signed in the second of the bump may predate it
+        return issuedAt.getTime() / 1000 > cutoff;
+    }
+
+    public int size() {
+        return notBefore.size();
+    }
+}
@@ -1,12 +1,16 @@
 package com.secureoffice.backend.security;
 
 import com.secureoffice.backend.model.User;
+import io.jsonwebtoken.Claims;
 import org.springframework.security.core.GrantedAuthority;
 import org.springframework.security.core.authority.SimpleGrantedAuthority;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.util.StringUtils;
 
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.List;
 
 public class UserPrincipal implements UserDetails {
     private Long id;
@@ -41,6 +45,26 @@ public class UserPrincipal implements UserDetails {
         );
     }
 
+    // Builds a principal from the claims written by JwtTokenProvider.generateToken
+    public static UserPrincipal create(Claims claims) {
+        List<GrantedAuthority> authorities = new ArrayList<>();
+        String authorityClaim = claims.get("authorities", String.class);
+        if (StringUtils.hasText(authorityClaim)) {
+            for (String authority : authorityClaim.split(",")) {
+                authorities.add(new SimpleGrantedAuthority(authority.trim()));
+            }
+        }
+
+        return new UserPrincipal(
+            Long.parseLong(claims.getSubject()),
+            claims.get("username", String.class),
+            claims.get("email", String.class),
+            null,
+            authorities,
+            true
+        );
+    }
+
     public Long getId() {
         return id;
     }
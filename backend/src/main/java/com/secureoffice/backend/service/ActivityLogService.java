@@ -5,6 +5,7 @@ import com.fasterxml.jackson.databind.ObjectMapper;
 import com.secureoffice.backend.model.ActivityLog;
 import com.secureoffice.backend.model.User;
 import com.secureoffice.backend.repository.ActivityLogRepository;
+import com.secureoffice.backend.security.ClientAddressResolver;
 import jakarta.servlet.http.HttpServletRequest;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
@@ -38,7 +39,7 @@ public class ActivityLogService {
             ServletRequestAttributes attributes = (ServletRequestAttributes) RequestContextHolder.getRequestAttributes();
             if (attributes != null) {
                 HttpServletRequest request = attributes.getRequest();
-                activityLog.setIpAddress(getClientIpAddress(request));
+                activityLog.setIpAddress(ClientAddressResolver.resolve(request));
                 activityLog.setUserAgent(request.getHeader("User-Agent"));
             }
 
@@ -98,18 +99,4 @@ public class ActivityLogService {
     public void cleanupOldLogs(LocalDateTime cutoffDate) {
         activityLogRepository.deleteByCreatedAtBefore(cutoffDate);
     }
-
-    private String getClientIpAddress(HttpServletRequest request) {
-        String xForwardedFor = request.getHeader("X-Forwarded-For");
-        if (xForwardedFor != null && !xForwardedFor.isEmpty() && !"unknown".equalsIgnoreCase(xForwardedFor)) {
-            return xForwardedFor.split(",")[0].trim();
-        }
-
-        String xRealIp = request.getHeader("X-Real-IP");
-        if (xRealIp != null && !xRealIp.isEmpty() && !"unknown".equalsIgnoreCase(xRealIp)) {
-            return xRealIp;
-        }
-
-        return request.getRemoteAddr();
-    }
 }
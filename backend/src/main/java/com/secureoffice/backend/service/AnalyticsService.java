@@ -1,7 +1,12 @@
 package com.secureoffice.backend.service;
 
+import com.secureoffice.backend.model.StorageUsage;
 import com.secureoffice.backend.model.User;
 import com.secureoffice.backend.repository.*;
+import com.secureoffice.backend.search.FileSearchIndex;
+import com.secureoffice.backend.security.JwtTokenProvider;
+import com.secureoffice.backend.security.OffloadedPasswordEncoder;
+import com.secureoffice.backend.security.PasswordHashingAdmissionControl;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
 
@@ -32,6 +37,42 @@ public class AnalyticsService {
     @Autowired
     private DepartmentRepository departmentRepository;
 
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Autowired
+    private OffloadedPasswordEncoder passwordEncoder;
+
+    @Autowired
+    private JwtTokenProvider tokenProvider;
+
+    @Autowired
+    private PasswordHashingAdmissionControl passwordHashingAdmissionControl;
+
+    @Autowired
+    private TokenCleanupService tokenCleanupService;
+
+    @Autowired
+    private FilePurgeService filePurgeService;
+
+    @Autowired
+    private FilePermissionService filePermissionService;
+
+    @Autowired
+    private FileSearchIndex fileSearchIndex;
+
+    @Autowired
+    private ContentIndexService contentIndexService;
+
+    @Autowired
+    private StorageUsageService storageUsageService;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private ProcessingPipelineService processingPipelineService;
+
     public Map<String, Object> getDashboardStatistics() {
         Map<String, Object> stats = new HashMap<>();
 
@@ -43,10 +84,10 @@ public class AnalyticsService {
         stats.put("employeeCount", userRepository.countActiveUsersByRole(User.Role.EMPLOYEE));
 
         // File statistics
-        stats.put("totalFiles", fileRepository.count());
-        Long totalFileSize = fileRepository.getTotalFileSize();
-        stats.put("totalFileSize", totalFileSize != null ? totalFileSize : 0L);
-        stats.put("totalFileSizeFormatted", formatFileSize(totalFileSize != null ? totalFileSize : 0L));
+        StorageUsage storage = storageUsageService.getTotalUsage();
+        stats.put("totalFiles", storage.getFileCount());
+        stats.put("totalFileSize", storage.getByteCount());
+        stats.put("totalFileSizeFormatted", formatFileSize(storage.getByteCount()));
 
         // Message statistics
         stats.put("totalMessages", messageRepository.count());
@@ -105,13 +146,13 @@ public class AnalyticsService {
         Map<String, Object> stats = new HashMap<>();
 
         // File upload trends
+        StorageUsage storage = storageUsageService.getTotalUsage();
         stats.put("filesUploadedInPeriod", fileRepository.countFilesUploadedSince(startDate));
-        stats.put("totalFiles", fileRepository.count());
+        stats.put("totalFiles", storage.getFileCount());
 
         // Storage usage
-        Long totalSize = fileRepository.getTotalFileSize();
-        stats.put("totalStorageUsed", totalSize != null ? totalSize : 0L);
-        stats.put("totalStorageUsedFormatted", formatFileSize(totalSize != null ? totalSize : 0L));
+        stats.put("totalStorageUsed", storage.getByteCount());
+        stats.put("totalStorageUsedFormatted", formatFileSize(storage.getByteCount()));
 
         // File activity statistics
         stats.put("fileDownloads", activityLogRepository.countByActionAndCreatedAtAfter("FILE_DOWNLOAD", startDate));
@@ -119,13 +160,13 @@ public class AnalyticsService {
         stats.put("fileDeletes", activityLogRepository.countByActionAndCreatedAtAfter("FILE_DELETE", startDate));
 
         // Public vs Private files
-        stats.put("publicFiles", fileRepository.countByIsPublic(true));
-        stats.put("privateFiles", fileRepository.countByIsPublic(false));
+        stats.put("publicFiles", fileRepository.countByIsPublicAndDeletedAtIsNull(true));
+        stats.put("privateFiles", fileRepository.countByIsPublicAndDeletedAtIsNull(false));
 
         // Average file size
-        Long avgSize = fileRepository.getAverageFileSize();
-        stats.put("averageFileSize", avgSize != null ? avgSize : 0L);
-        stats.put("averageFileSizeFormatted", formatFileSize(avgSize != null ? avgSize : 0L));
+        long avgSize = storage.getFileCount() > 0 ? storage.getByteCount() / storage.getFileCount() : 0L;
+        stats.put("averageFileSize", avgSize);
+        stats.put("averageFileSizeFormatted", formatFileSize(avgSize));
 
         return stats;
     }
@@ -157,7 +198,7 @@ public class AnalyticsService {
 
         // Database health indicators
         stats.put("totalUsers", userRepository.count());
-        stats.put("totalFiles", fileRepository.count());
+        stats.put("totalFiles", fileRepository.countByDeletedAtIsNull());
         stats.put("totalMessages", messageRepository.count());
         stats.put("totalNotifications", notificationRepository.count());
         stats.put("totalActivityLogs", activityLogRepository.count());
@@ -167,8 +208,25 @@ public class AnalyticsService {
         stats.put("recentActivity", activityLogRepository.countByActionAndCreatedAtAfter("LOGIN", lastHour));
 
         // Storage health
-        Long totalFileSize = fileRepository.getTotalFileSize();
-        stats.put("storageUsed", totalFileSize != null ? totalFileSize : 0L);
+        stats.put("storageUsed", storageUsageService.getTotalUsage().getByteCount());
+
+        // In-process caches
+        stats.put("userDetailsCache", customUserDetailsService.getCacheStatistics());
+        stats.put("verifiedTokenCache", tokenProvider.getCacheStatistics());
+        stats.put("filePermissionCache", filePermissionService.getCacheStatistics());
+        stats.put("fileSearchIndex", fileSearchIndex.getStatistics());
+        stats.put("contentIndex", contentIndexService.getStatistics());
+        stats.put("thumbnails", thumbnailService.getStatistics());
+        stats.put("processing", processingPipelineService.getStatistics());
+
+        // Password hashing pool
+        Map<String, Object> passwordHashing = new HashMap<>(passwordEncoder.getStatistics());
+        passwordHashing.put("admission", passwordHashingAdmissionControl.getStatistics());
+        stats.put("passwordHashing", passwordHashing);
+
+        // Maintenance jobs
+        stats.put("tokenCleanup", tokenCleanupService.getLastRunStatistics());
+        stats.put("filePurge", filePurgeService.getStatistics());
 
         return stats;
     }
@@ -2,11 +2,18 @@ package com.secureoffice.backend.service;
 
 import com.secureoffice.backend.dto.auth.*;
 import com.secureoffice.backend.exception.ResourceNotFoundException;
-import com.secureoffice.backend.model.RefreshToken;
+import com.secureoffice.backend.config.JwtConfig;
+import com.secureoffice.backend.model.AuthToken;
 import com.secureoffice.backend.model.User;
-import com.secureoffice.backend.repository.RefreshTokenRepository;
+import com.secureoffice.backend.repository.AuthTokenRepository;
 import com.secureoffice.backend.repository.UserRepository;
 import com.secureoffice.backend.security.JwtTokenProvider;
+import com.secureoffice.backend.security.PasswordHashingAdmissionControl;
+import com.secureoffice.backend.security.SecurityVersionRegistry;
+import com.secureoffice.backend.security.TokenHasher;
+import com.secureoffice.backend.security.UserPrincipal;
+import io.jsonwebtoken.Claims;
+import org.hibernate.Hibernate;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.authentication.AuthenticationManager;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
@@ -14,7 +21,9 @@ import org.springframework.security.core.Authentication;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.time.LocalDateTime;
 import java.util.UUID;
@@ -30,7 +39,10 @@ public class AuthService {
     private UserRepository userRepository;
 
     @Autowired
-    private RefreshTokenRepository refreshTokenRepository;
+    private AuthTokenRepository authTokenRepository;
+
+    @Autowired
+    private JwtConfig jwtConfig;
 
     @Autowired
     private PasswordEncoder passwordEncoder;
@@ -44,52 +56,57 @@ public class AuthService {
     @Autowired
     private ActivityLogService activityLogService;
 
+    @Autowired
+    private SecurityVersionRegistry securityVersionRegistry;
+
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Autowired
+    private PasswordHashingAdmissionControl passwordHashingAdmissionControl;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Not transactional: the request waits on the hashing pool, and must not hold a connection meanwhile
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public JwtAuthenticationResponse login(LoginRequest loginRequest) {
-        Authentication authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(
-                loginRequest.getUsernameOrEmail(),
-                loginRequest.getPassword()
-            )
-        );
+        Authentication authentication;
+        try (PasswordHashingAdmissionControl.Permit permit =
+                 passwordHashingAdmissionControl.acquire(loginRequest.getUsernameOrEmail())) {
+            authentication = authenticationManager.authenticate(
+                new UsernamePasswordAuthenticationToken(
+                    loginRequest.getUsernameOrEmail(),
+                    loginRequest.getPassword()
+                )
+            );
+        }
 
         SecurityContextHolder.getContext().setAuthentication(authentication);
 
         String jwt = tokenProvider.generateToken(authentication);
-        
-        User user = userRepository.findByUsernameOrEmail(
-            loginRequest.getUsernameOrEmail(), 
-            loginRequest.getUsernameOrEmail()
-        ).orElseThrow(() -> new ResourceNotFoundException("User not found"));
-
-        // Generate refresh token
-        String refreshTokenValue = tokenProvider.generateRefreshToken(user.getId());
-        
-        // Save refresh token to database
-        RefreshToken refreshToken = new RefreshToken(
-            user, 
-            refreshTokenValue, 
-            LocalDateTime.now().plusDays(7)
-        );
-        
-        // Remove existing refresh tokens for this user
-        refreshTokenRepository.deleteByUser(user);
-        refreshTokenRepository.save(refreshToken);
 
-        // Log activity
-        activityLogService.logActivity(user, "LOGIN", null, null);
+        return transactionTemplate.execute(status -> {
+            User user = userRepository.findByUsernameOrEmail(
+                loginRequest.getUsernameOrEmail(),
+                loginRequest.getUsernameOrEmail()
+            ).orElseThrow(() -> new ResourceNotFoundException("User not found"));
 
-        JwtAuthenticationResponse.UserInfo userInfo = new JwtAuthenticationResponse.UserInfo(
-            user.getId(),
-            user.getUsername(),
-            user.getEmail(),
-            user.getFirstName(),
-            user.getLastName(),
-            user.getRole().name()
-        );
+            // Generate refresh token
+            String refreshTokenValue = tokenProvider.generateRefreshToken(user.getId());
+
+            // Remove existing refresh tokens for this user and save the new one
+            authTokenRepository.deleteByUserAndTokenType(user, AuthToken.TokenType.REFRESH);
+            saveRefreshToken(user, refreshTokenValue);
+
+            // Log activity
+            activityLogService.logActivity(user, "LOGIN", null, null);
 
-        return new JwtAuthenticationResponse(jwt, refreshTokenValue, userInfo);
+            return new JwtAuthenticationResponse(jwt, refreshTokenValue, toUserInfo(user));
+        });
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public JwtAuthenticationResponse register(RegisterRequest registerRequest) {
         // Check if username exists
         if (userRepository.existsByUsername(registerRequest.getUsername())) {
@@ -101,66 +118,70 @@ public class AuthService {
             throw new RuntimeException("Email is already in use!");
         }
 
-        // Create new user
-        User user = new User(
-            registerRequest.getUsername(),
-            registerRequest.getEmail(),
-            passwordEncoder.encode(registerRequest.getPassword()),
-            registerRequest.getFirstName(),
-            registerRequest.getLastName()
-        );
-
-        User savedUser = userRepository.save(user);
-
-        // Log activity
-        activityLogService.logActivity(savedUser, "REGISTER", null, null);
+        String passwordHash;
+        try (PasswordHashingAdmissionControl.Permit permit =
+                 passwordHashingAdmissionControl.acquire(registerRequest.getUsername())) {
+            passwordHash = passwordEncoder.encode(registerRequest.getPassword());
+        }
 
-        // Auto-login after registration
-        Authentication authentication = authenticationManager.authenticate(
-            new UsernamePasswordAuthenticationToken(
+        return transactionTemplate.execute(status -> {
+            // Create new user
+            User savedUser = userRepository.save(new User(
                 registerRequest.getUsername(),
-                registerRequest.getPassword()
-            )
-        );
-
-        String jwt = tokenProvider.generateToken(authentication);
-        String refreshTokenValue = tokenProvider.generateRefreshToken(savedUser.getId());
-        
-        RefreshToken refreshToken = new RefreshToken(
-            savedUser, 
-            refreshTokenValue, 
-            LocalDateTime.now().plusDays(7)
-        );
-        refreshTokenRepository.save(refreshToken);
-
-        JwtAuthenticationResponse.UserInfo userInfo = new JwtAuthenticationResponse.UserInfo(
-            savedUser.getId(),
-            savedUser.getUsername(),
-            savedUser.getEmail(),
-            savedUser.getFirstName(),
-            savedUser.getLastName(),
-            savedUser.getRole().name()
-        );
-
-        return new JwtAuthenticationResponse(jwt, refreshTokenValue, userInfo);
+                registerRequest.getEmail(),
+                passwordHash,
+                registerRequest.getFirstName(),
+                registerRequest.getLastName()
+            ));
+
+            // Log activity
+            activityLogService.logActivity(savedUser, "REGISTER", null, null);
+
+            // Auto-login after registration; the password was just hashed, so it is not verified again
+            UserPrincipal principal = UserPrincipal.create(savedUser);
+            String jwt = tokenProvider.generateToken(
+                new UsernamePasswordAuthenticationToken(principal, null, principal.getAuthorities()));
+            String refreshTokenValue = tokenProvider.generateRefreshToken(savedUser.getId());
+            saveRefreshToken(savedUser, refreshTokenValue);
+
+            return new JwtAuthenticationResponse(jwt, refreshTokenValue, toUserInfo(savedUser));
+        });
     }
 
     public JwtAuthenticationResponse refreshToken(RefreshTokenRequest request) {
         String requestRefreshToken = request.getRefreshToken();
 
-        RefreshToken refreshToken = refreshTokenRepository.findByToken(requestRefreshToken)
-            .orElseThrow(() -> new RuntimeException("Refresh token is not in database!"));
-
-        if (refreshToken.isExpired()) {
-            refreshTokenRepository.delete(refreshToken);
+        Claims claims = tokenProvider.parseClaims(requestRefreshToken);
+        if (claims == null || !"refresh".equals(claims.get("type", String.class))) {
             throw new RuntimeException("Refresh token was expired. Please make a new signin request");
         }
+        Long userId = Long.parseLong(claims.getSubject());
+
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
+        // Stateless access tokens are not checked against the database, so this is where a deactivated user stops
+        if (!Boolean.TRUE.equals(user.getIsActive())) {
+            throw new RuntimeException("User account is deactivated");
+        }
+
+        // Rotate: the presented token is replaced by a new one in a single conditional update
+        String newRefreshToken = tokenProvider.generateRefreshToken(userId);
+        int rotated = authTokenRepository.rotate(
+            TokenHasher.sha256(requestRefreshToken),
+            TokenHasher.sha256(newRefreshToken),
+            AuthToken.TokenType.REFRESH,
+            userId,
+            refreshTokenExpiry(),
+            LocalDateTime.now()
+        );
+        if (rotated == 0) {
+            throw new RuntimeException("Refresh token is not in database!");
+        }
 
-        User user = refreshToken.getUser();
-        
-        // Generate new access token
+        // Generate new access token carrying the same claims as a login token
+        UserPrincipal userPrincipal = UserPrincipal.create(user);
         Authentication authentication = new UsernamePasswordAuthenticationToken(
-            user.getUsername(), null, null
+            userPrincipal, null, userPrincipal.getAuthorities()
         );
         String newAccessToken = tokenProvider.generateToken(authentication);
 
@@ -173,14 +194,14 @@ public class AuthService {
             user.getRole().name()
         );
 
-        return new JwtAuthenticationResponse(newAccessToken, requestRefreshToken, userInfo);
+        return new JwtAuthenticationResponse(newAccessToken, newRefreshToken, userInfo);
     }
 
     public void logout(String refreshToken) {
-        refreshTokenRepository.findByToken(refreshToken)
+        authTokenRepository.findByTokenHashAndTokenType(TokenHasher.sha256(refreshToken), AuthToken.TokenType.REFRESH)
             .ifPresent(token -> {
                 activityLogService.logActivity(token.getUser(), "LOGOUT", null, null);
-                refreshTokenRepository.delete(token);
+                authTokenRepository.delete(token);
             });
     }
 
@@ -189,10 +210,15 @@ public class AuthService {
             .orElseThrow(() -> new ResourceNotFoundException("User not found with email: " + request.getEmail()));
 
         String resetToken = UUID.randomUUID().toString();
-        user.setPasswordResetToken(resetToken);
-        user.setPasswordResetExpires(LocalDateTime.now().plusHours(1)); // Token expires in 1 hour
 
-        userRepository.save(user);
+        // Only the digest is stored; a new request replaces any outstanding reset token
+        authTokenRepository.deleteByUserAndTokenType(user, AuthToken.TokenType.PASSWORD_RESET);
+        authTokenRepository.save(new AuthToken(
+            user,
+            TokenHasher.sha256(resetToken),
+            AuthToken.TokenType.PASSWORD_RESET,
+            LocalDateTime.now().plusHours(1) // Token expires in 1 hour
+        ));
 
         // Send password reset email
         emailService.sendPasswordResetEmail(user.getEmail(), resetToken);
@@ -201,24 +227,70 @@ public class AuthService {
         activityLogService.logActivity(user, "PASSWORD_RESET_REQUEST", null, null);
     }
 
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void confirmPasswordReset(PasswordResetConfirmRequest request) {
-        User user = userRepository.findByPasswordResetToken(request.getToken())
-            .orElseThrow(() -> new RuntimeException("Invalid password reset token"));
-
-        if (user.getPasswordResetExpires().isBefore(LocalDateTime.now())) {
-            throw new RuntimeException("Password reset token has expired");
+        User user = transactionTemplate.execute(status -> {
+            AuthToken resetToken = authTokenRepository.findByTokenHashAndTokenType(
+                    TokenHasher.sha256(request.getToken()), AuthToken.TokenType.PASSWORD_RESET)
+                .orElseThrow(() -> new RuntimeException("Invalid password reset token"));
+
+            if (resetToken.isExpired()) {
+                throw new RuntimeException("Password reset token has expired");
+            }
+
+            return Hibernate.unproxy(resetToken.getUser(), User.class);
+        });
+
+        String passwordHash;
+        try (PasswordHashingAdmissionControl.Permit permit =
+                 passwordHashingAdmissionControl.acquire(user.getUsername())) {
+            passwordHash = passwordEncoder.encode(request.getNewPassword());
         }
 
-        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
-        user.setPasswordResetToken(null);
-        user.setPasswordResetExpires(null);
+        transactionTemplate.executeWithoutResult(status -> {
+            // Consuming the reset token fails a concurrent confirmation that got here first
+            if (authTokenRepository.deleteByTokenHashAndTokenType(
+                    TokenHasher.sha256(request.getToken()), AuthToken.TokenType.PASSWORD_RESET) == 0) {
+                throw new RuntimeException("Invalid password reset token");
+            }
+
+            User current = userRepository.findById(user.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+            current.setPassword(passwordHash);
+            userRepository.save(current);
+            securityVersionRegistry.bump(user.getId());
+            customUserDetailsService.evictUser(user.getId());
+
+            // Invalidate the remaining reset tokens and all refresh tokens for this user
+            authTokenRepository.deleteByUserAndTokenType(current, AuthToken.TokenType.PASSWORD_RESET);
+            authTokenRepository.deleteByUserAndTokenType(current, AuthToken.TokenType.REFRESH);
+
+            // Log activity
+            activityLogService.logActivity(current, "PASSWORD_RESET_CONFIRM", null, null);
+        });
+    }
 
-        userRepository.save(user);
+    private JwtAuthenticationResponse.UserInfo toUserInfo(User user) {
+        return new JwtAuthenticationResponse.UserInfo(
+            user.getId(),
+            user.getUsername(),
+            user.getEmail(),
+            user.getFirstName(),
+            user.getLastName(),
+            user.getRole().name()
+        );
+    }
 
-        // Invalidate all refresh tokens for this user
-        refreshTokenRepository.deleteByUser(user);
+    private void saveRefreshToken(User user, String refreshTokenValue) {
+        authTokenRepository.save(new AuthToken(
+            user,
+            TokenHasher.sha256(refreshTokenValue),
+            AuthToken.TokenType.REFRESH,
+            refreshTokenExpiry()
+        ));
+    }
 
-        // Log activity
-        activityLogService.logActivity(user, "PASSWORD_RESET_CONFIRM", null, null);
+    private LocalDateTime refreshTokenExpiry() {
+        return LocalDateTime.now().plusNanos(jwtConfig.getRefreshExpiration() * 1_000_000L);
     }
 }
@@ -0,0 +1,181 @@
+package com.secureoffice.backend.service;
+
+import com.secureoffice.backend.config.ContentIndexConfig;
+import com.secureoffice.backend.model.File;
+import com.secureoffice.backend.model.FileBlob;
+import com.secureoffice.backend.repository.FileRepository;
+import com.secureoffice.backend.search.ContentIndex;
+import com.secureoffice.backend.search.TextExtractor;
+import com.secureoffice.backend.storage.BlobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Extracts text from uploaded documents and feeds it to the {@link ContentIndex}.
+ * New uploads are indexed by the post-upload processing pipeline
+ * ({@link com.secureoffice.backend.pipeline.ContentIndexStage}).
+ */
+@Service
+public class ContentIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ContentIndexService.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 500;
+
+    @Autowired
+    private ContentIndex contentIndex;
+
+    @Autowired
+    private List<TextExtractor> textExtractors;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private ContentIndexConfig contentIndexConfig;
+
+    private final LongAdder indexed = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public boolean supports(File file) {
+        return contentIndexConfig.isEnabled() && extractorFor(file.getMimeType(), file.getOriginalFilename()) != null;
+    }
+
+    // Failures are thrown so the pipeline can retry
+    public void index(File file) throws IOException {
+        index(new Document(file.getId(), file.getOriginalFilename(), file.getMimeType(),
+                blobStore.keyOf(file), blobStore.codecOf(file)));
+    }
+
+    public void fileDeleted(Long fileId) {
+        afterCommit(() -> contentIndex.remove(fileId));
+    }
+
+    public Set<Long> search(String query) {
+        return contentIndex.search(query);
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>(contentIndex.getStatistics());
+        stats.put("enabled", contentIndexConfig.isEnabled());
+        stats.put("indexed", indexed.sum());
+        stats.put("skipped", skipped.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    /**
+     * A new or wiped index directory is filled from the files already stored. Runs on
+     * its own thread and indexes inline, so it neither delays startup nor competes with
+     * the pipeline for its threads.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (!contentIndexConfig.isEnabled() || !contentIndex.isEmpty()) {
+            return;
+        }
+        Thread thread = new Thread(this::backfill, "content-index-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Scheduled(fixedDelayString = "${content-index.compaction-interval:86400000}",
+            initialDelayString = "${content-index.compaction-interval:86400000}")
+    public void compact() {
+        contentIndex.compact();
+    }
+
+    private void backfill() {
+        long afterId = 0;
+        List<Object[]> batch;
+        do {
+            batch = fileRepository.findContentDocuments(afterId, PageRequest.of(0, BACKFILL_BATCH_SIZE));
+            for (Object[] row : batch) {
+                FileBlob.Codec codec = row[5] != null ? (FileBlob.Codec) row[5] : FileBlob.Codec.NONE;
+                Document document = new Document((Long) row[0], (String) row[1], (String) row[2],
+                        blobStore.keyOf((String) row[3], (String) row[4]), codec);
+                try {
+                    index(document);
+                } catch (IOException | RuntimeException ex) {
+                    logger.warn("Could not extract text from file {}", document.fileId, ex);
+                }
+                afterId = document.fileId;
+            }
+        } while (batch.size() == BACKFILL_BATCH_SIZE);
+        logger.info("Content index backfill finished: {} documents indexed", indexed.sum());
+    }
+
+    private TextExtractor extractorFor(String mimeType, String filename) {
+        return textExtractors.stream()
+                .filter(candidate -> candidate.supports(mimeType, filename))
+                .findFirst()
+                .orElse(null);
+    }
+
+    private void index(Document document) throws IOException {
+        TextExtractor extractor = extractorFor(document.mimeType, document.filename);
+        if (extractor == null) {
+            skipped.increment();
+            return;
+        }
+
+        try (InputStream in = blobStore.open(document.storageKey, document.codec)) {
+            String text = extractor.extract(in, contentIndexConfig.getMaxChars());
+            contentIndex.add(document.fileId, ContentIndex.terms(text));
+            indexed.increment();
+        } catch (IOException | RuntimeException ex) {
+            failed.increment();
+            throw ex;
+        }
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // What extraction needs, so backfill rows need not be loaded as entities
+    private static final class Document {
+        private final long fileId;
+        private final String filename;
+        private final String mimeType;
+        private final String storageKey;
+        private final FileBlob.Codec codec;
+
+        private Document(long fileId, String filename, String mimeType, String storageKey, FileBlob.Codec codec) {
+            this.fileId = fileId;
+            this.filename = filename;
+            this.mimeType = mimeType;
+            this.storageKey = storageKey;
+            this.codec = codec;
+        }
+    }
+}
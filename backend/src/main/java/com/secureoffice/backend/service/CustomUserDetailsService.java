@@ -1,32 +1,126 @@
 package com.secureoffice.backend.service;
 
+import com.secureoffice.backend.cache.ExpiringLruCache;
+import com.secureoffice.backend.config.UserCacheConfig;
 import com.secureoffice.backend.model.User;
 import com.secureoffice.backend.repository.UserRepository;
 import com.secureoffice.backend.security.UserPrincipal;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UserDetailsPasswordService;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
 
 @Service
-public class CustomUserDetailsService implements UserDetailsService {
+public class CustomUserDetailsService implements UserDetailsService, UserDetailsPasswordService {
 
     @Autowired
     private UserRepository userRepository;
 
+    private final ExpiringLruCache<Long, UserPrincipal> principalsById;
+
+    private final ExpiringLruCache<String, UserPrincipal> principalsByLogin;
+
+    public CustomUserDetailsService(UserCacheConfig userCacheConfig) {
+        // Not created when disabled, so max-size 0 is a valid way to turn the cache off
+        boolean enabled = userCacheConfig.isEnabled() && userCacheConfig.getMaxSize() > 0;
+        this.principalsById = enabled
+                ? new ExpiringLruCache<>(userCacheConfig.getMaxSize(), userCacheConfig.getTtl())
+                : null;
+        this.principalsByLogin = enabled
+                ? new ExpiringLruCache<>(userCacheConfig.getMaxSize(), userCacheConfig.getTtl())
+                : null;
+    }
+
+    // Lookups are not wrapped in a transaction so cache hits never borrow a connection
     @Override
-    @Transactional
     public UserDetails loadUserByUsername(String usernameOrEmail) throws UsernameNotFoundException {
+        if (principalsByLogin == null) {
+            return findByLogin(usernameOrEmail);
+        }
+        return principalsByLogin.get(usernameOrEmail, this::findByLogin);
+    }
+
+    public UserDetails loadUserById(Long id) {
+        if (principalsById == null) {
+            return findById(id);
+        }
+        return principalsById.get(id, this::findById);
+    }
+
+    /**
+     * Called by the authentication provider after a successful login when the stored
+     * hash was produced with a different BCrypt cost than the configured one.
+     */
+    @Override
+    @Transactional
+    public UserDetails updatePassword(UserDetails user, String newPassword) {
+        UserPrincipal principal = (UserPrincipal) user;
+        userRepository.findById(principal.getId()).ifPresent(entity -> {
+            entity.setPassword(newPassword);
+            userRepository.save(entity);
+        });
+        evictUser(principal.getId());
+
+        return new UserPrincipal(principal.getId(), principal.getUsername(), principal.getEmail(),
+                newPassword, principal.getAuthorities(), principal.isEnabled());
+    }
+
+    /**
+     * Drops every cached principal for the user. Called by the services that change
+     * roles, status, credentials or profile data; the entries are dropped again after
+     * commit so a concurrent reload cannot cache the pre-commit row.
+     */
+    public void evictUser(Long userId) {
+        if (userId == null) {
+            return;
+        }
+        invalidate(userId);
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    invalidate(userId);
+                }
+            });
+        }
+    }
+
+    public Map<String, Object> getCacheStatistics() {
+        if (principalsById == null) {
+            return Map.of("enabled", false);
+        }
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", true);
+        stats.put("byId", principalsById.getStatistics());
+        stats.put("byLogin", principalsByLogin.getStatistics());
+        return stats;
+    }
+
+    private void invalidate(Long userId) {
+        if (principalsById == null) {
+            return;
+        }
+        principalsById.invalidate(userId);
+        principalsByLogin.invalidateIf((login, principal) -> userId.equals(principal.getId()));
+    }
+
+    private UserPrincipal findByLogin(String usernameOrEmail) {
         User user = userRepository.findByUsernameOrEmail(usernameOrEmail, usernameOrEmail)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with username or email: " + usernameOrEmail));
 
         return UserPrincipal.create(user);
     }
 
-    @Transactional
-    public UserDetails loadUserById(Long id) {
+    private UserPrincipal findById(Long id) {
         User user = userRepository.findById(id)
                 .orElseThrow(() -> new UsernameNotFoundException("User not found with id: " + id));
 
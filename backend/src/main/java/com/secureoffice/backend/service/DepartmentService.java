@@ -8,11 +8,10 @@ import com.secureoffice.backend.model.Department;
 import com.secureoffice.backend.model.User;
 import com.secureoffice.backend.repository.DepartmentRepository;
 import com.secureoffice.backend.repository.UserRepository;
-import com.secureoffice.backend.security.UserPrincipal;
+import com.secureoffice.backend.security.CurrentUserProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -35,6 +34,12 @@ public class DepartmentService {
     @Autowired
     private NotificationService notificationService;
 
+    @Autowired
+    private CurrentUserProvider currentUserProvider;
+
+    @Autowired
+    private StorageUsageService storageUsageService;
+
     public DepartmentResponse createDepartment(CreateDepartmentRequest request) {
         // Check if department name already exists
         if (departmentRepository.existsByName(request.getName())) {
@@ -53,11 +58,8 @@ public class DepartmentService {
         Department savedDepartment = departmentRepository.save(department);
 
         // Log activity
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User currentUser = userRepository.findById(userPrincipal.getId()).orElse(null);
-        if (currentUser != null) {
-            activityLogService.logActivity(currentUser, "DEPARTMENT_CREATE", "DEPARTMENT", savedDepartment.getId());
-        }
+        User currentUser = currentUserProvider.getReference();
+        activityLogService.logActivity(currentUser, "DEPARTMENT_CREATE", "DEPARTMENT", savedDepartment.getId());
 
         return new DepartmentResponse(savedDepartment);
     }
@@ -80,8 +82,7 @@ public class DepartmentService {
     }
 
     public List<DepartmentResponse> getUserDepartments() {
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        List<Department> departments = departmentRepository.findByUserId(userPrincipal.getId());
+        List<Department> departments = departmentRepository.findByUserId(currentUserProvider.getId());
         return departments.stream().map(DepartmentResponse::new).collect(Collectors.toList());
     }
 
@@ -109,11 +110,8 @@ public class DepartmentService {
         Department updatedDepartment = departmentRepository.save(department);
 
         // Log activity
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User currentUser = userRepository.findById(userPrincipal.getId()).orElse(null);
-        if (currentUser != null) {
-            activityLogService.logActivity(currentUser, "DEPARTMENT_UPDATE", "DEPARTMENT", id);
-        }
+        User currentUser = currentUserProvider.getReference();
+        activityLogService.logActivity(currentUser, "DEPARTMENT_UPDATE", "DEPARTMENT", id);
 
         return new DepartmentResponse(updatedDepartment);
     }
@@ -123,14 +121,12 @@ public class DepartmentService {
             .orElseThrow(() -> new ResourceNotFoundException("Department not found with id: " + id));
 
         // Log activity before deletion
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User currentUser = userRepository.findById(userPrincipal.getId()).orElse(null);
-        if (currentUser != null) {
-            activityLogService.logActivity(currentUser, "DEPARTMENT_DELETE", "DEPARTMENT", id, 
-                java.util.Map.of("departmentName", department.getName()));
-        }
+        User currentUser = currentUserProvider.getReference();
+        activityLogService.logActivity(currentUser, "DEPARTMENT_DELETE", "DEPARTMENT", id, 
+            java.util.Map.of("departmentName", department.getName()));
 
         departmentRepository.delete(department);
+        storageUsageService.departmentDeleted(id);
     }
 
     public DepartmentResponse addUserToDepartment(Long departmentId, Long userId) {
@@ -142,6 +138,7 @@ public class DepartmentService {
 
         department.addUser(user);
         Department updatedDepartment = departmentRepository.save(department);
+        storageUsageService.membershipChanged(departmentId);
 
         // Send notification to user
         notificationService.createNotification(
@@ -154,12 +151,9 @@ public class DepartmentService {
         );
 
         // Log activity
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User currentUser = userRepository.findById(userPrincipal.getId()).orElse(null);
-        if (currentUser != null) {
-            activityLogService.logActivity(currentUser, "DEPARTMENT_ADD_USER", "DEPARTMENT", departmentId, 
-                java.util.Map.of("addedUserId", userId, "addedUsername", user.getUsername()));
-        }
+        User currentUser = currentUserProvider.getReference();
+        activityLogService.logActivity(currentUser, "DEPARTMENT_ADD_USER", "DEPARTMENT", departmentId, 
+            java.util.Map.of("addedUserId", userId, "addedUsername", user.getUsername()));
 
         return new DepartmentResponse(updatedDepartment);
     }
@@ -173,6 +167,7 @@ public class DepartmentService {
 
         department.removeUser(user);
         Department updatedDepartment = departmentRepository.save(department);
+        storageUsageService.membershipChanged(departmentId);
 
         // Send notification to user
         notificationService.createNotification(
@@ -185,12 +180,9 @@ public class DepartmentService {
         );
 
         // Log activity
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User currentUser = userRepository.findById(userPrincipal.getId()).orElse(null);
-        if (currentUser != null) {
-            activityLogService.logActivity(currentUser, "DEPARTMENT_REMOVE_USER", "DEPARTMENT", departmentId, 
-                java.util.Map.of("removedUserId", userId, "removedUsername", user.getUsername()));
-        }
+        User currentUser = currentUserProvider.getReference();
+        activityLogService.logActivity(currentUser, "DEPARTMENT_REMOVE_USER", "DEPARTMENT", departmentId, 
+            java.util.Map.of("removedUserId", userId, "removedUsername", user.getUsername()));
 
         return new DepartmentResponse(updatedDepartment);
     }
@@ -0,0 +1,79 @@
+package com.secureoffice.backend.service;
+
+import com.secureoffice.backend.model.File;
+import com.secureoffice.backend.model.FileAccess;
+import com.secureoffice.backend.model.FileShare;
+import com.secureoffice.backend.repository.FileAccessRepository;
+import com.secureoffice.backend.repository.FileRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Keeps the {@code file_access} listing index in step with files and shares. Every
+ * method runs in the caller's transaction, so the index commits or rolls back with
+ * the change it mirrors.
+ */
+@Service
+@Transactional
+public class FileAccessIndexService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FileAccessIndexService.class);
+
+    @Autowired
+    private FileAccessRepository fileAccessRepository;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    public void fileCreated(File file) {
+        fileAccessRepository.grant(file.getId(), List.of(file.getUploadedBy().getId()),
+                FileAccess.Permission.OWNER.name());
+    }
+
+    public void fileShared(File file, Collection<Long> userIds, FileShare.PermissionType permissionType) {
+        if (!userIds.isEmpty()) {
+            fileAccessRepository.grant(file.getId(), userIds, permissionType.name());
+        }
+    }
+
+    public void visibilityChanged(File file) {
+        fileAccessRepository.updateVisibility(file.getId(), file.getIsPublic());
+    }
+
+    // Owner and share rows again, for a file restored from the trash
+    public void fileRestored(File file) {
+        fileCreated(file);
+        fileAccessRepository.restoreShares(file.getId());
+    }
+
+    public void fileMoved(File file) {
+        fileAccessRepository.updateFolderPath(file.getId(), file.getFolderPath());
+    }
+
+    public void fileDeleted(Long fileId) {
+        fileAccessRepository.deleteByFileId(fileId);
+    }
+
+    public void userDeleted(Long userId) {
+        fileAccessRepository.deleteByUserId(userId);
+    }
+
+    // Databases upgraded from a version without the index start with an empty table
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        if (fileAccessRepository.count() > 0 || fileRepository.count() == 0) {
+            return;
+        }
+        int owners = fileAccessRepository.backfillOwners();
+        int shares = fileAccessRepository.backfillShares();
+        logger.info("Built file access index: {} owner rows, {} share rows", owners, shares);
+    }
+}
@@ -0,0 +1,160 @@
+package com.secureoffice.backend.service;
+
+import com.secureoffice.backend.cache.ExpiringLruCache;
+import com.secureoffice.backend.config.FilePermissionCacheConfig;
+import com.secureoffice.backend.model.File;
+import com.secureoffice.backend.model.FileShare;
+import com.secureoffice.backend.model.User;
+import com.secureoffice.backend.repository.FileShareRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.BiPredicate;
+
+/**
+ * Answers "may this user view / download / edit this file" without a database round
+ * trip for repeat checks. The permissions granted to a user through file shares are
+ * folded into a bitmask once and cached per (file, user); ownership and public
+ * visibility are read from the file row the caller already has.
+ */
+@Service
+public class FilePermissionService {
+
+    static final int VIEW = 1;
+    static final int DOWNLOAD = 1 << 1;
+    static final int EDIT = 1 << 2;
+
+    @Autowired
+    private FileShareRepository fileShareRepository;
+
+    private final ExpiringLruCache<Key, Integer> sharePermissions;
+
+    public FilePermissionService(FilePermissionCacheConfig filePermissionCacheConfig) {
+        // Not created when disabled, so max-size 0 is a valid way to turn the cache off
+        this.sharePermissions = filePermissionCacheConfig.isEnabled() && filePermissionCacheConfig.getMaxSize() > 0
+                ? new ExpiringLruCache<>(filePermissionCacheConfig.getMaxSize(), filePermissionCacheConfig.getTtl())
+                : null;
+    }
+
+    public boolean hasFileAccess(File file, User user, FileShare.PermissionType requiredPermission) {
+        // File owner has full access
+        if (file.getUploadedBy().getId().equals(user.getId())) {
+            return true;
+        }
+
+        // Public files can be viewed and downloaded
+        if (file.getIsPublic() && (requiredPermission == FileShare.PermissionType.VIEW ||
+                requiredPermission == FileShare.PermissionType.DOWNLOAD)) {
+            return true;
+        }
+
+        return (sharePermissions(file, user) & bit(requiredPermission)) != 0;
+    }
+
+    /**
+     * Drops the cached permissions of one user on one file. Call after granting or
+     * revoking a share; the entry is dropped again after commit so a concurrent check
+     * cannot cache the pre-commit rows.
+     */
+    public void evict(Long fileId, Long userId) {
+        Key key = new Key(fileId, userId);
+        evictAfterCommit(() -> sharePermissions.invalidate(key));
+    }
+
+    // Every user's entry for the file, e.g. when the file or all of its shares are deleted
+    public void evictFile(Long fileId) {
+        evictAfterCommit(() -> sharePermissions.invalidateIf(matching(fileId, null)));
+    }
+
+    // Every file's entry for the user, e.g. when the user and their shares are deleted
+    public void evictUser(Long userId) {
+        evictAfterCommit(() -> sharePermissions.invalidateIf(matching(null, userId)));
+    }
+
+    public Map<String, Object> getCacheStatistics() {
+        if (sharePermissions == null) {
+            return Map.of("enabled", false);
+        }
+        Map<String, Object> stats = new HashMap<>(sharePermissions.getStatistics());
+        stats.put("enabled", true);
+        return stats;
+    }
+
+    private int sharePermissions(File file, User user) {
+        if (sharePermissions == null) {
+            return loadSharePermissions(file, user);
+        }
+        // Zero (no share) is cached too: denied checks are as frequent as granted ones
+        return sharePermissions.get(new Key(file.getId(), user.getId()), key -> loadSharePermissions(file, user));
+    }
+
+    // Any share grants VIEW; DOWNLOAD and EDIT are only granted by a share of that type
+    private int loadSharePermissions(File file, User user) {
+        int mask = 0;
+        for (FileShare share : fileShareRepository.findByFileAndUser(file, user)) {
+            mask |= VIEW | bit(share.getPermissionType());
+        }
+        return mask;
+    }
+
+    private static int bit(FileShare.PermissionType permissionType) {
+        return switch (permissionType) {
+            case VIEW -> VIEW;
+            case DOWNLOAD -> DOWNLOAD;
+            case EDIT -> EDIT;
+        };
+    }
+
+    private static BiPredicate<Key, Integer> matching(Long fileId, Long userId) {
+        return (key, mask) -> (fileId == null || fileId.equals(key.fileId))
+                && (userId == null || userId.equals(key.userId));
+    }
+
+    private void evictAfterCommit(Runnable eviction) {
+        if (sharePermissions == null) {
+            return;
+        }
+        eviction.run();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    eviction.run();
+                }
+            });
+        }
+    }
+
+    private static final class Key {
+        private final Long fileId;
+        private final Long userId;
+
+        private Key(Long fileId, Long userId) {
+            this.fileId = fileId;
+            this.userId = userId;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (!(o instanceof Key)) {
+                return false;
+            }
+            Key other = (Key) o;
+            return fileId.equals(other.fileId) && userId.equals(other.userId);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(fileId, userId);
+        }
+    }
+}
@@ -0,0 +1,154 @@
+package com.secureoffice.backend.service;
+
+import com.secureoffice.backend.config.FilePurgeConfig;
+import com.secureoffice.backend.storage.BlobStore;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Physically removes files that have been in the trash longer than
+ * {@code file-purge.retention}, and sweeps storage for bodies no blob row refers to.
+ * Deleting a file only marks it; the rows, shares and bodies go here, in small,
+ * separately committed batches with a pause in between, so neither the database nor
+ * the storage backend sees a burst of deletes. Each batch locks the rows it purges,
+ * which makes it safe for several instances to run the job concurrently.
+ */
+@Service
+public class FilePurgeService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FilePurgeService.class);
+
+    @Autowired
+    private FilePurgeConfig filePurgeConfig;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    private volatile Map<String, Object> lastPurge = Map.of();
+    private volatile Map<String, Object> lastOrphanScan = Map.of();
+
+    @Scheduled(fixedDelayString = "${file-purge.interval:3600000}",
+            initialDelayString = "${file-purge.initial-delay:120000}")
+    public void purgeDeletedFiles() {
+        if (!filePurgeConfig.isEnabled()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        LocalDateTime cutoff = LocalDateTime.now().minus(filePurgeConfig.getRetention(), ChronoUnit.MILLIS);
+        int batchSize = filePurgeConfig.getBatchSize();
+        long purged = 0;
+
+        for (int i = 0; i < filePurgeConfig.getMaxBatchesPerRun(); i++) {
+            int affected;
+            try {
+                affected = fileService.purgeDeleted(cutoff, batchSize);
+            } catch (Exception e) {
+                // Typically lock contention with another instance; the next run picks up the rest
+                logger.warn("Stopping file purge after batch failure: {}", e.getMessage());
+                break;
+            }
+
+            purged += affected;
+            if (affected < batchSize) {
+                break;
+            }
+
+            if (!pause()) {
+                break;
+            }
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("finishedAt", LocalDateTime.now());
+        result.put("durationMillis", System.currentTimeMillis() - start);
+        result.put("filesPurged", purged);
+        lastPurge = result;
+
+        if (purged > 0) {
+            logger.info("File purge removed {} deleted files in {} ms", purged, result.get("durationMillis"));
+        }
+    }
+
+    // Bodies left by a crash between storage and database, or by a release interrupted before its cleanup
+    @Scheduled(fixedDelayString = "${file-purge.orphan-scan-interval:86400000}",
+            initialDelayString = "${file-purge.orphan-scan-initial-delay:600000}")
+    public void deleteOrphanedBlobs() {
+        if (!filePurgeConfig.isEnabled()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        Instant cutoff = Instant.now().minusMillis(filePurgeConfig.getOrphanMinAge());
+        long scanned = 0;
+        long deleted = 0;
+
+        try (Stream<String> keys = blobStore.listBlobKeys()) {
+            Iterator<String> iterator = keys.iterator();
+            List<String> batch = new ArrayList<>(filePurgeConfig.getBatchSize());
+            while (iterator.hasNext()) {
+                batch.add(iterator.next());
+                if (batch.size() < filePurgeConfig.getBatchSize() && iterator.hasNext()) {
+                    continue;
+                }
+
+                scanned += batch.size();
+                deleted += blobStore.deleteOrphans(batch, cutoff);
+                batch.clear();
+
+                if (iterator.hasNext() && !pause()) {
+                    break;
+                }
+            }
+        } catch (IOException | RuntimeException e) {
+            logger.warn("Stopping orphaned blob scan after {} keys: {}", scanned, e.getMessage());
+        }
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("finishedAt", LocalDateTime.now());
+        result.put("durationMillis", System.currentTimeMillis() - start);
+        result.put("keysScanned", scanned);
+        result.put("orphansDeleted", deleted);
+        lastOrphanScan = result;
+
+        logger.info("Orphaned blob scan checked {} keys and deleted {} in {} ms",
+                scanned, deleted, result.get("durationMillis"));
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("lastPurge", lastPurge);
+        stats.put("lastOrphanScan", lastOrphanScan);
+        return stats;
+    }
+
+    private boolean pause() {
+        if (filePurgeConfig.getPause() <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(filePurgeConfig.getPause());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
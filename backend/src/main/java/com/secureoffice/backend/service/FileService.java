@@ -1,42 +1,73 @@
 package com.secureoffice.backend.service;
 
-import com.secureoffice.backend.config.FileUploadConfig;
+import com.secureoffice.backend.config.ArchiveConfig;
+import com.secureoffice.backend.dto.file.ArchiveRequest;
+import com.secureoffice.backend.dto.file.BulkShareResponse;
+import com.secureoffice.backend.dto.file.FileArchive;
+import com.secureoffice.backend.dto.file.FileDownload;
 import com.secureoffice.backend.dto.file.FileResponse;
 import com.secureoffice.backend.dto.file.FileShareRequest;
 import com.secureoffice.backend.dto.file.FileShareResponse;
+import com.secureoffice.backend.dto.file.FileThumbnail;
+import com.secureoffice.backend.dto.file.ProcessingStatusResponse;
+import com.secureoffice.backend.exception.BadRequestException;
 import com.secureoffice.backend.exception.ResourceNotFoundException;
 import com.secureoffice.backend.model.File;
+import com.secureoffice.backend.model.FileBlob;
 import com.secureoffice.backend.model.FileShare;
 import com.secureoffice.backend.model.User;
+import com.secureoffice.backend.repository.FileAccessRepository;
 import com.secureoffice.backend.repository.FileRepository;
 import com.secureoffice.backend.repository.FileShareRepository;
 import com.secureoffice.backend.repository.UserRepository;
-import com.secureoffice.backend.security.UserPrincipal;
+import com.secureoffice.backend.search.FileSearchIndex;
+import com.secureoffice.backend.security.CurrentUserProvider;
+import com.secureoffice.backend.storage.BlobStore;
+import com.secureoffice.backend.storage.CompressionPolicy;
+import com.secureoffice.backend.storage.StorageBackend;
+import com.secureoffice.backend.storage.StreamingUploadWriter;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.core.io.Resource;
-import org.springframework.core.io.UrlResource;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.context.SecurityContextHolder;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
-import java.net.MalformedURLException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
-import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
 @Transactional
 public class FileService {
 
+    private static final int ACCESS_CHECK_BATCH_SIZE = 1000;
+
     @Autowired
     private FileRepository fileRepository;
 
@@ -46,224 +77,649 @@ public class FileService {
     @Autowired
     private UserRepository userRepository;
 
-    @Autowired
-    private FileUploadConfig fileUploadConfig;
-
     @Autowired
     private ActivityLogService activityLogService;
 
     @Autowired
     private NotificationService notificationService;
 
-    private final Path fileStorageLocation;
+    @Autowired
+    private CurrentUserProvider currentUserProvider;
 
-    public FileService(FileUploadConfig fileUploadConfig) {
-        this.fileUploadConfig = fileUploadConfig;
-        this.fileStorageLocation = Paths.get(fileUploadConfig.getDir()).toAbsolutePath().normalize();
+    @Autowired
+    private StreamingUploadWriter streamingUploadWriter;
 
-        try {
-            Files.createDirectories(this.fileStorageLocation);
-        } catch (Exception ex) {
-            throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private StorageBackend storageBackend;
+
+    @Autowired
+    private CompressionPolicy compressionPolicy;
+
+    @Autowired
+    private ThumbnailService thumbnailService;
+
+    @Autowired
+    private FilePermissionService filePermissionService;
+
+    @Autowired
+    private FileAccessRepository fileAccessRepository;
+
+    @Autowired
+    private FileAccessIndexService fileAccessIndexService;
+
+    @Autowired
+    private FileSearchIndex fileSearchIndex;
+
+    @Autowired
+    private ContentIndexService contentIndexService;
+
+    @Autowired
+    private ProcessingPipelineService processingPipelineService;
+
+    @Autowired
+    private ArchiveConfig archiveConfig;
+
+    @Autowired
+    private FolderService folderService;
+
+    @Autowired
+    private StorageUsageService storageUsageService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    // Not transactional: see storeUpload
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public FileResponse uploadFile(MultipartFile file, String folderPath) {
+        try (InputStream in = file.getInputStream()) {
+            return storeUpload(in, file.getOriginalFilename(), file.getContentType(), file.getSize(), folderPath);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file " + file.getOriginalFilename() + ". Please try again!", ex);
         }
     }
 
-    public FileResponse uploadFile(MultipartFile file, String folderPath) {
-        String fileName = StringUtils.cleanPath(file.getOriginalFilename());
+    /**
+     * Stores a raw request body without multipart spooling: the bytes go straight from
+     * the socket to their final location.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public FileResponse uploadFileStream(InputStream body, String originalFilename, String contentType,
+                                         long contentLength, String folderPath) {
+        if (contentType != null && (contentType.startsWith("multipart/")
+                || contentType.startsWith("application/x-www-form-urlencoded"))) {
+            throw new RuntimeException("Streaming uploads must send the file as the raw request body");
+        }
 
         try {
-            if (fileName.contains("..")) {
-                throw new RuntimeException("Invalid file name: " + fileName);
-            }
+            return storeUpload(body, originalFilename, contentType, contentLength, folderPath);
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store file " + originalFilename + ". Please try again!", ex);
+        }
+    }
 
-            if (file.getSize() > fileUploadConfig.getMaxSize()) {
-                throw new RuntimeException("File size exceeds maximum allowed size");
-            }
+    private FileResponse storeUpload(InputStream in, String originalFilename, String contentType,
+                                     long declaredLength, String folderPath) throws IOException {
+        String fileName = cleanFileName(originalFilename);
+        String folder = normalizeFolderPath(folderPath);
 
-            // Generate unique filename
-            String fileExtension = "";
-            int dotIndex = fileName.lastIndexOf('.');
-            if (dotIndex > 0) {
-                fileExtension = fileName.substring(dotIndex);
-            }
-            String uniqueFileName = UUID.randomUUID().toString() + fileExtension;
+        storageUsageService.checkQuota(currentUserProvider.getReference(), declaredLength);
 
-            // Ensure folder path starts with /
-            if (folderPath == null || folderPath.trim().isEmpty()) {
-                folderPath = "/";
-            } else if (!folderPath.startsWith("/")) {
-                folderPath = "/" + folderPath;
-            }
+        // Single pass: size limit, byte count, digest and compression are handled while writing.
+        // No transaction is open here, so a slow client does not hold a database connection.
+        Path incoming = blobStore.newIncomingFile();
+        FileBlob.Codec codec = compressionPolicy.codecFor(contentType, declaredLength);
+        StreamingUploadWriter.StoredUpload stored = streamingUploadWriter.write(in, incoming, declaredLength, codec);
 
-            // Create folder structure
-            Path folderLocation = this.fileStorageLocation.resolve(folderPath.substring(1));
-            Files.createDirectories(folderLocation);
+        try {
+            return transactionTemplate.execute(status -> {
+                try {
+                    return createFile(currentUserProvider.getUser(), fileName, contentType, folder, incoming,
+                            stored.getSha256(), stored.getSize(), stored.getCodec());
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+            });
+        } catch (UncheckedIOException ex) {
+            throw ex.getCause();
+        }
+    }
 
-            // Copy file to the target location
-            Path targetLocation = folderLocation.resolve(uniqueFileName);
-            Files.copy(file.getInputStream(), targetLocation, StandardCopyOption.REPLACE_EXISTING);
+    /**
+     * Registers a fully written body as a new file owned by {@code user}. The body,
+     * encoded with {@code codec}, is moved into blob storage (or discarded if identical
+     * content is already stored).
+     */
+    FileResponse createFile(User user, String fileName, String contentType, String folderPath,
+                            Path body, String sha256, long size, FileBlob.Codec codec) throws IOException {
+        FileBlob blob;
+        try {
+            // Checked again with the written size: a streamed body may not declare its length
+            storageUsageService.checkQuota(user, size);
 
-            // Get current user
-            UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication()
-                    .getPrincipal();
-            User user = userRepository.findById(userPrincipal.getId())
-                    .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+            // Identical content already on disk is referenced instead of stored again
+            blob = blobStore.store(body, sha256, size, codec);
+        } finally {
+            Files.deleteIfExists(body);
+        }
 
-            // Save file metadata
-            File fileEntity = new File(
-                    uniqueFileName,
-                    fileName,
-                    targetLocation.toString(),
-                    file.getSize(),
-                    file.getContentType(),
-                    folderPath,
-                    user);
+        // Generate unique filename
+        String fileExtension = "";
+        int dotIndex = fileName.lastIndexOf('.');
+        if (dotIndex > 0) {
+            fileExtension = fileName.substring(dotIndex);
+        }
+        String uniqueFileName = UUID.randomUUID().toString() + fileExtension;
+
+        // Save file metadata
+        File fileEntity = new File(
+                uniqueFileName,
+                fileName,
+                blob.getStoragePath(),
+                size,
+                contentType,
+                folderPath,
+                user);
+        fileEntity.setContentHash(sha256);
+        fileEntity.setBlob(blob);
+
+        File savedFile = fileRepository.save(fileEntity);
+        fileAccessIndexService.fileCreated(savedFile);
+        fileSearchIndex.add(savedFile);
+        processingPipelineService.fileUploaded(savedFile);
+        folderService.fileAdded(user, folderPath, size);
+        storageUsageService.fileAdded(user, size);
 
-            File savedFile = fileRepository.save(fileEntity);
+        // Log activity
+        activityLogService.logFileActivity(user, "FILE_UPLOAD", savedFile.getId(), fileName);
 
-            // Log activity
-            activityLogService.logFileActivity(user, "FILE_UPLOAD", savedFile.getId(), fileName);
+        return new FileResponse(savedFile);
+    }
 
-            return new FileResponse(savedFile);
+    static String cleanFileName(String originalFilename) {
+        if (originalFilename == null || originalFilename.isBlank()) {
+            throw new RuntimeException("File name is required");
+        }
+        String fileName = StringUtils.cleanPath(originalFilename);
 
-        } catch (IOException ex) {
-            throw new RuntimeException("Could not store file " + fileName + ". Please try again!", ex);
+        if (fileName.contains("..")) {
+            throw new RuntimeException("Invalid file name: " + fileName);
         }
+        return fileName;
     }
 
-    public Resource downloadFile(Long fileId) {
-        File file = fileRepository.findById(fileId)
+    // Leading slash, no trailing slash, so every file of a folder has the same folder path
+    static String normalizeFolderPath(String folderPath) {
+        return FolderService.canonical(folderPath);
+    }
+
+    public FileDownload downloadFile(Long fileId) {
+        File file = fileRepository.findByIdAndDeletedAtIsNull(fileId)
                 .orElseThrow(() -> new ResourceNotFoundException("File not found with id: " + fileId));
 
         // Check if user has access to this file
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication()
-                .getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserProvider.getReference();
 
-        if (!hasFileAccess(file, user, FileShare.PermissionType.DOWNLOAD)) {
+        if (!filePermissionService.hasFileAccess(file, user, FileShare.PermissionType.DOWNLOAD)) {
             throw new RuntimeException("Access denied to download this file");
         }
 
+        String storageKey = blobStore.keyOf(file);
+        FileBlob.Codec codec = blobStore.codecOf(file);
         try {
-            Path filePath = Paths.get(file.getFilePath()).normalize();
-            Resource resource = new UrlResource(filePath.toUri());
+            long storedSize = storageBackend.size(storageKey);
+            return new FileDownload(
+                    file.getId(),
+                    storageKey,
+                    codec == FileBlob.Codec.NONE ? storedSize : file.getFileSize(),
+                    codec,
+                    storedSize,
+                    file.getOriginalFilename(),
+                    file.getMimeType(),
+                    file.getContentHash(),
+                    file.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli());
+        } catch (IOException ex) {
+            throw new ResourceNotFoundException("File not found: " + file.getOriginalFilename());
+        }
+    }
 
-            if (resource.exists()) {
-                // Log activity
-                activityLogService.logFileActivity(user, "FILE_DOWNLOAD", file.getId(), file.getOriginalFilename());
-                return resource;
-            } else {
-                throw new ResourceNotFoundException("File not found: " + file.getOriginalFilename());
+    @Transactional(readOnly = true)
+    public FileThumbnail getThumbnail(Long fileId, int size) {
+        File file = fileRepository.findByIdAndDeletedAtIsNull(fileId)
+                .orElseThrow(() -> new ResourceNotFoundException("File not found with id: " + fileId));
+
+        User user = currentUserProvider.getReference();
+
+        if (!filePermissionService.hasFileAccess(file, user, FileShare.PermissionType.VIEW)) {
+            throw new RuntimeException("Access denied to view this file");
+        }
+
+        return thumbnailService.getThumbnail(file, size);
+    }
+
+    @Transactional(readOnly = true)
+    public ProcessingStatusResponse getProcessingStatus(Long fileId) {
+        File file = fileRepository.findByIdAndDeletedAtIsNull(fileId)
+                .orElseThrow(() -> new ResourceNotFoundException("File not found with id: " + fileId));
+
+        User user = currentUserProvider.getReference();
+
+        if (!filePermissionService.hasFileAccess(file, user, FileShare.PermissionType.VIEW)) {
+            throw new RuntimeException("Access denied to view this file");
+        }
+
+        return processingPipelineService.getStatus(file);
+    }
+
+    /**
+     * Resolves a folder of the caller's (with its subfolders) or a selection of files into
+     * the entries of a ZIP download. A selection is checked with one query per batch of
+     * ids and is refused as a whole if any file may not be downloaded. The download is
+     * logged once, with the ids it contains.
+     */
+    public FileArchive prepareArchive(ArchiveRequest request) {
+        boolean byFolder = StringUtils.hasText(request.getFolderPath());
+        boolean bySelection = request.getFileIds() != null && !request.getFileIds().isEmpty();
+        if (byFolder == bySelection) {
+            throw new BadRequestException("Specify either a folder path or a list of file ids");
+        }
+
+        User user = currentUserProvider.getReference();
+        int maxFiles = archiveConfig.getMaxFiles();
+        List<File> files;
+        String folderPath = null;
+        if (byFolder) {
+            folderPath = normalizeFolderPath(request.getFolderPath());
+            String prefix = "/".equals(folderPath) ? "/" : folderPath + "/";
+            String pattern = prefix.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+            files = fileRepository.findInFolderTree(user, folderPath, pattern, PageRequest.of(0, maxFiles + 1));
+            if (files.isEmpty()) {
+                throw new ResourceNotFoundException("No files in folder: " + folderPath);
             }
-        } catch (MalformedURLException ex) {
-            throw new ResourceNotFoundException("File not found: " + file.getOriginalFilename());
+        } else {
+            List<Long> fileIds = request.getFileIds().stream().distinct().collect(Collectors.toList());
+            if (fileIds.size() > maxFiles) {
+                throw new BadRequestException("An archive can contain at most " + maxFiles + " files");
+            }
+            files = new ArrayList<>();
+            for (int from = 0; from < fileIds.size(); from += ACCESS_CHECK_BATCH_SIZE) {
+                List<Long> batch = fileIds.subList(from, Math.min(from + ACCESS_CHECK_BATCH_SIZE, fileIds.size()));
+                files.addAll(fileRepository.findDownloadable(user, batch, FileShare.PermissionType.DOWNLOAD));
+            }
+            if (files.size() != fileIds.size()) {
+                throw new RuntimeException("Access denied to download one or more files");
+            }
+            Map<Long, Integer> position = new HashMap<>();
+            fileIds.forEach(id -> position.put(id, position.size()));
+            files.sort(Comparator.comparing(file -> position.get(file.getId())));
+        }
+        if (files.size() > maxFiles) {
+            throw new BadRequestException("An archive can contain at most " + maxFiles + " files");
+        }
+
+        Set<String> usedNames = new HashSet<>();
+        List<FileArchive.Entry> entries = new ArrayList<>(files.size());
+        for (File file : files) {
+            String directory = folderPath != null ? relativeFolder(folderPath, file.getFolderPath()) : "";
+            String name = uniqueEntryName(directory + file.getOriginalFilename(), usedNames);
+            entries.add(new FileArchive.Entry(name, blobStore.keyOf(file), blobStore.codecOf(file), file.getMimeType(),
+                    file.getCreatedAt().atZone(ZoneId.systemDefault()).toInstant().toEpochMilli()));
+        }
+
+        Map<String, Object> details = new HashMap<>();
+        details.put("fileIds", files.stream().map(File::getId).collect(Collectors.toList()));
+        if (folderPath != null) {
+            details.put("folderPath", folderPath);
+        }
+        activityLogService.logActivity(user, "FILE_DOWNLOAD_ARCHIVE", "FILE", null, details);
+
+        String archiveName = folderPath != null && !"/".equals(folderPath)
+                ? folderPath.substring(folderPath.lastIndexOf('/') + 1) + ".zip"
+                : "files.zip";
+        return new FileArchive(archiveName, entries);
+    }
+
+    // Folder of a file relative to the archived folder, with a trailing slash unless empty
+    private static String relativeFolder(String archivedFolder, String fileFolder) {
+        String folder = normalizeFolderPath(fileFolder);
+        String relative = "/".equals(archivedFolder) ? folder : folder.substring(archivedFolder.length());
+        return relative.isEmpty() || "/".equals(relative) ? "" : relative.substring(1) + "/";
+    }
+
+    // No empty, "." or ".." segments, so an entry cannot extract outside its directory;
+    // a name already used gets a " (n)" suffix before its extension
+    private static String uniqueEntryName(String path, Set<String> usedNames) {
+        String name = Stream.of(path.replace('\\', '/').split("/"))
+                .filter(segment -> !segment.isEmpty() && !".".equals(segment) && !"..".equals(segment))
+                .collect(Collectors.joining("/"));
+        if (name.isEmpty()) {
+            name = "file";
+        }
+
+        String candidate = name;
+        int dot = name.lastIndexOf('.');
+        boolean hasExtension = dot > name.lastIndexOf('/') + 1;
+        String base = hasExtension ? name.substring(0, dot) : name;
+        String extension = hasExtension ? name.substring(dot) : "";
+        for (int n = 2; !usedNames.add(candidate.toLowerCase(Locale.ROOT)); n++) {
+            candidate = base + " (" + n + ")" + extension;
         }
+        return candidate;
+    }
+
+    // Called once per logical download, not for every range request or revalidation
+    public void logDownload(FileDownload download) {
+        User user = currentUserProvider.getReference();
+        activityLogService.logFileActivity(user, "FILE_DOWNLOAD", download.getFileId(), download.getOriginalFilename());
     }
 
     public Page<FileResponse> getAccessibleFiles(Pageable pageable) {
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication()
-                .getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserProvider.getReference();
 
-        Page<File> files = fileRepository.findAccessibleFiles(user, pageable);
-        return files.map(FileResponse::new);
+        if (!isCreatedAtOrder(pageable)) {
+            return fileRepository.findAccessibleFiles(user, pageable).map(FileResponse::new);
+        }
+        return mergeAccessible(pageable,
+                window -> fileAccessRepository.findPrivateFiles(user, window),
+                window -> fileRepository.findByIsPublicTrueAndDeletedAtIsNull(window));
     }
 
     public Page<FileResponse> searchFiles(String search, Pageable pageable) {
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication()
-                .getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserProvider.getReference();
 
-        Page<File> files = fileRepository.findAccessibleFilesBySearch(user, search, pageable);
-        return files.map(FileResponse::new);
+        if (fileSearchIndex.isReady()) {
+            return searchIndexed(user, search, pageable);
+        }
+        if (!isCreatedAtOrder(pageable)) {
+            return fileRepository.findAccessibleFilesBySearch(user, search, pageable).map(FileResponse::new);
+        }
+        return mergeAccessible(pageable,
+                window -> fileAccessRepository.findPrivateFilesBySearch(user, search, window),
+                window -> fileRepository.findPublicFilesBySearch(search, window));
     }
 
     public Page<FileResponse> getFilesByFolder(String folderPath, Pageable pageable) {
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication()
-                .getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserProvider.getReference();
 
-        if (folderPath == null || folderPath.trim().isEmpty()) {
-            folderPath = "/";
+        String folder = normalizeFolderPath(folderPath);
+
+        if (!isCreatedAtOrder(pageable)) {
+            return fileRepository.findAccessibleFilesByFolder(user, folder, pageable).map(FileResponse::new);
+        }
+        return mergeAccessible(pageable,
+                window -> fileAccessRepository.findPrivateFilesByFolder(user, folder, window),
+                window -> fileRepository.findByIsPublicTrueAndFolderPathAndDeletedAtIsNull(folder, window));
+    }
+
+    /**
+     * Search through the in-memory index. Results are ordered by match quality rather
+     * than the requested sort. Public and own files are visible without a lookup; the
+     * remaining candidates are checked against file_access in batches, in match order,
+     * only until the requested page and one more result are known. Short terms match
+     * most of the index, so the total is a lower bound whenever the walk stops early.
+     */
+    private Page<FileResponse> searchIndexed(User user, String search, Pageable pageable) {
+        List<FileSearchIndex.Match> matches = fileSearchIndex.search(search);
+        long userId = user.getId();
+        long needed = pageable.getOffset() + pageable.getPageSize();
+
+        List<Long> visible = new ArrayList<>();
+        for (int next = 0; next < matches.size() && visible.size() <= needed; next += ACCESS_CHECK_BATCH_SIZE) {
+            List<FileSearchIndex.Document> batch = matches
+                    .subList(next, Math.min(next + ACCESS_CHECK_BATCH_SIZE, matches.size())).stream()
+                    .map(FileSearchIndex.Match::getDocument)
+                    .collect(Collectors.toList());
+
+            List<Long> unresolved = batch.stream()
+                    .filter(document -> !document.isPublic() && document.getOwnerId() != userId)
+                    .map(FileSearchIndex.Document::getFileId)
+                    .collect(Collectors.toList());
+            Set<Long> granted = unresolved.isEmpty()
+                    ? Set.of()
+                    : new HashSet<>(fileAccessRepository.findFileIdsByUserAndFileIdIn(user, unresolved));
+
+            batch.stream()
+                    .filter(document -> document.isPublic() || document.getOwnerId() == userId
+                            || granted.contains(document.getFileId()))
+                    .map(FileSearchIndex.Document::getFileId)
+                    .forEach(visible::add);
         }
 
-        Page<File> files = fileRepository.findAccessibleFilesByFolder(user, folderPath, pageable);
-        return files.map(FileResponse::new);
+        int from = (int) Math.min(pageable.getOffset(), visible.size());
+        List<Long> pageIds = visible.subList(from, Math.min(from + pageable.getPageSize(), visible.size()));
+        Map<Long, File> files = fileRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(File::getId, Function.identity()));
+
+        // A file deleted on another instance may still be indexed here; it is skipped
+        List<FileResponse> content = pageIds.stream()
+                .map(files::get)
+                .filter(file -> file != null && file.getDeletedAt() == null)
+                .map(FileResponse::new)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, visible.size());
     }
 
-    public List<String> getUserFolders() {
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication()
-                .getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    /**
+     * Files whose extracted text contains every word of {@code query}, newest first.
+     * Public and own hits are resolved from their id, owner and visibility alone; the
+     * rest are checked against file_access in batches. Only the requested page is loaded.
+     */
+    @Transactional(readOnly = true)
+    public Page<FileResponse> searchContent(String query, Pageable pageable) {
+        User user = currentUserProvider.getReference();
+        Long userId = user.getId();
+
+        List<Long> candidates = new ArrayList<>(contentIndexService.search(query));
+        List<Object[]> visible = new ArrayList<>();
+        for (int from = 0; from < candidates.size(); from += ACCESS_CHECK_BATCH_SIZE) {
+            List<Long> batch = candidates.subList(from, Math.min(from + ACCESS_CHECK_BATCH_SIZE, candidates.size()));
+            // Trashed files keep their postings until they are purged
+            List<Object[]> rows = fileRepository.findVisibilityByIdIn(batch);
+
+            List<Long> unresolved = rows.stream()
+                    .filter(row -> !Boolean.TRUE.equals(row[1]) && !userId.equals(row[2]))
+                    .map(row -> (Long) row[0])
+                    .collect(Collectors.toList());
+            Set<Long> granted = unresolved.isEmpty()
+                    ? Set.of()
+                    : new HashSet<>(fileAccessRepository.findFileIdsByUserAndFileIdIn(user, unresolved));
+
+            rows.stream()
+                    .filter(row -> Boolean.TRUE.equals(row[1]) || userId.equals(row[2]) || granted.contains(row[0]))
+                    .forEach(visible::add);
+        }
+        visible.sort(Comparator.comparing((Object[] row) -> (LocalDateTime) row[3])
+                .thenComparing(row -> (Long) row[0])
+                .reversed());
+
+        List<Long> pageIds = visible.stream()
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(row -> (Long) row[0])
+                .collect(Collectors.toList());
+        Map<Long, File> files = fileRepository.findAllById(pageIds).stream()
+                .collect(Collectors.toMap(File::getId, Function.identity()));
+
+        List<FileResponse> content = pageIds.stream()
+                .map(files::get)
+                .filter(file -> file != null && file.getDeletedAt() == null)
+                .map(FileResponse::new)
+                .collect(Collectors.toList());
+        return new PageImpl<>(content, pageable, visible.size());
+    }
 
-        return fileRepository.findDistinctFolderPathsByUser(user);
+    // The file_access and public-file indexes are ordered by creation time only
+    private static boolean isCreatedAtOrder(Pageable pageable) {
+        List<Sort.Order> orders = pageable.getSort().toList();
+        return orders.size() == 1 && "createdAt".equals(orders.get(0).getProperty());
+    }
+
+    /**
+     * Builds one page of "files the user can see" from two disjoint sources: private
+     * files the user owns or was granted (file_access) and public files. Each source is
+     * read in page order up to the end of the requested page, so both are index range
+     * scans, and the page is cut from their merge.
+     */
+    private static Page<FileResponse> mergeAccessible(Pageable pageable,
+                                                      Function<Pageable, Page<File>> privateFiles,
+                                                      Function<Pageable, Page<File>> publicFiles) {
+        Sort.Direction direction = pageable.getSort().toList().get(0).getDirection();
+        int window = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+
+        Page<File> granted = privateFiles.apply(
+                PageRequest.of(0, window, Sort.by(direction, "createdAt").and(Sort.by(direction, "file.id"))));
+        Page<File> published = publicFiles.apply(
+                PageRequest.of(0, window, Sort.by(direction, "createdAt").and(Sort.by(direction, "id"))));
+
+        Comparator<File> order = Comparator.comparing(File::getCreatedAt).thenComparing(File::getId);
+        if (direction.isDescending()) {
+            order = order.reversed();
+        }
+
+        List<FileResponse> content = Stream.concat(granted.getContent().stream(), published.getContent().stream())
+                .sorted(order)
+                .skip(pageable.getOffset())
+                .limit(pageable.getPageSize())
+                .map(FileResponse::new)
+                .collect(Collectors.toList());
+
+        return new PageImpl<>(content, pageable, granted.getTotalElements() + published.getTotalElements());
+    }
+
+    // Folders (and their ancestors) that contain at least one of the user's files
+    public List<String> getUserFolders() {
+        return folderService.getNonEmptyFolderPaths();
     }
 
     public List<FileShareResponse> shareFile(FileShareRequest request) {
-        File file = fileRepository.findById(request.getFileId())
-                .orElseThrow(() -> new ResourceNotFoundException("File not found with id: " + request.getFileId()));
+        File file = findShareableFile(request.getFileId());
+        FileShare.PermissionType permissionType = parsePermissionType(request.getPermissionType());
+        Set<Long> userIds = new LinkedHashSet<>(request.getUserIds());
+
+        Map<Long, User> users = findUsers(userIds);
+        userIds.stream()
+                .filter(userId -> !users.containsKey(userId))
+                .findFirst()
+                .ifPresent(userId -> {
+                    throw new ResourceNotFoundException("User not found with id: " + userId);
+                });
+
+        applyShares(file, permissionType, users);
+
+        return fileShareRepository.findByFileAndUserIdIn(file, users.keySet()).stream()
+                .map(FileShareResponse::new)
+                .collect(Collectors.toList());
+    }
 
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication()
-                .getPrincipal();
-        User currentUser = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+    /**
+     * Shares a file with many users at once. Unknown users are reported instead of
+     * failing the request, and the statement count does not grow with the number of
+     * recipients: one user lookup, one share lookup, one delete, one insert and one
+     * notification batch.
+     */
+    public BulkShareResponse shareFileBulk(FileShareRequest request) {
+        File file = findShareableFile(request.getFileId());
+        FileShare.PermissionType permissionType = parsePermissionType(request.getPermissionType());
+        Set<Long> userIds = new LinkedHashSet<>(request.getUserIds());
+
+        Map<Long, User> users = findUsers(userIds);
+        Map<Long, String> outcomes = applyShares(file, permissionType, users);
+
+        List<BulkShareResponse.ShareResult> results = userIds.stream()
+                .map(userId -> new BulkShareResponse.ShareResult(userId,
+                        outcomes.getOrDefault(userId, BulkShareResponse.USER_NOT_FOUND)))
+                .collect(Collectors.toList());
+        return new BulkShareResponse(file.getId(), permissionType.name(), results);
+    }
+
+    private File findShareableFile(Long fileId) {
+        File file = fileRepository.findByIdAndDeletedAtIsNull(fileId)
+                .orElseThrow(() -> new ResourceNotFoundException("File not found with id: " + fileId));
+
+        User currentUser = currentUserProvider.getReference();
 
         // Check if current user owns the file or has edit permission
         if (!file.getUploadedBy().getId().equals(currentUser.getId()) &&
-                !hasFileAccess(file, currentUser, FileShare.PermissionType.EDIT)) {
+                !filePermissionService.hasFileAccess(file, currentUser, FileShare.PermissionType.EDIT)) {
             throw new RuntimeException("Access denied to share this file");
         }
+        return file;
+    }
 
+    private static FileShare.PermissionType parsePermissionType(String permissionType) {
         try {
-            FileShare.PermissionType permissionType = FileShare.PermissionType
-                    .valueOf(request.getPermissionType().toUpperCase());
-
-            List<FileShare> shares = request.getUserIds().stream().map(userId -> {
-                User user = userRepository.findById(userId)
-                        .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
-
-                // Remove existing share if any
-                fileShareRepository.deleteByFileAndUser(file, user);
-
-                // Create new share
-                FileShare share = new FileShare(file, user, permissionType, currentUser);
-                FileShare savedShare = fileShareRepository.save(share);
+            return FileShare.PermissionType.valueOf(permissionType.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new RuntimeException("Invalid permission type: " + permissionType);
+        }
+    }
 
-                // Send notification
-                notificationService.createNotification(
-                        user,
-                        "File Shared",
-                        currentUser.getFullName() + " shared a file '" + file.getOriginalFilename() + "' with you",
-                        com.secureoffice.backend.model.Notification.NotificationType.INFO,
-                        "FILE",
-                        file.getId());
+    private Map<Long, User> findUsers(Collection<Long> userIds) {
+        return userRepository.findAllById(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+    }
 
-                return savedShare;
-            }).collect(Collectors.toList());
+    /**
+     * Writes the shares for all recipients with set-based statements and returns the
+     * outcome per user id. Users who already hold exactly this permission are left
+     * alone and not notified again.
+     */
+    private Map<Long, String> applyShares(File file, FileShare.PermissionType permissionType, Map<Long, User> users) {
+        User currentUser = currentUserProvider.getUser();
+
+        Map<Long, Set<FileShare.PermissionType>> existing = new HashMap<>();
+        if (!users.isEmpty()) {
+            for (FileShare share : fileShareRepository.findByFileAndUserIdIn(file, users.keySet())) {
+                existing.computeIfAbsent(share.getUser().getId(), id -> EnumSet.noneOf(FileShare.PermissionType.class))
+                        .add(share.getPermissionType());
+            }
+        }
 
-            // Log activity
-            activityLogService.logFileActivity(currentUser, "FILE_SHARE", file.getId(), file.getOriginalFilename());
+        Map<Long, String> outcomes = new HashMap<>();
+        List<User> recipients = new ArrayList<>();
+        users.forEach((userId, user) -> {
+            Set<FileShare.PermissionType> current = existing.get(userId);
+            if (current == null) {
+                outcomes.put(userId, BulkShareResponse.SHARED);
+                recipients.add(user);
+            } else if (current.size() == 1 && current.contains(permissionType)) {
+                outcomes.put(userId, BulkShareResponse.UNCHANGED);
+            } else {
+                outcomes.put(userId, BulkShareResponse.UPDATED);
+                recipients.add(user);
+            }
+        });
+
+        if (!recipients.isEmpty()) {
+            List<Long> recipientIds = recipients.stream().map(User::getId).collect(Collectors.toList());
+            fileShareRepository.deleteOtherPermissions(file, recipientIds, permissionType);
+            fileShareRepository.insertShares(file.getId(), recipientIds, permissionType.name(), currentUser.getId());
+            fileAccessIndexService.fileShared(file, recipientIds, permissionType);
+            recipientIds.forEach(userId -> filePermissionService.evict(file.getId(), userId));
+
+            // Send notifications
+            notificationService.createNotifications(
+                    recipients,
+                    "File Shared",
+                    currentUser.getFullName() + " shared a file '" + file.getOriginalFilename() + "' with you",
+                    com.secureoffice.backend.model.Notification.NotificationType.INFO,
+                    "FILE",
+                    file.getId());
+        }
 
-            return shares.stream().map(FileShareResponse::new).collect(Collectors.toList());
+        // Log activity
+        activityLogService.logFileActivity(currentUser, "FILE_SHARE", file.getId(), file.getOriginalFilename());
 
-        } catch (IllegalArgumentException e) {
-            throw new RuntimeException("Invalid permission type: " + request.getPermissionType());
-        }
+        return outcomes;
     }
 
     public List<FileShareResponse> getFileShares(Long fileId) {
-        File file = fileRepository.findById(fileId)
+        File file = fileRepository.findByIdAndDeletedAtIsNull(fileId)
                 .orElseThrow(() -> new ResourceNotFoundException("File not found with id: " + fileId));
 
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication()
-                .getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserProvider.getReference();
 
         // Check if user owns the file
         if (!file.getUploadedBy().getId().equals(user.getId())) {
@@ -274,55 +730,140 @@ public class FileService {
         return shares.stream().map(FileShareResponse::new).collect(Collectors.toList());
     }
 
+    /**
+     * Moves the file to the trash. The row is only flagged and removed from the listing
+     * indexes, so it disappears from every listing at once; shares, the row and the body
+     * are purged in the background once the retention window has passed.
+     */
     public void deleteFile(Long fileId) {
-        File file = fileRepository.findById(fileId)
+        File file = fileRepository.findByIdAndDeletedAtIsNull(fileId)
                 .orElseThrow(() -> new ResourceNotFoundException("File not found with id: " + fileId));
 
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication()
-                .getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserProvider.getReference();
 
         // Check if user owns the file
         if (!file.getUploadedBy().getId().equals(user.getId())) {
             throw new RuntimeException("Access denied to delete this file");
         }
 
-        try {
-            // Delete physical file
-            Path filePath = Paths.get(file.getFilePath());
-            Files.deleteIfExists(filePath);
+        file.setDeletedAt(LocalDateTime.now());
+        fileRepository.save(file);
+        filePermissionService.evictFile(fileId);
+        fileAccessIndexService.fileDeleted(fileId);
+        fileSearchIndex.remove(fileId);
+        folderService.fileRemoved(file.getUploadedBy(), file.getFolderPath(), file.getFileSize());
+
+        // Log activity
+        activityLogService.logFileActivity(user, "FILE_DELETE", fileId, file.getOriginalFilename());
+    }
+
+    // Brings a file back from the trash into its folder, with its shares
+    public FileResponse restoreFile(Long fileId) {
+        File file = fileRepository.findById(fileId)
+                .filter(candidate -> candidate.getDeletedAt() != null)
+                .orElseThrow(() -> new ResourceNotFoundException("Deleted file not found with id: " + fileId));
+
+        User user = currentUserProvider.getReference();
+
+        // Check if user owns the file
+        if (!file.getUploadedBy().getId().equals(user.getId())) {
+            throw new RuntimeException("Access denied to restore this file");
+        }
+
+        file.setDeletedAt(null);
+        File restoredFile = fileRepository.save(file);
+        fileAccessIndexService.fileRestored(restoredFile);
+        fileSearchIndex.add(restoredFile);
+        folderService.fileAdded(restoredFile.getUploadedBy(), restoredFile.getFolderPath(), restoredFile.getFileSize());
+
+        // Log activity
+        activityLogService.logFileActivity(user, "FILE_RESTORE", fileId, file.getOriginalFilename());
+
+        return new FileResponse(restoredFile);
+    }
+
+    @Transactional(readOnly = true)
+    public Page<FileResponse> getDeletedFiles(Pageable pageable) {
+        User user = currentUserProvider.getReference();
+        return fileRepository.findByUploadedByAndDeletedAtIsNotNull(user, pageable).map(FileResponse::new);
+    }
+
+    /**
+     * Physically removes up to {@code limit} files that were trashed before {@code cutoff}:
+     * their shares, processing jobs, index entries and rows, and their references to
+     * stored bodies. A body whose last reference goes is removed after commit.
+     *
+     * @return the number of files purged
+     */
+    public int purgeDeleted(LocalDateTime cutoff, int limit) {
+        List<File> files = fileRepository.findDeletedBefore(cutoff, PageRequest.of(0, limit));
+        if (files.isEmpty()) {
+            return 0;
+        }
+        List<Long> fileIds = files.stream().map(File::getId).collect(Collectors.toList());
+
+        fileShareRepository.deleteByFileIdIn(fileIds);
+        processingPipelineService.filesPurged(fileIds);
+        for (File file : files) {
+            filePermissionService.evictFile(file.getId());
+            contentIndexService.fileDeleted(file.getId());
+            storageUsageService.fileRemoved(file.getUploadedBy(), file.getFileSize());
+        }
 
-            // Delete file shares
-            fileShareRepository.deleteByFile(file);
+        // Delete file records before releasing the blobs they reference
+        fileRepository.deleteAllByIdInBatch(fileIds);
+        fileRepository.flush();
 
-            // Delete file record
-            fileRepository.delete(file);
+        // A body is shared with other files of the same content; it goes with the last reference
+        files.forEach(blobStore::release);
+        return files.size();
+    }
 
-            // Log activity
-            activityLogService.logFileActivity(user, "FILE_DELETE", fileId, file.getOriginalFilename());
+    public FileResponse moveFile(Long fileId, String folderPath) {
+        File file = fileRepository.findByIdAndDeletedAtIsNull(fileId)
+                .orElseThrow(() -> new ResourceNotFoundException("File not found with id: " + fileId));
+
+        User user = currentUserProvider.getReference();
+
+        // Check if user owns the file
+        if (!file.getUploadedBy().getId().equals(user.getId())) {
+            throw new RuntimeException("Access denied to move this file");
+        }
 
-        } catch (IOException e) {
-            throw new RuntimeException("Failed to delete file: " + e.getMessage());
+        String targetPath = normalizeFolderPath(folderPath);
+        String sourcePath = file.getFolderPath();
+        if (targetPath.equals(sourcePath)) {
+            return new FileResponse(file);
         }
+
+        file.setFolderPath(targetPath);
+        File movedFile = fileRepository.save(file);
+        fileAccessIndexService.fileMoved(movedFile);
+        folderService.fileRemoved(file.getUploadedBy(), sourcePath, file.getFileSize());
+        folderService.fileAdded(file.getUploadedBy(), targetPath, file.getFileSize());
+
+        // Log activity
+        activityLogService.logFileActivity(user, "FILE_MOVE", file.getId(), file.getOriginalFilename());
+
+        return new FileResponse(movedFile);
     }
 
     public FileResponse toggleFileVisibility(Long fileId) {
-        File file = fileRepository.findById(fileId)
+        File file = fileRepository.findByIdAndDeletedAtIsNull(fileId)
                 .orElseThrow(() -> new ResourceNotFoundException("File not found with id: " + fileId));
 
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication()
-                .getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-                .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserProvider.getReference();
 
         // Check if user owns the file
         if (!file.getUploadedBy().getId().equals(user.getId())) {
             throw new RuntimeException("Access denied to modify this file");
         }
 
+        // Visibility is read from the file row on every access check, so no cached permission changes
         file.setIsPublic(!file.getIsPublic());
         File updatedFile = fileRepository.save(file);
+        fileAccessIndexService.visibilityChanged(updatedFile);
+        fileSearchIndex.updateVisibility(updatedFile.getId(), updatedFile.getIsPublic());
 
         // Log activity
         String action = updatedFile.getIsPublic() ? "FILE_MAKE_PUBLIC" : "FILE_MAKE_PRIVATE";
@@ -333,30 +874,10 @@ public class FileService {
 
     // Statistics methods
     public Long getTotalFileSize() {
-        return fileRepository.getTotalFileSize();
+        return storageUsageService.getTotalUsage().getByteCount();
     }
 
     public Long getUserFileSize(User user) {
-        return fileRepository.getTotalFileSizeByUser(user);
-    }
-
-    private boolean hasFileAccess(File file, User user, FileShare.PermissionType requiredPermission) {
-        // File owner has full access
-        if (file.getUploadedBy().getId().equals(user.getId())) {
-            return true;
-        }
-
-        // Public files can be viewed and downloaded
-        if (file.getIsPublic() && (requiredPermission == FileShare.PermissionType.VIEW ||
-                requiredPermission == FileShare.PermissionType.DOWNLOAD)) {
-            return true;
-        }
-
-        // Check file shares
-        List<FileShare> shares = fileShareRepository.findByFileAndUser(file, user);
-        return shares.stream().anyMatch(share -> share.getPermissionType() == requiredPermission ||
-                (requiredPermission == FileShare.PermissionType.VIEW &&
-                        (share.getPermissionType() == FileShare.PermissionType.EDIT ||
-                                share.getPermissionType() == FileShare.PermissionType.DOWNLOAD)));
+        return storageUsageService.getUserUsage(user.getId()).getByteCount();
     }
 }
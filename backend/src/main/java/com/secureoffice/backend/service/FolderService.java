@@ -0,0 +1,197 @@
+package com.secureoffice.backend.service;
+
+import com.secureoffice.backend.dto.file.FolderResponse;
+import com.secureoffice.backend.exception.ResourceNotFoundException;
+import com.secureoffice.backend.model.Folder;
+import com.secureoffice.backend.model.User;
+import com.secureoffice.backend.repository.FileAccessRepository;
+import com.secureoffice.backend.repository.FileRepository;
+import com.secureoffice.backend.repository.FolderRepository;
+import com.secureoffice.backend.repository.UserRepository;
+import com.secureoffice.backend.security.CurrentUserProvider;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Maintains each user's folder tree and its per-folder totals. Adding or removing a
+ * file touches the folder row and its ancestors with two UPDATE statements, so reads
+ * of a folder's size or its children never have to look at file rows.
+ */
+@Service
+@Transactional
+public class FolderService {
+
+    private static final Logger logger = LoggerFactory.getLogger(FolderService.class);
+
+    @Autowired
+    private FolderRepository folderRepository;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private FileAccessRepository fileAccessRepository;
+
+    @Autowired
+    private UserRepository userRepository;
+
+    @Autowired
+    private CurrentUserProvider currentUserProvider;
+
+    public void fileAdded(User owner, String folderPath, long size) {
+        String path = canonical(folderPath);
+        ensureExists(owner, path);
+        adjust(owner, path, 1, size);
+    }
+
+    public void fileRemoved(User owner, String folderPath, long size) {
+        adjust(owner, canonical(folderPath), -1, -size);
+    }
+
+    public void ownerDeleted(Long ownerId) {
+        folderRepository.deleteByOwnerId(ownerId);
+    }
+
+    @Transactional(readOnly = true)
+    public FolderResponse getFolder(String folderPath) {
+        User user = currentUserProvider.getReference();
+        String path = canonical(folderPath);
+
+        return folderRepository.findByOwnerAndPath(user, path)
+                .map(FolderResponse::new)
+                .orElseThrow(() -> new ResourceNotFoundException("Folder not found: " + path));
+    }
+
+    @Transactional(readOnly = true)
+    public List<FolderResponse> getChildren(String folderPath) {
+        User user = currentUserProvider.getReference();
+
+        return folderRepository.findByOwnerAndParentPathOrderByName(user, canonical(folderPath)).stream()
+                .map(FolderResponse::new)
+                .collect(Collectors.toList());
+    }
+
+    @Transactional(readOnly = true)
+    public List<String> getNonEmptyFolderPaths() {
+        User user = currentUserProvider.getReference();
+
+        return folderRepository.findNonEmptyPaths(user);
+    }
+
+    // Databases upgraded from a version without folders start with an empty table
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        canonicalizeStoredPaths();
+
+        if (folderRepository.count() > 0 || fileRepository.count() == 0) {
+            return;
+        }
+
+        Map<Long, Map<String, Folder>> trees = new HashMap<>();
+        for (Object[] row : fileRepository.getFolderStatistics()) {
+            Long ownerId = (Long) row[0];
+            String path = canonical((String) row[1]);
+            long files = ((Number) row[2]).longValue();
+            long bytes = row[3] != null ? ((Number) row[3]).longValue() : 0L;
+
+            Map<String, Folder> tree = trees.computeIfAbsent(ownerId, id -> new HashMap<>());
+            for (String ancestor : ancestors(path)) {
+                Folder folder = tree.computeIfAbsent(ancestor, p -> new Folder(userRepository.getReferenceById(ownerId),
+                        p, parentOf(p), nameOf(p)));
+                folder.setTotalFileCount(folder.getTotalFileCount() + files);
+                folder.setTotalBytes(folder.getTotalBytes() + bytes);
+            }
+            Folder folder = tree.get(path);
+            folder.setFileCount(folder.getFileCount() + files);
+            folder.setByteCount(folder.getByteCount() + bytes);
+        }
+
+        List<Folder> folders = trees.values().stream()
+                .flatMap(tree -> tree.values().stream())
+                .collect(Collectors.toList());
+        folderRepository.saveAll(folders);
+        logger.info("Built folder tree: {} folders for {} users", folders.size(), trees.size());
+    }
+
+    /**
+     * Rewrites folder paths stored before they were canonicalized on write, so that
+     * lookups by the canonical path find them. Once every path is canonical this is a
+     * single DISTINCT read of the folder column.
+     */
+    private void canonicalizeStoredPaths() {
+        int files = 0;
+        int accessRows = 0;
+        for (String path : fileRepository.findDistinctFolderPaths()) {
+            String canonicalPath = canonical(path);
+            if (!canonicalPath.equals(path)) {
+                files += fileRepository.renameFolderPath(path, canonicalPath);
+                accessRows += fileAccessRepository.renameFolderPath(path, canonicalPath);
+            }
+        }
+        if (files > 0 || accessRows > 0) {
+            logger.info("Canonicalized folder paths of {} files and {} file access rows", files, accessRows);
+        }
+    }
+
+    /**
+     * Leading slash, single separators, no trailing slash; blank means the root.
+     */
+    static String canonical(String folderPath) {
+        if (folderPath == null || folderPath.isBlank()) {
+            return "/";
+        }
+        String path = ("/" + folderPath.trim()).replaceAll("/{2,}", "/");
+        return path.length() > 1 && path.endsWith("/") ? path.substring(0, path.length() - 1) : path;
+    }
+
+    // Root first, the folder itself last
+    static List<String> ancestors(String path) {
+        List<String> paths = new ArrayList<>();
+        paths.add("/");
+        for (int slash = path.indexOf('/', 1); slash > 0; slash = path.indexOf('/', slash + 1)) {
+            paths.add(path.substring(0, slash));
+        }
+        if (!"/".equals(path)) {
+            paths.add(path);
+        }
+        return paths;
+    }
+
+    // Only the missing tail of the chain is created; an existing folder implies its ancestors
+    private void ensureExists(User owner, String path) {
+        if (folderRepository.findByOwnerAndPath(owner, path).isPresent()) {
+            return;
+        }
+        for (String ancestor : ancestors(path)) {
+            folderRepository.createIfAbsent(owner.getId(), ancestor, parentOf(ancestor), nameOf(ancestor));
+        }
+    }
+
+    private void adjust(User owner, String path, long files, long bytes) {
+        folderRepository.adjustDirect(owner.getId(), path, files, bytes);
+        folderRepository.adjustTotals(owner.getId(), ancestors(path), files, bytes);
+    }
+
+    private static String parentOf(String path) {
+        if ("/".equals(path)) {
+            return null;
+        }
+        int slash = path.lastIndexOf('/');
+        return slash == 0 ? "/" : path.substring(0, slash);
+    }
+
+    private static String nameOf(String path) {
+        return "/".equals(path) ? "/" : path.substring(path.lastIndexOf('/') + 1);
+    }
+}
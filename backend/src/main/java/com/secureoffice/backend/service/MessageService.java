@@ -9,12 +9,11 @@ import com.secureoffice.backend.model.User;
 import com.secureoffice.backend.repository.DepartmentRepository;
 import com.secureoffice.backend.repository.MessageRepository;
 import com.secureoffice.backend.repository.UserRepository;
-import com.secureoffice.backend.security.UserPrincipal;
+import com.secureoffice.backend.security.CurrentUserProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -43,10 +42,11 @@ public class MessageService {
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private CurrentUserProvider currentUserProvider;
+
     public MessageResponse sendMessage(CreateMessageRequest request) {
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User sender = userRepository.findById(userPrincipal.getId())
-            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User sender = currentUserProvider.getUser();
 
         try {
             Message.MessageType messageType = Message.MessageType.valueOf(request.getMessageType().toUpperCase());
@@ -141,17 +141,14 @@ public class MessageService {
     }
 
     public Page<MessageResponse> getDirectMessages(Pageable pageable) {
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserProvider.getReference();
 
         Page<Message> messages = messageRepository.findDirectMessagesByUser(user, pageable);
         return messages.map(MessageResponse::new);
     }
 
     public Page<MessageResponse> getDepartmentMessages(Pageable pageable) {
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        List<Department> userDepartments = departmentRepository.findByUserId(userPrincipal.getId());
+        List<Department> userDepartments = departmentRepository.findByUserId(currentUserProvider.getId());
 
         Page<Message> messages = messageRepository.findDepartmentMessagesByDepartments(userDepartments, pageable);
         return messages.map(MessageResponse::new);
@@ -163,18 +160,14 @@ public class MessageService {
     }
 
     public Page<MessageResponse> searchMessages(String search, Pageable pageable) {
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserProvider.getReference();
 
         Page<Message> messages = messageRepository.findMessagesByUserAndSearch(user, search, pageable);
         return messages.map(MessageResponse::new);
     }
 
     public List<MessageResponse> getUnreadMessages() {
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserProvider.getReference();
 
         List<Message> messages = messageRepository.findUnreadMessagesByRecipient(user);
         return messages.stream().map(MessageResponse::new).collect(Collectors.toList());
@@ -184,19 +177,15 @@ public class MessageService {
         Message message = messageRepository.findById(messageId)
             .orElseThrow(() -> new ResourceNotFoundException("Message not found with id: " + messageId));
 
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        
         // Check if current user is the recipient
-        if (message.getRecipient() != null && message.getRecipient().getId().equals(userPrincipal.getId())) {
+        if (message.getRecipient() != null && message.getRecipient().getId().equals(currentUserProvider.getId())) {
             message.setIsRead(true);
             messageRepository.save(message);
         }
     }
 
     public long getUnreadMessageCount() {
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-            .orElseThrow(() -> new ResourceNotFoundException("User not found"));
+        User user = currentUserProvider.getReference();
 
         return messageRepository.countUnreadMessagesByRecipient(user);
     }
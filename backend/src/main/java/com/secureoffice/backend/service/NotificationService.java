@@ -3,28 +3,50 @@ package com.secureoffice.backend.service;
 import com.secureoffice.backend.model.Notification;
 import com.secureoffice.backend.model.User;
 import com.secureoffice.backend.repository.NotificationRepository;
-import com.secureoffice.backend.security.UserPrincipal;
+import com.secureoffice.backend.security.CurrentUserProvider;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.support.GeneratedKeyHolder;
+import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Timestamp;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 @Transactional
 public class NotificationService {
 
+    private static final String INSERT_NOTIFICATION =
+            "INSERT INTO notifications (user_id, title, message, notification_type, is_read, " +
+            "related_entity_type, related_entity_id, created_at) VALUES (?, ?, ?, ?, FALSE, ?, ?, ?)";
+
     @Autowired
     private NotificationRepository notificationRepository;
 
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
     @Autowired
     private SimpMessagingTemplate messagingTemplate;
 
+    @Autowired
+    private CurrentUserProvider currentUserProvider;
+
     public Notification createNotification(User user, String title, String message,
             Notification.NotificationType type,
             String relatedEntityType, Long relatedEntityId) {
@@ -37,51 +59,99 @@ public class NotificationService {
         return savedNotification;
     }
 
+    /**
+     * Creates the same notification for many recipients with one JDBC batch instead of
+     * an insert per user. The real-time pushes are sent after the transaction commits,
+     * so recipients are never told about rows that could still roll back.
+     */
+    public List<Notification> createNotifications(Collection<User> users, String title, String message,
+            Notification.NotificationType type,
+            String relatedEntityType, Long relatedEntityId) {
+        if (users.isEmpty()) {
+            return List.of();
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Notification> notifications = users.stream().map(user -> {
+            Notification notification = new Notification(user, title, message, type, relatedEntityType, relatedEntityId);
+            notification.setCreatedAt(now);
+            return notification;
+        }).collect(Collectors.toList());
+
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcTemplate.batchUpdate(
+                connection -> connection.prepareStatement(INSERT_NOTIFICATION, Statement.RETURN_GENERATED_KEYS),
+                new BatchPreparedStatementSetter() {
+                    @Override
+                    public void setValues(PreparedStatement ps, int i) throws SQLException {
+                        Notification notification = notifications.get(i);
+                        ps.setLong(1, notification.getUser().getId());
+                        ps.setString(2, title);
+                        ps.setString(3, message);
+                        ps.setString(4, type.name());
+                        ps.setString(5, relatedEntityType);
+                        ps.setObject(6, relatedEntityId);
+                        ps.setTimestamp(7, Timestamp.valueOf(now));
+                    }
+
+                    @Override
+                    public int getBatchSize() {
+                        return notifications.size();
+                    }
+                },
+                keyHolder);
+
+        List<Map<String, Object>> keys = keyHolder.getKeyList();
+        for (int i = 0; i < notifications.size() && i < keys.size(); i++) {
+            Number id = (Number) keys.get(i).values().iterator().next();
+            notifications.get(i).setId(id.longValue());
+        }
+
+        Runnable push = () -> notifications.forEach(n -> sendRealTimeNotification(n.getUser().getId(), n));
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    push.run();
+                }
+            });
+        } else {
+            push.run();
+        }
+
+        return notifications;
+    }
+
     public Notification createNotification(User user, String title, String message,
             Notification.NotificationType type) {
         return createNotification(user, title, message, type, null, null);
     }
 
     public Page<Notification> getUserNotifications(Pageable pageable) {
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication()
-                .getPrincipal();
-        User user = new User();
-        user.setId(userPrincipal.getId());
+        User user = currentUserProvider.getReference();
 
         return notificationRepository.findByUserOrderByCreatedAtDesc(user, pageable);
     }
 
     public List<Notification> getUnreadNotifications() {
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication()
-                .getPrincipal();
-        User user = new User();
-        user.setId(userPrincipal.getId());
+        User user = currentUserProvider.getReference();
 
         return notificationRepository.findUnreadNotificationsByUser(user);
     }
 
     public long getUnreadNotificationCount() {
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication()
-                .getPrincipal();
-        User user = new User();
-        user.setId(userPrincipal.getId());
+        User user = currentUserProvider.getReference();
 
         return notificationRepository.countUnreadNotificationsByUser(user);
     }
 
     public void markAsRead(Long notificationId) {
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication()
-                .getPrincipal();
-        User user = new User();
-        user.setId(userPrincipal.getId());
+        User user = currentUserProvider.getReference();
         notificationRepository.markAsReadByIdAndUser(notificationId, user);
     }
 
     public void markAllAsRead() {
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication()
-                .getPrincipal();
-        User user = new User();
-        user.setId(userPrincipal.getId());
+        User user = currentUserProvider.getReference();
 
         notificationRepository.markAllAsReadByUser(user);
     }
@@ -0,0 +1,290 @@
+package com.secureoffice.backend.service;
+
+import com.secureoffice.backend.config.ProcessingPipelineConfig;
+import com.secureoffice.backend.dto.file.ProcessingStatusResponse;
+import com.secureoffice.backend.exception.ResourceNotFoundException;
+import com.secureoffice.backend.model.File;
+import com.secureoffice.backend.model.ProcessingJob;
+import com.secureoffice.backend.pipeline.ProcessingStage;
+import com.secureoffice.backend.repository.FileRepository;
+import com.secureoffice.backend.repository.ProcessingJobRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Runs the work that follows an upload off the request thread. Every new file gets a
+ * persisted {@link ProcessingJob} in the upload's transaction; a dispatcher claims due
+ * jobs from the table and hands them to one pool per {@link ProcessingStage}, so at most
+ * {@code concurrency()} files are in a stage at once and different files move through
+ * the stages in parallel. A failed stage is retried with exponential backoff until
+ * {@code processing.max-attempts}, after which the job is {@code FAILED}.
+ */
+@Service
+public class ProcessingPipelineService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProcessingPipelineService.class);
+
+    private static final int MAX_ERROR_LENGTH = 1000;
+
+    @Autowired
+    private ProcessingJobRepository processingJobRepository;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    private final ProcessingPipelineConfig processingPipelineConfig;
+    private final List<ProcessingStage> stages;
+    private final Map<String, StagePool> pools = new LinkedHashMap<>();
+    private final ScheduledThreadPoolExecutor dispatcher;
+    private final AtomicBoolean wakeUpPending = new AtomicBoolean();
+
+    private final LongAdder completed = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public ProcessingPipelineService(ProcessingPipelineConfig processingPipelineConfig, List<ProcessingStage> stages) {
+        this.processingPipelineConfig = processingPipelineConfig;
+        this.stages = stages;
+        for (ProcessingStage stage : stages) {
+            pools.put(stage.name(), new StagePool(stage));
+        }
+
+        CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("processing-dispatch-");
+        threadFactory.setDaemon(true);
+        this.dispatcher = new ScheduledThreadPoolExecutor(1, threadFactory);
+    }
+
+    /**
+     * Records the job in the caller's transaction, so it exists exactly when the file
+     * does, and starts dispatching once that transaction commits.
+     */
+    public void fileUploaded(File file) {
+        String stage = nextStage(file, null);
+        processingJobRepository.save(new ProcessingJob(file.getId(), stage, LocalDateTime.now()));
+        if (stage != null) {
+            afterCommit(this::wakeUp);
+        }
+    }
+
+    public void filesPurged(Collection<Long> fileIds) {
+        processingJobRepository.deleteByFileIdIn(fileIds);
+    }
+
+    public void userDeleted(Long userId) {
+        processingJobRepository.deleteByOwnerId(userId);
+    }
+
+    public ProcessingStatusResponse getStatus(File file) {
+        return processingJobRepository.findByFileId(file.getId())
+                .map(ProcessingStatusResponse::new)
+                .orElseThrow(() -> new ResourceNotFoundException("No processing job for file: " + file.getId()));
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        Map<String, Long> jobs = new HashMap<>();
+        for (Object[] row : processingJobRepository.countByStatus()) {
+            jobs.put(((ProcessingJob.Status) row[0]).name(), (Long) row[1]);
+        }
+        Map<String, Integer> running = new LinkedHashMap<>();
+        pools.forEach((name, pool) -> running.put(name, pool.stage.concurrency() - pool.permits.availablePermits()));
+
+        stats.put("jobs", jobs);
+        stats.put("running", running);
+        stats.put("completed", completed.sum());
+        stats.put("retried", retried.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    // Jobs this instance was running when it stopped start over at their current stage
+    @EventListener(ApplicationReadyEvent.class)
+    public void resumeInterrupted() {
+        int requeued = processingJobRepository.requeueInterrupted(LocalDateTime.now());
+        if (requeued > 0) {
+            logger.info("Requeued {} interrupted processing jobs", requeued);
+        }
+        wakeUp();
+
+        // Picks up retries whose backoff has passed; new uploads wake the dispatcher directly.
+        // Polled from the dispatcher's own thread rather than @Scheduled, so maintenance jobs
+        // that run long on the shared scheduler cannot hold processing back.
+        long interval = processingPipelineConfig.getPollInterval();
+        dispatcher.scheduleWithFixedDelay(this::wakeUp, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        dispatcher.shutdownNow();
+        pools.values().forEach(pool -> pool.executor.shutdownNow());
+    }
+
+    // Coalesces wake-ups: at most one dispatch is waiting to run
+    private void wakeUp() {
+        if (!wakeUpPending.compareAndSet(false, true)) {
+            return;
+        }
+        try {
+            dispatcher.execute(() -> {
+                wakeUpPending.set(false);
+                dispatch();
+            });
+        } catch (RejectedExecutionException ex) {
+            // Shutting down
+            wakeUpPending.set(false);
+        }
+    }
+
+    // Runs on the single dispatcher thread; claims no more jobs than each stage has free threads
+    private void dispatch() {
+        LocalDateTime now = LocalDateTime.now();
+        for (StagePool pool : pools.values()) {
+            int free = pool.permits.availablePermits();
+            if (free == 0) {
+                continue;
+            }
+            try {
+                for (Long jobId : processingJobRepository.findDueIds(pool.stage.name(), now, PageRequest.of(0, free))) {
+                    if (!pool.permits.tryAcquire()) {
+                        break;
+                    }
+                    if (processingJobRepository.claim(jobId, now) == 0) {
+                        pool.permits.release();
+                        continue;
+                    }
+                    pool.executor.execute(() -> run(pool, jobId));
+                }
+            } catch (RuntimeException ex) {
+                logger.warn("Could not dispatch {} jobs", pool.stage.name(), ex);
+            }
+        }
+    }
+
+    private void run(StagePool pool, Long jobId) {
+        try {
+            ProcessingJob job = processingJobRepository.findById(jobId).orElse(null);
+            File file = job != null ? fileRepository.findWithBlobById(job.getFileId()).orElse(null) : null;
+            if (file == null) {
+                // Deleted while queued
+                if (job != null) {
+                    processingJobRepository.deleteById(jobId);
+                }
+                return;
+            }
+
+            try {
+                pool.stage.process(file);
+            } catch (Exception ex) {
+                retryOrFail(job, pool.stage, ex);
+                return;
+            }
+
+            String next = nextStage(file, pool.stage);
+            if (next != null) {
+                processingJobRepository.advance(jobId, next, LocalDateTime.now());
+            } else {
+                processingJobRepository.complete(jobId, LocalDateTime.now());
+                completed.increment();
+            }
+        } catch (RuntimeException ex) {
+            // Left PROCESSING; requeued at the next startup
+            logger.warn("Could not update processing job {}", jobId, ex);
+        } finally {
+            pool.permits.release();
+            wakeUp();
+        }
+    }
+
+    private void retryOrFail(ProcessingJob job, ProcessingStage stage, Exception ex) {
+        LocalDateTime now = LocalDateTime.now();
+        String error = ex.getClass().getSimpleName() + (ex.getMessage() != null ? ": " + ex.getMessage() : "");
+        if (error.length() > MAX_ERROR_LENGTH) {
+            error = error.substring(0, MAX_ERROR_LENGTH);
+        }
+
+        if (job.getAttempts() >= processingPipelineConfig.getMaxAttempts()) {
+            processingJobRepository.fail(job.getId(), error, now);
+            failed.increment();
+            logger.warn("Stage {} failed for file {} after {} attempts", stage.name(), job.getFileId(),
+                    job.getAttempts(), ex);
+        } else {
+            long backoff = backoff(job.getAttempts());
+            processingJobRepository.retryLater(job.getId(), now.plus(backoff, ChronoUnit.MILLIS), error, now);
+            retried.increment();
+            logger.info("Stage {} failed for file {} (attempt {}); retrying in {} ms: {}", stage.name(),
+                    job.getFileId(), job.getAttempts(), backoff, error);
+        }
+    }
+
+    // initial-backoff, doubled per attempt, capped at max-backoff
+    private long backoff(int attempt) {
+        long delay = processingPipelineConfig.getInitialBackoff() << Math.min(attempt - 1, 20);
+        return Math.min(delay, processingPipelineConfig.getMaxBackoff());
+    }
+
+    // First stage after {@code current} (or the first stage) that applies to the file
+    private String nextStage(File file, ProcessingStage current) {
+        int start = current != null ? stages.indexOf(current) + 1 : 0;
+        for (ProcessingStage stage : stages.subList(start, stages.size())) {
+            if (stage.supports(file)) {
+                return stage.name();
+            }
+        }
+        return null;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    // Threads of one stage; the permits cap how many of its jobs are claimed at once
+    private static final class StagePool {
+        private final ProcessingStage stage;
+        private final Semaphore permits;
+        private final ThreadPoolExecutor executor;
+
+        private StagePool(ProcessingStage stage) {
+            this.stage = stage;
+            this.permits = new Semaphore(stage.concurrency());
+
+            CustomizableThreadFactory threadFactory = new CustomizableThreadFactory("processing-" + stage.name() + "-");
+            threadFactory.setDaemon(true);
+            this.executor = new ThreadPoolExecutor(stage.concurrency(), stage.concurrency(),
+                    0L, TimeUnit.MILLISECONDS, new LinkedBlockingQueue<>(), threadFactory);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.secureoffice.backend.service;
+
+import com.secureoffice.backend.config.StorageQuotaConfig;
+import com.secureoffice.backend.exception.QuotaExceededException;
+import com.secureoffice.backend.model.StorageUsage;
+import com.secureoffice.backend.model.User;
+import com.secureoffice.backend.repository.StorageUsageRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Storage usage counters per user, per department and for the whole system. Uploads
+ * and deletes adjust every affected counter with one statement in their own
+ * transaction, so usage and quota checks never aggregate the files table. A scheduled,
+ * batched reconciliation recomputes the counters to correct drift, for example from
+ * department membership changes made outside this service.
+ */
+@Service
+@Transactional
+public class StorageUsageService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StorageUsageService.class);
+
+    @Autowired
+    private StorageUsageRepository storageUsageRepository;
+
+    @Autowired
+    private StorageQuotaConfig storageQuotaConfig;
+
+    public void fileAdded(User owner, long size) {
+        storageUsageRepository.adjust(owner.getId(), 1, size);
+    }
+
+    public void fileRemoved(User owner, long size) {
+        storageUsageRepository.adjust(owner.getId(), -1, -size);
+    }
+
+    // Must run while the user's department memberships still exist
+    public void userDeleted(Long userId) {
+        storageUsageRepository.subtractUser(userId);
+        storageUsageRepository.deleteScope(StorageUsage.ScopeType.USER, userId);
+    }
+
+    public void membershipChanged(Long departmentId) {
+        storageUsageRepository.reconcileDepartment(departmentId);
+    }
+
+    public void departmentDeleted(Long departmentId) {
+        storageUsageRepository.deleteScope(StorageUsage.ScopeType.DEPARTMENT, departmentId);
+    }
+
+    /**
+     * Rejects an upload of {@code size} bytes that would take the user, one of the
+     * user's departments or the system over its quota. Checked before the body is
+     * written; concurrent uploads can each pass and overshoot a quota by their sizes.
+     */
+    @Transactional(readOnly = true)
+    public void checkQuota(User user, long size) {
+        long userLimit = storageQuotaConfig.getUserBytes();
+        long departmentLimit = storageQuotaConfig.getDepartmentBytes();
+        long totalLimit = storageQuotaConfig.getTotalBytes();
+        if (userLimit <= 0 && departmentLimit <= 0 && totalLimit <= 0) {
+            return;
+        }
+
+        // An unknown length (-1) passes here; createFile checks again with the written size
+        long bytes = Math.max(size, 0);
+        // Scopes without a row have no usage yet
+        checkLimit(0, bytes, userLimit, "Storage quota exceeded");
+        checkLimit(0, bytes, departmentLimit, "Department storage quota exceeded");
+        checkLimit(0, bytes, totalLimit, "System storage capacity exceeded");
+
+        for (StorageUsage usage : storageUsageRepository.findScopesOfUser(user.getId())) {
+            switch (usage.getScopeType()) {
+                case USER -> checkLimit(usage.getByteCount(), bytes, userLimit, "Storage quota exceeded");
+                case DEPARTMENT -> checkLimit(usage.getByteCount(), bytes, departmentLimit,
+                        "Department storage quota exceeded");
+                case GLOBAL -> checkLimit(usage.getByteCount(), bytes, totalLimit, "System storage capacity exceeded");
+            }
+        }
+    }
+
+    @Transactional(readOnly = true)
+    public StorageUsage getUserUsage(Long userId) {
+        return getUsage(StorageUsage.ScopeType.USER, userId);
+    }
+
+    @Transactional(readOnly = true)
+    public StorageUsage getTotalUsage() {
+        return getUsage(StorageUsage.ScopeType.GLOBAL, StorageUsage.GLOBAL_SCOPE_ID);
+    }
+
+    /**
+     * Recomputes the counters in id ranges of {@code storage-quota.reconcile-batch-size},
+     * each committed on its own with a pause in between, so no statement holds locks for
+     * long. Departments and the global row are summed from the freshly computed user rows.
+     */
+    @Scheduled(fixedDelayString = "${storage-quota.reconcile-interval:3600000}",
+            initialDelayString = "${storage-quota.reconcile-interval:3600000}")
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reconcile() {
+        long start = System.currentTimeMillis();
+        int batchSize = storageQuotaConfig.getReconcileBatchSize();
+
+        int users = 0;
+        long maxUserId = storageUsageRepository.findMaxUserId();
+        for (long fromId = 1; fromId <= maxUserId; fromId += batchSize) {
+            users += storageUsageRepository.reconcileUsers(fromId, fromId + batchSize - 1);
+            if (fromId + batchSize <= maxUserId && !pause()) {
+                return;
+            }
+        }
+
+        int orphans = storageUsageRepository.deleteOrphans();
+
+        int departments = 0;
+        long maxDepartmentId = storageUsageRepository.findMaxDepartmentId();
+        for (long fromId = 1; fromId <= maxDepartmentId; fromId += batchSize) {
+            departments += storageUsageRepository.reconcileDepartments(fromId, fromId + batchSize - 1);
+            if (fromId + batchSize <= maxDepartmentId && !pause()) {
+                return;
+            }
+        }
+
+        storageUsageRepository.reconcileGlobal();
+        logger.debug("Reconciled storage usage in {} ms: {} user rows, {} department rows, {} orphaned rows removed",
+                System.currentTimeMillis() - start, users, departments, orphans);
+    }
+
+    // Databases upgraded from a version without counters start with an empty table
+    @EventListener(ApplicationReadyEvent.class)
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public void reconcileIfEmpty() {
+        if (storageUsageRepository.count() == 0) {
+            reconcile();
+        }
+    }
+
+    private StorageUsage getUsage(StorageUsage.ScopeType scopeType, Long scopeId) {
+        return storageUsageRepository.findByScopeTypeAndScopeId(scopeType, scopeId).orElseGet(() -> {
+            StorageUsage usage = new StorageUsage();
+            usage.setScopeType(scopeType);
+            usage.setScopeId(scopeId);
+            return usage;
+        });
+    }
+
+    private boolean pause() {
+        if (storageQuotaConfig.getReconcilePause() <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(storageQuotaConfig.getReconcilePause());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static void checkLimit(long used, long size, long limit, String message) {
+        if (limit > 0 && used + size > limit) {
+            throw new QuotaExceededException(message);
+        }
+    }
+}
@@ -0,0 +1,260 @@
+package com.secureoffice.backend.service;
+
+import com.secureoffice.backend.config.ThumbnailConfig;
+import com.secureoffice.backend.dto.file.FileThumbnail;
+import com.secureoffice.backend.exception.ResourceNotFoundException;
+import com.secureoffice.backend.model.File;
+import com.secureoffice.backend.model.FileBlob;
+import com.secureoffice.backend.repository.FileRepository;
+import com.secureoffice.backend.storage.BlobStore;
+import com.secureoffice.backend.storage.StorageBackend;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Renders JPEG previews of uploaded images in the configured sizes (longest side, in
+ * pixels). New uploads are rendered by the post-upload processing pipeline
+ * ({@link com.secureoffice.backend.pipeline.ThumbnailStage}); renditions are stored next
+ * to the blob, so files with the same content share them, and the files are flagged
+ * {@code thumbnailReady} when all sizes exist.
+ */
+@Service
+public class ThumbnailService {
+
+    private static final Logger logger = LoggerFactory.getLogger(ThumbnailService.class);
+
+    private static final int BACKFILL_BATCH_SIZE = 200;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private StorageBackend storageBackend;
+
+    @Autowired
+    private FileRepository fileRepository;
+
+    @Autowired
+    private ThumbnailConfig thumbnailConfig;
+
+    private final LongAdder rendered = new LongAdder();
+    private final LongAdder skipped = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    public boolean supports(File file) {
+        return thumbnailConfig.isEnabled() && isImage(file.getMimeType());
+    }
+
+    // Failures are thrown so the pipeline can retry
+    public void render(File file) throws IOException {
+        render(new Job(file, blobStore.keyOf(file), blobStore.codecOf(file)));
+    }
+
+    /**
+     * The stored rendition for the smallest configured size that is at least
+     * {@code requestedSize}, or the largest one.
+     */
+    public FileThumbnail getThumbnail(File file, int requestedSize) {
+        if (!Boolean.TRUE.equals(file.getThumbnailReady())) {
+            throw new ResourceNotFoundException("Thumbnail not available for file: " + file.getId());
+        }
+
+        int size = thumbnailConfig.getSizes().stream()
+                .filter(candidate -> candidate >= requestedSize)
+                .min(Comparator.naturalOrder())
+                .orElseGet(() -> thumbnailConfig.getSizes().stream().max(Comparator.naturalOrder()).orElseThrow());
+        String key = blobStore.thumbnailKey(blobStore.keyOf(file), size);
+        String version = file.getContentHash() != null ? file.getContentHash() : "file-" + file.getId();
+
+        try {
+            return new FileThumbnail(key, storageBackend.size(key), "\"" + version + "-thumb-" + size + "\"");
+        } catch (IOException ex) {
+            throw new ResourceNotFoundException("Thumbnail not available for file: " + file.getId());
+        }
+    }
+
+    public InputStream open(FileThumbnail thumbnail) throws IOException {
+        return storageBackend.get(thumbnail.getStorageKey());
+    }
+
+    public Map<String, Object> getStatistics() {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("enabled", thumbnailConfig.isEnabled());
+        stats.put("rendered", rendered.sum());
+        stats.put("skipped", skipped.sum());
+        stats.put("failed", failed.sum());
+        return stats;
+    }
+
+    // Renders images stored before the pipeline existed, inline on its own thread
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfill() {
+        if (!thumbnailConfig.isEnabled()) {
+            return;
+        }
+        Thread thread = new Thread(() -> {
+            long afterId = 0;
+            List<File> batch;
+            do {
+                batch = fileRepository.findThumbnailCandidates(afterId, PageRequest.of(0, BACKFILL_BATCH_SIZE));
+                for (File file : batch) {
+                    if (isImage(file.getMimeType())) {
+                        try {
+                            render(file);
+                        } catch (NoSuchFileException ex) {
+                            skipped.increment();
+                        } catch (IOException | RuntimeException ex) {
+                            logger.warn("Could not render thumbnails for file {}", file.getId(), ex);
+                        }
+                    }
+                    afterId = file.getId();
+                }
+            } while (batch.size() == BACKFILL_BATCH_SIZE);
+        }, "thumbnail-backfill");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private static boolean isImage(String mimeType) {
+        return mimeType != null && mimeType.startsWith("image/")
+                && ImageIO.getImageReadersByMIMEType(mimeType).hasNext();
+    }
+
+    private void render(Job job) throws IOException {
+        try {
+            List<Integer> sizes = thumbnailConfig.getSizes().stream()
+                    .sorted(Comparator.reverseOrder())
+                    .toList();
+
+            // Content shared with an earlier upload already has its renditions
+            boolean complete = sizes.stream().allMatch(size -> storageBackend.exists(blobStore.thumbnailKey(job.storageKey, size)));
+            if (!complete) {
+                BufferedImage image = read(job, sizes.get(0));
+                if (image == null) {
+                    skipped.increment();
+                    return;
+                }
+                // Largest first, each scaled from the previous one
+                for (int size : sizes) {
+                    image = scale(image, size);
+                    store(image, blobStore.thumbnailKey(job.storageKey, size));
+                }
+                rendered.increment();
+            }
+
+            if (job.blobId != null) {
+                fileRepository.markThumbnailsReadyByBlob(job.blobId);
+            } else {
+                fileRepository.markThumbnailsReady(job.fileId);
+            }
+        } catch (IOException | RuntimeException ex) {
+            failed.increment();
+            throw ex;
+        }
+    }
+
+    /**
+     * Decodes the image, subsampled while reading so the decoded size stays close to
+     * twice the largest rendition. Null when no reader handles the format or the image
+     * is larger than the configured pixel limit.
+     */
+    private BufferedImage read(Job job, int largestSize) throws IOException {
+        try (InputStream in = blobStore.open(job.storageKey, job.codec);
+             ImageInputStream imageIn = ImageIO.createImageInputStream(in)) {
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(imageIn);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(imageIn, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > thumbnailConfig.getMaxSourcePixels()) {
+                    return null;
+                }
+
+                ImageReadParam param = reader.getDefaultReadParam();
+                int subsampling = Math.max(1, Math.max(width, height) / (2 * largestSize));
+                param.setSourceSubsampling(subsampling, subsampling, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Fits the image in a square of the given size on a white background (JPEG has no alpha)
+    private static BufferedImage scale(BufferedImage image, int size) {
+        double factor = Math.min(1.0, (double) size / Math.max(image.getWidth(), image.getHeight()));
+        int width = Math.max(1, (int) Math.round(image.getWidth() * factor));
+        int height = Math.max(1, (int) Math.round(image.getHeight() * factor));
+
+        BufferedImage scaled = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+        Graphics2D graphics = scaled.createGraphics();
+        try {
+            graphics.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+            graphics.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+            graphics.setColor(Color.WHITE);
+            graphics.fillRect(0, 0, width, height);
+            graphics.drawImage(image, 0, 0, width, height, null);
+        } finally {
+            graphics.dispose();
+        }
+        return scaled;
+    }
+
+    private void store(BufferedImage image, String key) throws IOException {
+        Path incoming = blobStore.newIncomingFile();
+        try {
+            if (!ImageIO.write(image, "jpg", incoming.toFile())) {
+                throw new IOException("No JPEG writer available");
+            }
+            if (!storageBackend.exists(key)) {
+                storageBackend.put(key, incoming);
+            }
+        } finally {
+            Files.deleteIfExists(incoming);
+        }
+    }
+
+    // What rendering needs, read off the entity up front
+    private static final class Job {
+        private final long fileId;
+        private final Long blobId;
+        private final String storageKey;
+        private final FileBlob.Codec codec;
+
+        private Job(File file, String storageKey, FileBlob.Codec codec) {
+            this.fileId = file.getId();
+            this.blobId = file.getBlob() != null ? file.getBlob().getId() : null;
+            this.storageKey = storageKey;
+            this.codec = codec;
+        }
+    }
+}
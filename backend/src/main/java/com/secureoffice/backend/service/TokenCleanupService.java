@@ -0,0 +1,105 @@
+package com.secureoffice.backend.service;
+
+import com.secureoffice.backend.config.TokenCleanupConfig;
+import com.secureoffice.backend.model.AuthToken;
+import com.secureoffice.backend.repository.AuthTokenRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+
+/**
+ * Periodically purges expired refresh tokens and password-reset tokens. Work is done
+ * in small, separately committed batches with a pause in between, so each statement
+ * only locks a bounded number of rows. Every batch is an idempotent set-based
+ * statement, which makes it safe for several instances to run the job concurrently.
+ */
+@Service
+public class TokenCleanupService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenCleanupService.class);
+
+    @Autowired
+    private TokenCleanupConfig tokenCleanupConfig;
+
+    @Autowired
+    private AuthTokenRepository authTokenRepository;
+
+    private volatile Map<String, Object> lastRun = Map.of();
+
+    @Scheduled(fixedDelayString = "${token-cleanup.interval:3600000}",
+            initialDelayString = "${token-cleanup.initial-delay:60000}")
+    public void purgeExpiredTokens() {
+        if (!tokenCleanupConfig.isEnabled()) {
+            return;
+        }
+
+        long start = System.currentTimeMillis();
+        LocalDateTime now = LocalDateTime.now();
+
+        long refreshTokens = purgeInBatches("refresh tokens", now, (cutoff, limit) ->
+                authTokenRepository.deleteExpiredTokensBatch(AuthToken.TokenType.REFRESH.name(), cutoff, limit));
+        long resetTokens = purgeInBatches("password reset tokens", now, (cutoff, limit) ->
+                authTokenRepository.deleteExpiredTokensBatch(AuthToken.TokenType.PASSWORD_RESET.name(), cutoff, limit));
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("finishedAt", LocalDateTime.now());
+        result.put("durationMillis", System.currentTimeMillis() - start);
+        result.put("refreshTokensPurged", refreshTokens);
+        result.put("passwordResetTokensPurged", resetTokens);
+        lastRun = result;
+
+        logger.info("Token cleanup purged {} expired refresh tokens and {} expired password reset tokens in {} ms",
+                refreshTokens, resetTokens, result.get("durationMillis"));
+    }
+
+    public Map<String, Object> getLastRunStatistics() {
+        return lastRun;
+    }
+
+    private long purgeInBatches(String description, LocalDateTime now,
+            BiFunction<LocalDateTime, Integer, Integer> batch) {
+        int batchSize = tokenCleanupConfig.getBatchSize();
+        long purged = 0;
+
+        for (int i = 0; i < tokenCleanupConfig.getMaxBatchesPerRun(); i++) {
+            int affected;
+            try {
+                affected = batch.apply(now, batchSize);
+            } catch (Exception e) {
+                // Typically lock contention with another instance; the next run picks up the rest
+                logger.warn("Stopping {} cleanup after batch failure: {}", description, e.getMessage());
+                break;
+            }
+
+            purged += affected;
+            if (affected < batchSize) {
+                break;
+            }
+
+            if (!pause()) {
+                break;
+            }
+        }
+        return purged;
+    }
+
+    private boolean pause() {
+        if (tokenCleanupConfig.getPause() <= 0) {
+            return true;
+        }
+        try {
+            Thread.sleep(tokenCleanupConfig.getPause());
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
@@ -0,0 +1,396 @@
+package com.secureoffice.backend.service;
+
+import com.secureoffice.backend.config.FileUploadConfig;
+import com.secureoffice.backend.dto.file.FileResponse;
+import com.secureoffice.backend.dto.file.UploadSessionRequest;
+import com.secureoffice.backend.dto.file.UploadSessionResponse;
+import com.secureoffice.backend.exception.BadRequestException;
+import com.secureoffice.backend.exception.ConflictException;
+import com.secureoffice.backend.exception.PayloadTooLargeException;
+import com.secureoffice.backend.exception.ResourceNotFoundException;
+import com.secureoffice.backend.model.FileBlob;
+import com.secureoffice.backend.model.UploadChunk;
+import com.secureoffice.backend.model.UploadSession;
+import com.secureoffice.backend.repository.UploadChunkRepository;
+import com.secureoffice.backend.repository.UploadSessionRepository;
+import com.secureoffice.backend.security.CurrentUserProvider;
+import com.secureoffice.backend.storage.BlobStore;
+import com.secureoffice.backend.storage.CompressionPolicy;
+import com.secureoffice.backend.storage.StreamingUploadWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.FileAlreadyExistsException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.regex.Pattern;
+
+/**
+ * Resumable uploads. Each chunk is streamed to its own staging file named after its
+ * index and checksum, so retries and parallel transfers of the same chunk never
+ * overwrite verified data; the database row for a chunk is the record of which copy
+ * counts. Completion reads every chunk exactly once to assemble the body and compute
+ * the whole-file digest, then hands it to {@link FileService} like a normal upload.
+ */
+@Service
+@Transactional
+public class UploadSessionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(UploadSessionService.class);
+
+    private static final Pattern SHA256_HEX = Pattern.compile("^[0-9a-fA-F]{64}$");
+    private static final int ASSEMBLY_BUFFER_SIZE = 1024 * 1024;
+    private static final int CLEANUP_BATCH_SIZE = 100;
+    private static final Duration COMPLETION_CLAIM_TIMEOUT = Duration.ofHours(1);
+
+    @Autowired
+    private UploadSessionRepository uploadSessionRepository;
+
+    @Autowired
+    private UploadChunkRepository uploadChunkRepository;
+
+    @Autowired
+    private FileUploadConfig fileUploadConfig;
+
+    @Autowired
+    private FileService fileService;
+
+    @Autowired
+    private StreamingUploadWriter streamingUploadWriter;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private CurrentUserProvider currentUserProvider;
+
+    @Autowired
+    private StorageUsageService storageUsageService;
+
+    @Autowired
+    private CompressionPolicy compressionPolicy;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    public UploadSessionResponse createSession(UploadSessionRequest request) {
+        String fileName = FileService.cleanFileName(request.getFilename());
+        long totalSize = request.getTotalSize();
+        if (totalSize > fileUploadConfig.getSessionMaxSize()) {
+            throw new PayloadTooLargeException("File size exceeds maximum allowed size");
+        }
+
+        storageUsageService.checkQuota(currentUserProvider.getReference(), totalSize);
+
+        long chunkSize = fileUploadConfig.getChunkSize();
+        long totalChunks = (totalSize + chunkSize - 1) / chunkSize;
+        if (totalChunks > Integer.MAX_VALUE) {
+            throw new BadRequestException("File is too large for the configured chunk size");
+        }
+
+        UploadSession session = new UploadSession();
+        session.setId(UUID.randomUUID().toString());
+        session.setUser(currentUserProvider.getReference());
+        session.setOriginalFilename(fileName);
+        session.setMimeType(request.getMimeType());
+        session.setFolderPath(FileService.normalizeFolderPath(request.getFolderPath()));
+        session.setTotalSize(totalSize);
+        session.setChunkSize(chunkSize);
+        session.setTotalChunks((int) totalChunks);
+        session.setExpectedHash(request.getSha256() != null ? request.getSha256().toLowerCase() : null);
+        session.setExpiresAt(LocalDateTime.now().plus(Duration.ofMillis(fileUploadConfig.getSessionTtl())));
+
+        UploadSession savedSession = uploadSessionRepository.save(session);
+        return new UploadSessionResponse(savedSession, List.of());
+    }
+
+    @Transactional(readOnly = true)
+    public UploadSessionResponse getSession(String sessionId) {
+        UploadSession session = findOwnedSession(sessionId, false);
+        return new UploadSessionResponse(session, uploadChunkRepository.findReceivedChunkIndexes(session));
+    }
+
+    /**
+     * Stores one chunk. Repeating a chunk with the same checksum is a no-op; a different
+     * checksum for an index that is already recorded is a conflict. The body is received
+     * outside any transaction so a slow client does not hold a database connection; only
+     * recording the chunk is transactional.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public UploadSessionResponse putChunk(String sessionId, int index, InputStream body, long contentLength,
+                                          String checksum) {
+        UploadSession session = findOwnedSession(sessionId, false);
+
+        if (index < 0 || index >= session.getTotalChunks()) {
+            throw new BadRequestException("Chunk index must be between 0 and " + (session.getTotalChunks() - 1));
+        }
+        if (checksum == null || !SHA256_HEX.matcher(checksum).matches()) {
+            throw new BadRequestException("The hex SHA-256 of the chunk is required");
+        }
+        String sha256 = checksum.toLowerCase();
+
+        UploadChunk existing = uploadChunkRepository.findBySessionAndChunkIndex(session, index).orElse(null);
+        if (existing != null) {
+            if (!existing.getSha256().equals(sha256)) {
+                throw new ConflictException("Chunk " + index + " was already received with a different checksum");
+            }
+            return new UploadSessionResponse(session, uploadChunkRepository.findReceivedChunkIndexes(session));
+        }
+
+        long expectedSize = session.getExpectedChunkSize(index);
+        Path chunkFile = chunkPath(session, index, sha256);
+        try {
+            Files.createDirectories(chunkFile.getParent());
+            if (!Files.exists(chunkFile)) {
+                StreamingUploadWriter.StoredUpload stored =
+                    streamingUploadWriter.write(body, chunkFile, contentLength, expectedSize, sha256);
+                if (stored.getSize() != expectedSize) {
+                    Files.deleteIfExists(chunkFile);
+                    throw new BadRequestException("Chunk " + index + " must be " + expectedSize + " bytes");
+                }
+            }
+        } catch (FileAlreadyExistsException ex) {
+            throw new ConflictException("Chunk " + index + " is already being uploaded");
+        } catch (IOException ex) {
+            throw new RuntimeException("Could not store chunk " + index + ". Please try again!", ex);
+        }
+
+        return transactionTemplate.execute(status -> recordChunk(session, index, expectedSize, sha256, chunkFile));
+    }
+
+    /**
+     * Completes the session. It is claimed in a short locked update, and assembly, which
+     * reads every chunk, then runs with no transaction or row lock held; only creating the
+     * file and discarding the session are transactional. A failed completion releases the
+     * claim so the client can retry.
+     */
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public FileResponse completeSession(String sessionId) {
+        UploadSession session = transactionTemplate.execute(status -> claim(sessionId));
+        List<UploadChunk> chunks = uploadChunkRepository.findBySessionOrderByChunkIndex(session);
+
+        Path assembled = blobStore.newIncomingFile();
+        FileBlob.Codec codec = compressionPolicy.codecFor(session.getMimeType(), session.getTotalSize());
+        String sha256;
+        try {
+            sha256 = assemble(session, chunks, assembled, codec);
+        } catch (IOException ex) {
+            deleteQuietly(assembled);
+            release(sessionId);
+            throw new RuntimeException("Could not assemble upload. Please try again!", ex);
+        }
+
+        if (session.getExpectedHash() != null && !session.getExpectedHash().equals(sha256)) {
+            deleteQuietly(assembled);
+            release(sessionId);
+            throw new BadRequestException("Assembled file does not match the declared SHA-256");
+        }
+
+        try {
+            return transactionTemplate.execute(status -> {
+                FileResponse response;
+                try {
+                    response = fileService.createFile(currentUserProvider.getUser(), session.getOriginalFilename(),
+                        session.getMimeType(), session.getFolderPath(), assembled, sha256, session.getTotalSize(), codec);
+                } catch (IOException ex) {
+                    throw new UncheckedIOException(ex);
+                }
+
+                discard(uploadSessionRepository.findByIdForUpdate(sessionId)
+                    .orElseThrow(() -> new ResourceNotFoundException("Upload session not found with id: " + sessionId)));
+                return response;
+            });
+        } catch (UncheckedIOException ex) {
+            release(sessionId);
+            throw new RuntimeException("Could not store file " + session.getOriginalFilename() + ". Please try again!",
+                ex.getCause());
+        } catch (RuntimeException ex) {
+            release(sessionId);
+            throw ex;
+        }
+    }
+
+    public void abortSession(String sessionId) {
+        UploadSession session = findOwnedSession(sessionId, true);
+        if (isClaimed(session)) {
+            throw new ConflictException("Upload session is being completed: " + sessionId);
+        }
+        discard(session);
+    }
+
+    // Abandoned sessions hold staging disk space until they are purged
+    @Scheduled(fixedDelayString = "${file.upload.session-cleanup-interval:3600000}",
+            initialDelayString = "${file.upload.session-cleanup-interval:3600000}")
+    public void purgeExpiredSessions() {
+        List<UploadSession> expired =
+            uploadSessionRepository.findByExpiresAtBefore(LocalDateTime.now(), PageRequest.of(0, CLEANUP_BATCH_SIZE));
+        expired.stream().filter(session -> !isClaimed(session)).forEach(this::discard);
+        if (!expired.isEmpty()) {
+            logger.info("Purged {} expired upload sessions", expired.size());
+        }
+    }
+
+    private UploadSession claim(String sessionId) {
+        UploadSession session = findOwnedSession(sessionId, true);
+        if (isClaimed(session)) {
+            throw new ConflictException("Upload session is already being completed: " + sessionId);
+        }
+
+        int received = uploadChunkRepository.findReceivedChunkIndexes(session).size();
+        if (received != session.getTotalChunks()) {
+            throw new BadRequestException("Upload is incomplete: received " + received + " of "
+                + session.getTotalChunks() + " chunks");
+        }
+
+        session.setCompletingAt(LocalDateTime.now());
+        return session;
+    }
+
+    // A claim older than the timeout is left by a completion that never finished, e.g. a crashed instance
+    private static boolean isClaimed(UploadSession session) {
+        return session.getCompletingAt() != null
+            && session.getCompletingAt().isAfter(LocalDateTime.now().minus(COMPLETION_CLAIM_TIMEOUT));
+    }
+
+    private void release(String sessionId) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> uploadSessionRepository.releaseCompletion(sessionId));
+        } catch (RuntimeException e) {
+            logger.warn("Could not release completion claim on upload session {}", sessionId, e);
+        }
+    }
+
+    private UploadSessionResponse recordChunk(UploadSession session, int index, long size, String sha256,
+                                              Path chunkFile) {
+        uploadChunkRepository.recordChunk(session.getId(), index, size, sha256);
+        UploadChunk recorded = uploadChunkRepository.findBySessionAndChunkIndex(session, index)
+            .orElseThrow(() -> new IllegalStateException("Chunk " + index + " was not recorded"));
+        if (!recorded.getSha256().equals(sha256)) {
+            // A concurrent request won with different content; its copy is the one that counts
+            deleteQuietly(chunkFile);
+            throw new ConflictException("Chunk " + index + " was already received with a different checksum");
+        }
+
+        return new UploadSessionResponse(session, uploadChunkRepository.findReceivedChunkIndexes(session));
+    }
+
+    private UploadSession findOwnedSession(String sessionId, boolean forUpdate) {
+        UploadSession session = (forUpdate
+                ? uploadSessionRepository.findByIdForUpdate(sessionId)
+                : uploadSessionRepository.findById(sessionId))
+            .filter(s -> s.getUser().getId().equals(currentUserProvider.getId()))
+            .orElseThrow(() -> new ResourceNotFoundException("Upload session not found with id: " + sessionId));
+
+        if (session.isExpired()) {
+            throw new ResourceNotFoundException("Upload session has expired: " + sessionId);
+        }
+        return session;
+    }
+
+    // Single read of every chunk: each buffer is hashed and written (encoded if compressing) before the next read
+    private String assemble(UploadSession session, List<UploadChunk> chunks, Path target, FileBlob.Codec codec)
+            throws IOException {
+        MessageDigest digest = newSha256();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(ASSEMBLY_BUFFER_SIZE);
+        long total = 0;
+
+        try (FileChannel file = FileChannel.open(target, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+             WritableByteChannel out = codec == FileBlob.Codec.NONE
+                     ? file
+                     : Channels.newChannel(compressionPolicy.encode(Channels.newOutputStream(file), codec))) {
+            for (UploadChunk chunk : chunks) {
+                try (FileChannel in = FileChannel.open(chunkPath(session, chunk.getChunkIndex(), chunk.getSha256()),
+                        StandardOpenOption.READ)) {
+                    while (in.read(buffer) != -1) {
+                        buffer.flip();
+                        digest.update(buffer.duplicate());
+                        total += buffer.remaining();
+                        while (buffer.hasRemaining()) {
+                            out.write(buffer);
+                        }
+                        buffer.clear();
+                    }
+                }
+            }
+        }
+
+        if (total != session.getTotalSize()) {
+            throw new IOException("Assembled " + total + " bytes, expected " + session.getTotalSize());
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private void discard(UploadSession session) {
+        Path directory = sessionDirectory(session);
+        uploadChunkRepository.deleteBySession(session);
+        uploadSessionRepository.delete(session);
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteDirectory(directory);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                deleteDirectory(directory);
+            }
+        });
+    }
+
+    private Path sessionDirectory(UploadSession session) {
+        return blobStore.stagingDirectory("sessions").resolve(session.getId());
+    }
+
+    private Path chunkPath(UploadSession session, int index, String sha256) {
+        return sessionDirectory(session).resolve(index + "-" + sha256);
+    }
+
+    private static void deleteDirectory(Path directory) {
+        try {
+            FileSystemUtils.deleteRecursively(directory);
+        } catch (IOException e) {
+            logger.warn("Could not delete upload staging directory {}", directory, e);
+        }
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete {}", path, e);
+        }
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
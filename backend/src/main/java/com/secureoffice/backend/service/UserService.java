@@ -4,18 +4,28 @@ import com.secureoffice.backend.dto.user.ChangePasswordRequest;
 import com.secureoffice.backend.dto.user.UpdateUserRequest;
 import com.secureoffice.backend.dto.user.UserResponse;
 import com.secureoffice.backend.exception.ResourceNotFoundException;
+import com.secureoffice.backend.model.AuthToken;
+import com.secureoffice.backend.model.File;
+import com.secureoffice.backend.model.FileBlob;
 import com.secureoffice.backend.model.User;
+import com.secureoffice.backend.repository.AuthTokenRepository;
 import com.secureoffice.backend.repository.UserRepository;
-import com.secureoffice.backend.security.UserPrincipal;
+import com.secureoffice.backend.search.FileSearchIndex;
+import com.secureoffice.backend.security.CurrentUserProvider;
+import com.secureoffice.backend.security.PasswordHashingAdmissionControl;
+import com.secureoffice.backend.security.SecurityVersionRegistry;
+import com.secureoffice.backend.storage.BlobStore;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.stream.Collectors;
 
 @Service
@@ -25,16 +35,56 @@ public class UserService {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private AuthTokenRepository authTokenRepository;
+
     @Autowired
     private PasswordEncoder passwordEncoder;
 
     @Autowired
     private ActivityLogService activityLogService;
 
+    @Autowired
+    private SecurityVersionRegistry securityVersionRegistry;
+
+    @Autowired
+    private CustomUserDetailsService customUserDetailsService;
+
+    @Autowired
+    private CurrentUserProvider currentUserProvider;
+
+    @Autowired
+    private PasswordHashingAdmissionControl passwordHashingAdmissionControl;
+
+    @Autowired
+    private BlobStore blobStore;
+
+    @Autowired
+    private FilePermissionService filePermissionService;
+
+    @Autowired
+    private FileAccessIndexService fileAccessIndexService;
+
+    @Autowired
+    private FileSearchIndex fileSearchIndex;
+
+    @Autowired
+    private ContentIndexService contentIndexService;
+
+    @Autowired
+    private FolderService folderService;
+
+    @Autowired
+    private ProcessingPipelineService processingPipelineService;
+
+    @Autowired
+    private StorageUsageService storageUsageService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
     public UserResponse getCurrentUser() {
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-            .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userPrincipal.getId()));
+        User user = currentUserProvider.getUser();
         
         return new UserResponse(user);
     }
@@ -67,20 +117,25 @@ public class UserService {
     }
 
     public UserResponse updateCurrentUser(UpdateUserRequest request) {
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-            .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userPrincipal.getId()));
+        User user = currentUserProvider.getUser();
 
         // Check if email is already taken by another user
         if (!user.getEmail().equals(request.getEmail()) && userRepository.existsByEmail(request.getEmail())) {
             throw new RuntimeException("Email is already in use by another user");
         }
 
+        boolean identityChanged = !user.getEmail().equals(request.getEmail());
+
         user.setFirstName(request.getFirstName());
         user.setLastName(request.getLastName());
         user.setEmail(request.getEmail());
 
         User updatedUser = userRepository.save(user);
+        // Issued tokens carry the email as a claim; they must not outlive it
+        if (identityChanged) {
+            securityVersionRegistry.bump(updatedUser.getId());
+        }
+        customUserDetailsService.evictUser(updatedUser.getId());
         
         // Log activity
         activityLogService.logActivity(updatedUser, "PROFILE_UPDATE", "USER", updatedUser.getId());
@@ -88,22 +143,40 @@ public class UserService {
         return new UserResponse(updatedUser);
     }
 
+    // Not transactional: the request waits on the hashing pool, and must not hold a connection meanwhile
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
     public void changePassword(ChangePasswordRequest request) {
-        UserPrincipal userPrincipal = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User user = userRepository.findById(userPrincipal.getId())
-            .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userPrincipal.getId()));
+        User user = currentUserProvider.getUser();
 
-        // Verify current password
-        if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
-            throw new RuntimeException("Current password is incorrect");
+        String passwordHash;
+        try (PasswordHashingAdmissionControl.Permit permit =
+                 passwordHashingAdmissionControl.acquire(user.getUsername())) {
+            // Verify current password
+            if (!passwordEncoder.matches(request.getCurrentPassword(), user.getPassword())) {
+                throw new RuntimeException("Current password is incorrect");
+            }
+
+            passwordHash = passwordEncoder.encode(request.getNewPassword());
         }
 
-        // Update password
-        user.setPassword(passwordEncoder.encode(request.getNewPassword()));
-        userRepository.save(user);
+        transactionTemplate.executeWithoutResult(status -> {
+            User current = userRepository.findById(user.getId())
+                .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + user.getId()));
 
-        // Log activity
-        activityLogService.logActivity(user, "PASSWORD_CHANGE", "USER", user.getId());
+            // A concurrent change got in between; the verified password is no longer the current one
+            if (!user.getPassword().equals(current.getPassword())) {
+                throw new RuntimeException("Current password is incorrect");
+            }
+
+            // Update password
+            current.setPassword(passwordHash);
+            userRepository.save(current);
+            securityVersionRegistry.bump(current.getId());
+            customUserDetailsService.evictUser(current.getId());
+
+            // Log activity
+            activityLogService.logActivity(current, "PASSWORD_CHANGE", "USER", current.getId());
+        });
     }
 
     // Admin methods
@@ -114,14 +187,13 @@ public class UserService {
         User.Role oldRole = user.getRole();
         user.setRole(role);
         User updatedUser = userRepository.save(user);
+        securityVersionRegistry.bump(userId);
+        customUserDetailsService.evictUser(userId);
 
         // Log activity
-        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User adminUser = userRepository.findById(currentUser.getId()).orElse(null);
-        if (adminUser != null) {
-            activityLogService.logActivity(adminUser, "USER_ROLE_UPDATE", "USER", userId, 
-                java.util.Map.of("oldRole", oldRole.name(), "newRole", role.name()));
-        }
+        User adminUser = currentUserProvider.getReference();
+        activityLogService.logActivity(adminUser, "USER_ROLE_UPDATE", "USER", userId, 
+            java.util.Map.of("oldRole", oldRole.name(), "newRole", role.name()));
 
         return new UserResponse(updatedUser);
     }
@@ -133,14 +205,17 @@ public class UserService {
         boolean oldStatus = user.getIsActive();
         user.setIsActive(!oldStatus);
         User updatedUser = userRepository.save(user);
+        securityVersionRegistry.bump(userId);
+        customUserDetailsService.evictUser(userId);
+        if (!updatedUser.getIsActive()) {
+            // Sessions end with the account, as after a password reset
+            authTokenRepository.deleteByUserAndTokenType(updatedUser, AuthToken.TokenType.REFRESH);
+        }
 
         // Log activity
-        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User adminUser = userRepository.findById(currentUser.getId()).orElse(null);
-        if (adminUser != null) {
-            String action = updatedUser.getIsActive() ? "USER_ACTIVATE" : "USER_DEACTIVATE";
-            activityLogService.logActivity(adminUser, action, "USER", userId);
-        }
+        User adminUser = currentUserProvider.getReference();
+        String action = updatedUser.getIsActive() ? "USER_ACTIVATE" : "USER_DEACTIVATE";
+        activityLogService.logActivity(adminUser, action, "USER", userId);
 
         return new UserResponse(updatedUser);
     }
@@ -150,14 +225,33 @@ public class UserService {
             .orElseThrow(() -> new ResourceNotFoundException("User not found with id: " + userId));
 
         // Log activity before deletion
-        UserPrincipal currentUser = (UserPrincipal) SecurityContextHolder.getContext().getAuthentication().getPrincipal();
-        User adminUser = userRepository.findById(currentUser.getId()).orElse(null);
-        if (adminUser != null) {
-            activityLogService.logActivity(adminUser, "USER_DELETE", "USER", userId, 
-                java.util.Map.of("deletedUsername", user.getUsername()));
-        }
-
+        User adminUser = currentUserProvider.getReference();
+        activityLogService.logActivity(adminUser, "USER_DELETE", "USER", userId, 
+            java.util.Map.of("deletedUsername", user.getUsername()));
+
+        // Uploaded files go with the user; drop their references to shared file bodies
+        List<FileBlob> blobs = user.getUploadedFiles().stream()
+            .map(File::getBlob)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+
+        List<Long> fileIds = user.getUploadedFiles().stream()
+            .map(File::getId)
+            .collect(Collectors.toList());
+
+        fileAccessIndexService.userDeleted(userId);
+        folderService.ownerDeleted(userId);
+        processingPipelineService.userDeleted(userId);
+        storageUsageService.userDeleted(userId);
         userRepository.delete(user);
+        userRepository.flush();
+        blobs.forEach(blobStore::release);
+        fileIds.forEach(fileSearchIndex::remove);
+        fileIds.forEach(contentIndexService::fileDeleted);
+
+        securityVersionRegistry.bump(userId);
+        customUserDetailsService.evictUser(userId);
+        filePermissionService.evictUser(userId);
     }
 
     // Statistics methods
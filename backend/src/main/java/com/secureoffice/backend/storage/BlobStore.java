@@ -0,0 +1,259 @@
+package com.secureoffice.backend.storage;
+
+import com.secureoffice.backend.config.FileUploadConfig;
+import com.secureoffice.backend.config.ThumbnailConfig;
+import com.secureoffice.backend.model.File;
+import com.secureoffice.backend.model.FileBlob;
+import com.secureoffice.backend.repository.FileBlobRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed storage for uploaded file bodies. Bodies are kept in the
+ * {@link StorageBackend} under {@code blobs/ab/cd/<sha256>}, a two-level hash-prefix
+ * fan-out that keeps directories small whatever the folder structure, and are shared
+ * by every file row with the same content; reference counts in {@code file_blobs}
+ * decide when a body can go. Uploads in progress are staged on the local file system
+ * under the upload directory.
+ */
+@Component
+public class BlobStore {
+
+    private static final Logger logger = LoggerFactory.getLogger(BlobStore.class);
+
+    private static final String BLOB_PREFIX = "blobs/";
+    private static final String TOMBSTONE_SUFFIX = ".deleted";
+
+    @Autowired
+    private FileBlobRepository fileBlobRepository;
+
+    @Autowired
+    private StorageBackend storageBackend;
+
+    @Autowired
+    private ThumbnailConfig thumbnailConfig;
+
+    private final Path root;
+    private final Path incoming;
+
+    public BlobStore(FileUploadConfig fileUploadConfig) {
+        this.root = Paths.get(fileUploadConfig.getDir()).toAbsolutePath().normalize();
+        this.incoming = root.resolve(".incoming");
+
+        try {
+            Files.createDirectories(this.incoming);
+        } catch (Exception ex) {
+            throw new RuntimeException("Could not create the directory where the uploaded files will be stored.", ex);
+        }
+    }
+
+    /**
+     * Returns a fresh path for an upload in progress. It is on the same file system as
+     * the local backend, so {@link #store} can move it into place with a rename.
+     */
+    public Path newIncomingFile() {
+        return incoming.resolve(UUID.randomUUID().toString());
+    }
+
+    // Scratch area for uploads that are assembled over several requests
+    public Path stagingDirectory(String name) {
+        return incoming.resolve(name);
+    }
+
+    /**
+     * Adds a reference to the blob with this content, moving {@code uploadedFile} into
+     * the backend if the content is new and discarding it otherwise. {@code size} is the
+     * content size and {@code codec} how {@code uploadedFile} is encoded. Must run inside
+     * the transaction that saves the referencing file row.
+     */
+    public FileBlob store(Path uploadedFile, String sha256, long size, FileBlob.Codec codec) throws IOException {
+        String storagePath = storagePathFor(sha256);
+
+        // Lock (or create) the row first so a concurrent delete of the last reference
+        // cannot remove the body between the existence check and the commit
+        fileBlobRepository.acquire(sha256, storagePath, size, codec.name(), Files.size(uploadedFile));
+
+        if (storageBackend.exists(storagePath)) {
+            Files.deleteIfExists(uploadedFile);
+        } else {
+            storageBackend.put(storagePath, uploadedFile);
+        }
+
+        return fileBlobRepository.findByContentHash(sha256)
+            .orElseThrow(() -> new IllegalStateException("Blob disappeared after acquire: " + sha256));
+    }
+
+    /**
+     * Drops one reference. When it was the last one the row is deleted and the body is
+     * removed once the surrounding transaction commits; on rollback it is restored.
+     */
+    public void release(FileBlob blob) {
+        if (blob == null) {
+            return;
+        }
+
+        // Read before the bulk delete; a lazy proxy could not be initialised afterwards
+        String storagePath = blob.getStoragePath();
+
+        fileBlobRepository.releaseReference(blob.getId());
+        if (fileBlobRepository.deleteIfUnreferenced(blob.getId()) == 0) {
+            return;
+        }
+
+        String tombstone = storagePath + TOMBSTONE_SUFFIX;
+        try {
+            if (!storageBackend.move(storagePath, tombstone)) {
+                return;
+            }
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete file: " + e.getMessage());
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            deleteQuietly(tombstone);
+            deleteRenditions(storagePath);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status == STATUS_COMMITTED) {
+                    deleteQuietly(tombstone);
+                    deleteRenditions(storagePath);
+                } else {
+                    try {
+                        storageBackend.move(tombstone, storagePath);
+                    } catch (IOException e) {
+                        logger.error("Could not restore blob {} after rollback", storagePath, e);
+                    }
+                }
+            }
+        });
+    }
+
+    // Files stored before deduplication own their body outright
+    public void release(File file) {
+        if (file.getBlob() != null) {
+            release(file.getBlob());
+            return;
+        }
+        String storageKey = keyOf(file);
+        try {
+            storageBackend.delete(storageKey);
+        } catch (IOException e) {
+            throw new RuntimeException("Failed to delete file: " + e.getMessage());
+        }
+        deleteRenditions(storageKey);
+    }
+
+    // Bodies, renditions and tombstones under blobs/; the stream must be closed
+    public Stream<String> listBlobKeys() throws IOException {
+        return storageBackend.list(BLOB_PREFIX);
+    }
+
+    /**
+     * Deletes those of {@code keys} that belong to no blob row and were last written
+     * before {@code cutoff}; the age guard keeps bodies of uploads that have not
+     * committed yet. A tombstone that old was left by an interrupted release and goes
+     * whether or not the content has been stored again since. The rows are read with a
+     * lock, so a concurrent upload of the same content waits rather than reusing a body
+     * that is about to be deleted. Returns the number of keys deleted.
+     */
+    @Transactional
+    public int deleteOrphans(Collection<String> keys, Instant cutoff) {
+        Set<String> hashes = keys.stream().map(BlobStore::contentHashOf).collect(Collectors.toSet());
+        Set<String> referenced = fileBlobRepository.findByContentHashIn(hashes).stream()
+                .map(FileBlob::getContentHash)
+                .collect(Collectors.toSet());
+
+        int deleted = 0;
+        for (String key : keys) {
+            if (!key.endsWith(TOMBSTONE_SUFFIX) && referenced.contains(contentHashOf(key))) {
+                continue;
+            }
+            try {
+                if (storageBackend.lastModified(key).isBefore(cutoff) && storageBackend.delete(key)) {
+                    deleted++;
+                }
+            } catch (NoSuchFileException e) {
+                // Already gone
+            } catch (IOException e) {
+                logger.warn("Could not delete orphaned blob {}", key, e);
+            }
+        }
+        return deleted;
+    }
+
+    // Preview renditions live next to the body they were made from and go with it
+    public String thumbnailKey(String storageKey, int size) {
+        return storageKey + ".thumb-" + size + ".jpg";
+    }
+
+    // Decoded content of a stored body
+    public InputStream open(String storageKey, FileBlob.Codec codec) throws IOException {
+        return CompressionPolicy.decode(storageBackend.get(storageKey), codec);
+    }
+
+    public FileBlob.Codec codecOf(File file) {
+        return file.getBlob() != null ? file.getBlob().getCodec() : FileBlob.Codec.NONE;
+    }
+
+    public String keyOf(File file) {
+        return keyOf(file.getBlob() != null ? file.getBlob().getStoragePath() : null, file.getFilePath());
+    }
+
+    /**
+     * Storage key of a body. Files stored before deduplication have no blob and record
+     * the absolute path of their body under the upload directory instead.
+     */
+    public String keyOf(String storagePath, String filePath) {
+        if (storagePath != null) {
+            return storagePath;
+        }
+        Path path = Paths.get(filePath);
+        return path.isAbsolute() ? root.relativize(path.normalize()).toString() : filePath;
+    }
+
+    private static String storagePathFor(String sha256) {
+        return BLOB_PREFIX + sha256.substring(0, 2) + "/" + sha256.substring(2, 4) + "/" + sha256;
+    }
+
+    // Last path segment up to the first suffix: blobs/ab/cd/<sha256>.thumb-256.jpg -> <sha256>
+    private static String contentHashOf(String key) {
+        String name = key.substring(key.lastIndexOf('/') + 1);
+        int suffix = name.indexOf('.');
+        return suffix >= 0 ? name.substring(0, suffix) : name;
+    }
+
+    private void deleteRenditions(String storageKey) {
+        for (int size : thumbnailConfig.getSizes()) {
+            deleteQuietly(thumbnailKey(storageKey, size));
+        }
+    }
+
+    private void deleteQuietly(String storagePath) {
+        try {
+            storageBackend.delete(storagePath);
+        } catch (IOException e) {
+            logger.warn("Could not delete blob {}", storagePath, e);
+        }
+    }
+}
@@ -0,0 +1,86 @@
+package com.secureoffice.backend.storage;
+
+import com.secureoffice.backend.config.CompressionConfig;
+import com.secureoffice.backend.model.FileBlob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.List;
+import java.util.Locale;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Decides which bodies are compressed at rest and wraps streams accordingly. Only
+ * text-like MIME types are compressed; formats that are already compressed (images,
+ * archives, OOXML documents) gain nothing and are stored as they are.
+ */
+@Component
+public class CompressionPolicy {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private CompressionConfig compressionConfig;
+
+    /**
+     * @param declaredSize size announced by the client, or -1 when unknown
+     */
+    public FileBlob.Codec codecFor(String mimeType, long declaredSize) {
+        if (!compressionConfig.isEnabled() || mimeType == null) {
+            return FileBlob.Codec.NONE;
+        }
+        if (declaredSize >= 0 && declaredSize < compressionConfig.getMinSize()) {
+            return FileBlob.Codec.NONE;
+        }
+
+        return matchesAny(mimeType, compressionConfig.getMimeTypes()) ? FileBlob.Codec.GZIP : FileBlob.Codec.NONE;
+    }
+
+    /**
+     * Whether the MIME type, without parameters, matches one of the patterns: exact
+     * types or {@code type/*} wildcards, compared case-insensitively.
+     */
+    public static boolean matchesAny(String mimeType, List<String> patterns) {
+        if (mimeType == null) {
+            return false;
+        }
+        String type = mimeType.toLowerCase(Locale.ROOT);
+        int semicolon = type.indexOf(';');
+        if (semicolon >= 0) {
+            type = type.substring(0, semicolon);
+        }
+        type = type.trim();
+
+        for (String pattern : patterns) {
+            String candidate = pattern.toLowerCase(Locale.ROOT).trim();
+            boolean matches = candidate.endsWith("/*")
+                    ? type.startsWith(candidate.substring(0, candidate.length() - 1))
+                    : type.equals(candidate);
+            if (matches) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Closing the returned stream finishes the encoding and closes {@code out}
+    public OutputStream encode(OutputStream out, FileBlob.Codec codec) throws IOException {
+        if (codec != FileBlob.Codec.GZIP) {
+            return out;
+        }
+        int level = compressionConfig.getLevel();
+        return new GZIPOutputStream(out, BUFFER_SIZE) {
+            {
+                def.setLevel(level);
+            }
+        };
+    }
+
+    public static InputStream decode(InputStream in, FileBlob.Codec codec) throws IOException {
+        return codec == FileBlob.Codec.GZIP ? new GZIPInputStream(in, BUFFER_SIZE) : in;
+    }
+}
@@ -0,0 +1,114 @@
+package com.secureoffice.backend.storage;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * Keeps bodies on the heap. Meant for tests and throwaway environments: contents are
+ * lost on restart and every body costs its size in memory.
+ */
+public class InMemoryStorageBackend implements StorageBackend {
+
+    private final Map<String, byte[]> bodies = new ConcurrentHashMap<>();
+    private final Map<String, Instant> modified = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        bodies.put(key, Files.readAllBytes(source));
+        modified.put(key, Instant.now());
+        Files.delete(source);
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return new ByteArrayInputStream(body(key));
+    }
+
+    @Override
+    public InputStream range(String key, long start, long end) throws IOException {
+        byte[] body = body(key);
+        int from = (int) Math.min(start, body.length);
+        int to = (int) Math.min(end, body.length);
+        return new ByteArrayInputStream(body, from, Math.max(to - from, 0));
+    }
+
+    @Override
+    public long stream(String key, long start, long end, WritableByteChannel target) throws IOException {
+        byte[] body = body(key);
+        int from = (int) Math.min(start, body.length);
+        int to = (int) Math.min(end, body.length);
+        ByteBuffer buffer = ByteBuffer.wrap(body, from, Math.max(to - from, 0));
+        long written = 0;
+        while (buffer.hasRemaining()) {
+            written += target.write(buffer);
+        }
+        return written;
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        return body(key).length;
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return bodies.containsKey(key);
+    }
+
+    @Override
+    public boolean delete(String key) {
+        modified.remove(key);
+        return bodies.remove(key) != null;
+    }
+
+    @Override
+    public boolean move(String sourceKey, String targetKey) {
+        byte[] body = bodies.remove(sourceKey);
+        if (body == null) {
+            return false;
+        }
+        bodies.put(targetKey, body);
+        modified.put(targetKey, modified.getOrDefault(sourceKey, Instant.now()));
+        modified.remove(sourceKey);
+        return true;
+    }
+
+    @Override
+    public Stream<String> list(String prefix) {
+        String directory = prefix.endsWith("/") ? prefix : prefix + "/";
+        return bodies.keySet().stream()
+                .filter(key -> key.startsWith(directory))
+                .toList()
+                .stream();
+    }
+
+    @Override
+    public Instant lastModified(String key) throws NoSuchFileException {
+        body(key);
+        return modified.getOrDefault(key, Instant.EPOCH);
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.empty();
+    }
+
+    private byte[] body(String key) throws NoSuchFileException {
+        byte[] body = bodies.get(key);
+        if (body == null) {
+            throw new NoSuchFileException(key);
+        }
+        return body;
+    }
+}
@@ -0,0 +1,159 @@
+package com.secureoffice.backend.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Stores each body as a file at {@code <root>/<key>}. Keys are relative paths, so the
+ * directory layout is whatever the keys spell out; {@link BlobStore} fans blobs out
+ * over two levels of hash-prefix directories.
+ */
+public class LocalStorageBackend implements StorageBackend {
+
+    private final Path root;
+
+    public LocalStorageBackend(Path root) {
+        this.root = root.toAbsolutePath().normalize();
+    }
+
+    @Override
+    public void put(String key, Path source) throws IOException {
+        Path target = resolve(key);
+        Files.createDirectories(target.getParent());
+        // Same file system as the incoming area, so this is a rename
+        Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    @Override
+    public InputStream get(String key) throws IOException {
+        return Files.newInputStream(resolve(key));
+    }
+
+    @Override
+    public InputStream range(String key, long start, long end) throws IOException {
+        FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ);
+        channel.position(start);
+        return new BoundedInputStream(Channels.newInputStream(channel), end - start);
+    }
+
+    @Override
+    public long stream(String key, long start, long end, WritableByteChannel target) throws IOException {
+        try (FileChannel channel = FileChannel.open(resolve(key), StandardOpenOption.READ)) {
+            long position = start;
+            while (position < end) {
+                long sent = channel.transferTo(position, end - position, target);
+                if (sent <= 0) {
+                    break;
+                }
+                position += sent;
+            }
+            return position - start;
+        }
+    }
+
+    @Override
+    public long size(String key) throws IOException {
+        return Files.size(resolve(key));
+    }
+
+    @Override
+    public boolean exists(String key) {
+        return Files.exists(resolve(key));
+    }
+
+    @Override
+    public boolean delete(String key) throws IOException {
+        return Files.deleteIfExists(resolve(key));
+    }
+
+    @Override
+    public boolean move(String sourceKey, String targetKey) throws IOException {
+        try {
+            Files.move(resolve(sourceKey), resolve(targetKey), StandardCopyOption.ATOMIC_MOVE);
+            return true;
+        } catch (NoSuchFileException e) {
+            return false;
+        }
+    }
+
+    @Override
+    public Stream<String> list(String prefix) throws IOException {
+        Path directory = resolve(prefix);
+        if (!Files.isDirectory(directory)) {
+            return Stream.empty();
+        }
+        // Keys always use '/', whatever the platform separator
+        return Files.walk(directory)
+                .filter(Files::isRegularFile)
+                .map(path -> root.relativize(path).toString().replace(java.io.File.separatorChar, '/'));
+    }
+
+    @Override
+    public Instant lastModified(String key) throws IOException {
+        return Files.getLastModifiedTime(resolve(key)).toInstant();
+    }
+
+    @Override
+    public Optional<Path> localPath(String key) {
+        return Optional.of(resolve(key));
+    }
+
+    private Path resolve(String key) {
+        Path path = root.resolve(key).normalize();
+        if (!path.startsWith(root)) {
+            throw new IllegalArgumentException("Storage key escapes the storage root: " + key);
+        }
+        return path;
+    }
+
+    // Closes the underlying stream, and with it the channel, when closed
+    private static final class BoundedInputStream extends InputStream {
+        private final InputStream in;
+        private long remaining;
+
+        private BoundedInputStream(InputStream in, long limit) {
+            this.in = in;
+            this.remaining = limit;
+        }
+
+        @Override
+        public int read() throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int b = in.read();
+            if (b >= 0) {
+                remaining--;
+            }
+            return b;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException {
+            if (remaining <= 0) {
+                return -1;
+            }
+            int read = in.read(buffer, offset, (int) Math.min(length, remaining));
+            if (read > 0) {
+                remaining -= read;
+            }
+            return read;
+        }
+
+        @Override
+        public void close() throws IOException {
+            in.close();
+        }
+    }
+}
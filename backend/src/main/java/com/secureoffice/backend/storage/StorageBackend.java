@@ -0,0 +1,60 @@
+package com.secureoffice.backend.storage;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.channels.WritableByteChannel;
+import java.nio.file.Path;
+import java.time.Instant;
+import java.util.Optional;
+import java.util.stream.Stream;
+
+/**
+ * Where stored file bodies live. Bodies are addressed by an opaque key chosen by the
+ * caller ({@link BlobStore} uses the content-addressed storage path). Reads of a key
+ * that is not stored fail with {@link java.nio.file.NoSuchFileException}.
+ */
+public interface StorageBackend {
+
+    /**
+     * Stores the file at {@code source} under {@code key}, replacing nothing: the caller
+     * ensures the key is free. The source file is consumed (moved or deleted).
+     */
+    void put(String key, Path source) throws IOException;
+
+    InputStream get(String key) throws IOException;
+
+    // Bytes from start (inclusive) to end (exclusive)
+    InputStream range(String key, long start, long end) throws IOException;
+
+    /**
+     * Writes bytes from start (inclusive) to end (exclusive) to {@code target} without
+     * an intermediate copy where the backend allows it.
+     *
+     * @return the number of bytes written
+     */
+    long stream(String key, long start, long end, WritableByteChannel target) throws IOException;
+
+    long size(String key) throws IOException;
+
+    boolean exists(String key);
+
+    // False when nothing was stored under the key
+    boolean delete(String key) throws IOException;
+
+    // False when nothing was stored under the source key
+    boolean move(String sourceKey, String targetKey) throws IOException;
+
+    /**
+     * Keys stored under {@code prefix}, in no particular order. The stream may hold open
+     * resources and must be closed.
+     */
+    Stream<String> list(String prefix) throws IOException;
+
+    Instant lastModified(String key) throws IOException;
+
+    /**
+     * The body as a file on the local file system, for handing to the container's
+     * sendfile support; empty for backends that do not keep bodies in files.
+     */
+    Optional<Path> localPath(String key);
+}
@@ -0,0 +1,129 @@
+package com.secureoffice.backend.storage;
+
+import com.secureoffice.backend.config.FileUploadConfig;
+import com.secureoffice.backend.exception.BadRequestException;
+import com.secureoffice.backend.exception.PayloadTooLargeException;
+import com.secureoffice.backend.model.FileBlob;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * Writes an upload body to its final location in a single pass, enforcing the
+ * configured size limit while bytes arrive and computing the SHA-256 digest and
+ * byte count on the way through; the digest and byte count are of the content even
+ * when it is stored compressed. The body is written to a sibling ".part" file and
+ * renamed into place, so a rejected or interrupted upload never leaves a partial
+ * file under the target name.
+ */
+@Component
+public class StreamingUploadWriter {
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    @Autowired
+    private FileUploadConfig fileUploadConfig;
+
+    @Autowired
+    private CompressionPolicy compressionPolicy;
+
+    /**
+     * @param declaredLength length announced by the client (Content-Length or the
+     *                       multipart part size), or -1 when unknown
+     */
+    public StoredUpload write(InputStream in, Path target, long declaredLength) throws IOException {
+        return write(in, target, declaredLength, FileBlob.Codec.NONE);
+    }
+
+    // Encodes the body with {@code codec} as it is written
+    public StoredUpload write(InputStream in, Path target, long declaredLength, FileBlob.Codec codec)
+            throws IOException {
+        return write(in, target, declaredLength, fileUploadConfig.getMaxSize(), null, codec);
+    }
+
+    /**
+     * Same as {@link #write(InputStream, Path, long)} with an explicit size limit and,
+     * when {@code expectedSha256} is given, a checksum that must match before the body
+     * is moved into place.
+     */
+    public StoredUpload write(InputStream in, Path target, long declaredLength, long maxSize,
+                              String expectedSha256) throws IOException {
+        return write(in, target, declaredLength, maxSize, expectedSha256, FileBlob.Codec.NONE);
+    }
+
+    private StoredUpload write(InputStream in, Path target, long declaredLength, long maxSize,
+                               String expectedSha256, FileBlob.Codec codec) throws IOException {
+        if (declaredLength > maxSize) {
+            // Reject before reading a single byte of the body
+            throw new PayloadTooLargeException("File size exceeds maximum allowed size");
+        }
+
+        MessageDigest digest = newSha256();
+        Path partial = target.resolveSibling(target.getFileName() + ".part");
+        long written = 0;
+
+        // Opened outside the try: if another request owns the partial file it must not be deleted here
+        OutputStream file = Files.newOutputStream(partial, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE);
+        try (file; OutputStream out = compressionPolicy.encode(file, codec)) {
+            byte[] buffer = new byte[BUFFER_SIZE];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                written += read;
+                if (written > maxSize) {
+                    throw new PayloadTooLargeException("File size exceeds maximum allowed size");
+                }
+                digest.update(buffer, 0, read);
+                out.write(buffer, 0, read);
+            }
+        } catch (IOException | RuntimeException ex) {
+            Files.deleteIfExists(partial);
+            throw ex;
+        }
+
+        String sha256 = HexFormat.of().formatHex(digest.digest());
+        if (expectedSha256 != null && !expectedSha256.equalsIgnoreCase(sha256)) {
+            Files.deleteIfExists(partial);
+            throw new BadRequestException("Checksum mismatch: received content has SHA-256 " + sha256);
+        }
+
+        Files.move(partial, target, StandardCopyOption.ATOMIC_MOVE);
+        return new StoredUpload(target, written, sha256, codec);
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+
+    public static class StoredUpload {
+        private final Path path;
+        private final long size;
+        private final String sha256;
+        private final FileBlob.Codec codec;
+
+        public StoredUpload(Path path, long size, String sha256, FileBlob.Codec codec) {
+            this.path = path;
+            this.size = size;
+            this.sha256 = sha256;
+            this.codec = codec;
+        }
+
+        public Path getPath() { return path; }
+        public long getSize() { return size; }
+        public String getSha256() { return sha256; }
+        public FileBlob.Codec getCodec() { return codec; }
+    }
+}
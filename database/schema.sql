@@ -15,8 +15,6 @@ CREATE TABLE users (
     role ENUM('ADMIN', 'MANAGER', 'EMPLOYEE') DEFAULT 'EMPLOYEE',
     is_active BOOLEAN DEFAULT TRUE,
     email_verified BOOLEAN DEFAULT FALSE,
-    password_reset_token VARCHAR(255),
-    password_reset_expires TIMESTAMP NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     INDEX idx_username (username),
@@ -47,6 +45,19 @@ CREATE TABLE user_departments (
     UNIQUE KEY unique_user_department (user_id, department_id)
 );
 
+-- Deduplicated file bodies, addressed by SHA-256 of the content
+CREATE TABLE file_blobs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    content_hash CHAR(64) NOT NULL,
+    storage_path VARCHAR(500) NOT NULL,
+    file_size BIGINT NOT NULL,
+    codec ENUM('NONE', 'GZIP') NOT NULL DEFAULT 'NONE',
+    stored_size BIGINT,
+    reference_count INT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_file_blob_content_hash (content_hash)
+);
+
 -- Files table for document management
 CREATE TABLE files (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -57,14 +68,23 @@ CREATE TABLE files (
     mime_type VARCHAR(100),
     folder_path VARCHAR(500) DEFAULT '/',
     uploaded_by BIGINT NOT NULL,
+    content_hash CHAR(64),
+    blob_id BIGINT NULL,
     is_public BOOLEAN DEFAULT FALSE,
+    thumbnail_ready BOOLEAN NOT NULL DEFAULT FALSE,
+    deleted_at TIMESTAMP NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     updated_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP,
     FOREIGN KEY (uploaded_by) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (blob_id) REFERENCES file_blobs(id),
     INDEX idx_filename (filename),
     INDEX idx_folder_path (folder_path),
     INDEX idx_uploaded_by (uploaded_by),
-    INDEX idx_created_at (created_at)
+    INDEX idx_created_at (created_at),
+    INDEX idx_blob_id (blob_id),
+    INDEX idx_public_created_at (is_public, created_at, id),
+    INDEX idx_public_folder_created_at (is_public, folder_path, created_at, id),
+    INDEX idx_deleted_at (deleted_at)
 );
 
 -- File sharing permissions
@@ -81,6 +101,67 @@ CREATE TABLE file_shares (
     UNIQUE KEY unique_file_user_permission (file_id, user_id, permission_type)
 );
 
+-- Listing read model: who can see which file, kept in step with files and file_shares
+CREATE TABLE file_access (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    file_id BIGINT NOT NULL,
+    folder_path VARCHAR(500) NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    is_public BOOLEAN NOT NULL DEFAULT FALSE,
+    permission ENUM('OWNER', 'EDIT', 'DOWNLOAD', 'VIEW') NOT NULL,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    FOREIGN KEY (file_id) REFERENCES files(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_file_access_user_file (user_id, file_id),
+    INDEX idx_file_access_user_created (user_id, is_public, created_at, file_id),
+    INDEX idx_file_access_user_folder (user_id, is_public, folder_path, created_at, file_id),
+    INDEX idx_file_access_file (file_id)
+);
+
+-- Folder tree per owner; direct and subtree totals are kept up to date on every upload, move and delete
+CREATE TABLE folders (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    owner_id BIGINT NOT NULL,
+    path VARCHAR(500) NOT NULL,
+    parent_path VARCHAR(500),
+    name VARCHAR(500) NOT NULL,
+    file_count BIGINT NOT NULL DEFAULT 0,
+    byte_count BIGINT NOT NULL DEFAULT 0,
+    total_file_count BIGINT NOT NULL DEFAULT 0,
+    total_bytes BIGINT NOT NULL DEFAULT 0,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (owner_id) REFERENCES users(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_folder_owner_path (owner_id, path),
+    INDEX idx_folder_owner_parent (owner_id, parent_path)
+);
+
+-- Post-upload processing state per file; stage is the stage the job waits for or runs
+CREATE TABLE processing_jobs (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    file_id BIGINT NOT NULL,
+    status ENUM('PENDING', 'PROCESSING', 'READY', 'FAILED') NOT NULL,
+    stage VARCHAR(50),
+    attempts INT NOT NULL DEFAULT 0,
+    next_attempt_at TIMESTAMP NOT NULL,
+    last_error VARCHAR(1000),
+    created_at TIMESTAMP NOT NULL,
+    updated_at TIMESTAMP NOT NULL,
+    FOREIGN KEY (file_id) REFERENCES files(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_processing_job_file (file_id),
+    INDEX idx_processing_job_due (status, stage, next_attempt_at)
+);
+
+-- Storage usage counters per user, per department and globally (scope_id 0); reconciled against files periodically
+CREATE TABLE storage_usage (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    scope_type ENUM('GLOBAL', 'USER', 'DEPARTMENT') NOT NULL,
+    scope_id BIGINT NOT NULL,
+    file_count BIGINT NOT NULL DEFAULT 0,
+    byte_count BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    UNIQUE KEY uk_storage_usage_scope (scope_type, scope_id)
+);
+
 -- Messages table for team communication
 CREATE TABLE messages (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
@@ -138,17 +219,48 @@ CREATE TABLE activity_logs (
     INDEX idx_created_at (created_at)
 );
 
--- Refresh tokens for JWT authentication
-CREATE TABLE refresh_tokens (
+-- Refresh and password reset tokens; only the SHA-256 digest of each token is stored
+CREATE TABLE auth_tokens (
     id BIGINT AUTO_INCREMENT PRIMARY KEY,
     user_id BIGINT NOT NULL,
-    token VARCHAR(255) UNIQUE NOT NULL,
+    token_hash BINARY(32) NOT NULL,
+    token_type ENUM('REFRESH', 'PASSWORD_RESET') NOT NULL,
     expires_at TIMESTAMP NOT NULL,
     created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
     FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
-    INDEX idx_token (token),
-    INDEX idx_user_id (user_id),
-    INDEX idx_expires_at (expires_at)
+    UNIQUE KEY uk_auth_token_hash (token_hash),
+    INDEX idx_auth_token_user_type (user_id, token_type),
+    INDEX idx_auth_token_expires_at (expires_at)
+);
+
+-- Resumable uploads in progress; rows are removed on completion, abort or expiry
+CREATE TABLE upload_sessions (
+    id CHAR(36) PRIMARY KEY,
+    user_id BIGINT NOT NULL,
+    original_filename VARCHAR(255) NOT NULL,
+    mime_type VARCHAR(100),
+    folder_path VARCHAR(500) NOT NULL,
+    total_size BIGINT NOT NULL,
+    chunk_size BIGINT NOT NULL,
+    total_chunks INT NOT NULL,
+    expected_hash CHAR(64),
+    expires_at TIMESTAMP NOT NULL,
+    completing_at TIMESTAMP NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (user_id) REFERENCES users(id) ON DELETE CASCADE,
+    INDEX idx_upload_session_user (user_id),
+    INDEX idx_upload_session_expires_at (expires_at)
+);
+
+CREATE TABLE upload_chunks (
+    id BIGINT AUTO_INCREMENT PRIMARY KEY,
+    session_id CHAR(36) NOT NULL,
+    chunk_index INT NOT NULL,
+    chunk_size BIGINT NOT NULL,
+    sha256 CHAR(64) NOT NULL,
+    created_at TIMESTAMP DEFAULT CURRENT_TIMESTAMP,
+    FOREIGN KEY (session_id) REFERENCES upload_sessions(id) ON DELETE CASCADE,
+    UNIQUE KEY uk_upload_chunk_session_index (session_id, chunk_index)
 );
 
 -- Insert default admin user (password: admin123)
@@ -29,29 +29,59 @@ api.interceptors.request.use(
   }
 );
 
+// Refresh tokens are single-use, so concurrent 401s must share one refresh: a second
+// /auth/refresh with the same token would be rejected and log the user out.
+let refreshInFlight = null;
+
+const refreshAccessToken = () => {
+  if (!refreshInFlight) {
+    const refreshToken = localStorage.getItem('refreshToken');
+    refreshInFlight = (async () => {
+      if (!refreshToken) {
+        throw new Error('No refresh token');
+      }
+      try {
+        const response = await axios.post(`${API_BASE_URL}/auth/refresh`, {
+          refreshToken,
+        });
+
+        // Keep the rotated refresh token
+        const { accessToken, refreshToken: rotatedRefreshToken } = response.data;
+        localStorage.setItem('accessToken', accessToken);
+        if (rotatedRefreshToken) {
+          localStorage.setItem('refreshToken', rotatedRefreshToken);
+        }
+        return accessToken;
+      } catch (refreshError) {
+        // Another tab may have rotated the token first; use what it stored
+        if (localStorage.getItem('refreshToken') !== refreshToken && localStorage.getItem('accessToken')) {
+          return localStorage.getItem('accessToken');
+        }
+        throw refreshError;
+      }
+    })().finally(() => {
+      refreshInFlight = null;
+    });
+  }
+  return refreshInFlight;
+};
+
 // Response interceptor to handle token refresh
 api.interceptors.response.use(
   (response) => response,
   async (error) => {
     const originalRequest = error.config;
 
-    if (error.response?.status === 401 && !originalRequest._retry) {
+    const canRefresh = refreshInFlight || localStorage.getItem('refreshToken');
+    if (error.response?.status === 401 && originalRequest && !originalRequest._retry && canRefresh) {
       originalRequest._retry = true;
 
       try {
-        const refreshToken = localStorage.getItem('refreshToken');
-        if (refreshToken) {
-          const response = await axios.post(`${API_BASE_URL}/auth/refresh`, {
-            refreshToken,
-          });
-
-          const { accessToken } = response.data;
-          localStorage.setItem('accessToken', accessToken);
-
-          // Retry the original request
-          originalRequest.headers.Authorization = `Bearer ${accessToken}`;
-          return api(originalRequest);
-        }
+        const accessToken = await refreshAccessToken();
+
+        // Retry the original request
+        originalRequest.headers.Authorization = `Bearer ${accessToken}`;
+        return api(originalRequest);
       } catch (refreshError) {
         // Refresh failed, redirect to login
         localStorage.removeItem('accessToken');
@@ -94,13 +124,37 @@ export const fileAPI = {
   uploadFile: (formData) => api.post('/files/upload', formData, {
     headers: { 'Content-Type': 'multipart/form-data' },
   }),
+  // Sends the File/Blob as the raw request body so the server can stream it to disk
+  uploadFileStream: (file, folderPath = '/', onUploadProgress) => api.post('/files/upload/stream', file, {
+    params: { filename: file.name, folderPath },
+    headers: { 'Content-Type': file.type || 'application/octet-stream' },
+    onUploadProgress,
+  }),
+  createUploadSession: (sessionData) => api.post('/files/uploads', sessionData),
+  getUploadSession: (sessionId) => api.get(`/files/uploads/${sessionId}`),
+  uploadChunk: (sessionId, index, chunk, sha256, onUploadProgress) => api.put(`/files/uploads/${sessionId}/chunks/${index}`, chunk, {
+    headers: { 'Content-Type': 'application/octet-stream', 'X-Chunk-SHA256': sha256 },
+    onUploadProgress,
+  }),
+  completeUploadSession: (sessionId) => api.post(`/files/uploads/${sessionId}/complete`),
+  abortUploadSession: (sessionId) => api.delete(`/files/uploads/${sessionId}`),
   getFiles: (params) => api.get('/files', { params }),
+  searchFileContent: (params) => api.get('/files/search/content', { params }),
   downloadFile: (id) => api.get(`/files/download/${id}`, { responseType: 'blob' }),
+  downloadArchive: ({ folderPath, fileIds }) => api.post('/files/archive', { folderPath, fileIds }, { responseType: 'blob' }),
+  getThumbnail: (id, size) => api.get(`/files/${id}/thumbnail`, { params: { size }, responseType: 'blob' }),
+  getProcessingStatus: (id) => api.get(`/files/${id}/processing`),
   shareFile: (shareData) => api.post('/files/share', shareData),
+  shareFileBulk: (shareData) => api.post('/files/share/bulk', shareData),
   getFileShares: (id) => api.get(`/files/${id}/shares`),
   toggleFileVisibility: (id) => api.put(`/files/${id}/visibility`),
+  moveFile: (id, folderPath) => api.put(`/files/${id}/move`, { folderPath }),
   deleteFile: (id) => api.delete(`/files/${id}`),
+  getTrash: (params) => api.get('/files/trash', { params }),
+  restoreFile: (id) => api.post(`/files/${id}/restore`),
   getUserFolders: () => api.get('/files/folders'),
+  getFolder: (path) => api.get('/files/folders/info', { params: { path } }),
+  getFolderChildren: (path) => api.get('/files/folders/children', { params: { path } }),
   getFileStatistics: () => api.get('/files/statistics'),
 };
 
@@ -70,7 +70,8 @@ const useAuthStore = create(
       },
 
       logout: async () => {
-        const { refreshToken } = get();
+        // The API client may have rotated the token since login
+        const refreshToken = localStorage.getItem('refreshToken') || get().refreshToken;
         try {
           if (refreshToken) {
             await authAPI.logout(refreshToken);